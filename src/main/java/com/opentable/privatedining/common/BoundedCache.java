@@ -0,0 +1,205 @@
+package com.opentable.privatedining.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+// Size bounded LRU cache with an optional time to live. Values loaded while an invalidation of their key happened
+// are not stored, so a reader racing with a writer cannot put the old value back after the writer invalidated it;
+// loads of other keys are not affected.
+public class BoundedCache<K, V> implements MeterBinder {
+
+    private final String name;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // loads in progress, an invalidation matching the key of one marks it stale
+    private final Set<Load<K>> loads = new HashSet<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        // zero or negative means entries only leave the cache when evicted or invalidated
+        this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > BoundedCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    // cached value or the loaded one, empty loads are not cached
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        Load<K> load = new Load<>(key);
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !isExpired(entry)) {
+                hits.increment();
+                return Optional.of(entry.value());
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loads.add(load);
+        }
+        misses.increment();
+        Optional<V> loaded = Optional.empty();
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            synchronized (this) {
+                loads.remove(load);
+                if (loaded.isPresent() && !load.stale) {
+                    entries.put(key, new Entry<>(loaded.get(), clock.getAsLong()));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public Optional<V> getIfPresent(K key) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !isExpired(entry)) {
+                hits.increment();
+                return Optional.of(entry.value());
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(K key, V value) {
+        synchronized (this) {
+            entries.put(key, new Entry<>(value, clock.getAsLong()));
+        }
+    }
+
+    public void invalidate(K key) {
+        invalidateIf(key::equals);
+    }
+
+    // returns the number of entries removed
+    public int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        synchronized (this) {
+            for (Load<K> load : loads) {
+                if (predicate.test(load.key)) {
+                    load.stale = true;
+                }
+            }
+            Iterator<K> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (predicate.test(iterator.next())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public void invalidateAll() {
+        invalidateIf(key -> true);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0d : (double) hit / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(name + ".hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder(name + ".misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum)
+            .description("Entries dropped to stay within the size bound")
+            .register(registry);
+        FunctionCounter.builder(name + ".invalidations", invalidations, LongAdder::sum)
+            .description("Entries dropped because the underlying data changed")
+            .register(registry);
+        Gauge.builder(name + ".hit.rate", this, BoundedCache::getHitRate).register(registry);
+        Gauge.builder(name + ".size", this, BoundedCache::size).register(registry);
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return clock.getAsLong() - entry.storedAt() >= ttlNanos;
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+
+    }
+
+    // compared by identity, two loads of the same key are tracked separately
+    private static final class Load<K> {
+
+        private final K key;
+
+        private boolean stale;
+
+        private Load(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.opentable.privatedining.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.MediaType;
+
+// Newline-delimited JSON: one document per line, written as it is produced so memory does not grow with the
+// number of documents. Lines are flushed to the client in chunks of flushEvery documents.
+public class NdjsonWriter {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private final Writer writer;
+
+    private final ObjectMapper objectMapper;
+
+    private final int flushEvery;
+
+    private int unflushed;
+
+    public NdjsonWriter(OutputStream outputStream, ObjectMapper objectMapper, int flushEvery) {
+        this.writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    // unchecked so that it can be used from a Consumer, the client going away surfaces as UncheckedIOException
+    public void write(Object document) {
+        try {
+            writer.write(objectMapper.writeValueAsString(document));
+            writer.write('\n');
+            if (++unflushed >= flushEvery) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+            unflushed = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.opentable.privatedining.common;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+// Half-hour occupancy of a single series folded by day of week and time of day: cell (day, slot) keeps the peak and
+// the summed occupancy of every occurrence of that half-hour in the range, so ranges of any length are folded one
+// chunk at a time into 7 * SLOTS_PER_DAY cells.
+public final class OccupancyHeatmap {
+
+    public static final int DAYS = 7;
+
+    public static final int SLOTS_PER_DAY = 24 * 60 / Constant.BLOCK_INTERVAL;
+
+    private static final int CELLS = DAYS * SLOTS_PER_DAY;
+
+    private final int[] peak = new int[CELLS];
+
+    private final long[] total = new long[CELLS];
+
+    // occurrences of each half-hour in the folded range, empty ones included
+    private final int[] count = new int[CELLS];
+
+    // slot i of the level starts at start + i * BLOCK_INTERVAL, start being aligned to BLOCK_INTERVAL
+    public void add(LocalDateTime start, OccupancyLevel slots) {
+        int cell = cell(start.getDayOfWeek(), (start.getHour() * 60 + start.getMinute()) / Constant.BLOCK_INTERVAL);
+        for (int i = 0; i < slots.size(); i++) {
+            int occupancy = slots.peak(i);
+            if (occupancy > peak[cell]) {
+                peak[cell] = occupancy;
+            }
+            total[cell] += occupancy;
+            count[cell]++;
+            if (++cell == CELLS) {
+                cell = 0;
+            }
+        }
+    }
+
+    public int peak(DayOfWeek day, int slot) {
+        return peak[cell(day, slot)];
+    }
+
+    // mean occupancy over the occurrences of the half-hour, zero when the range has none
+    public double average(DayOfWeek day, int slot) {
+        int cell = cell(day, slot);
+        return count[cell] == 0 ? 0d : (double) total[cell] / count[cell];
+    }
+
+    private static int cell(DayOfWeek day, int slot) {
+        return (day.getValue() - 1) * SLOTS_PER_DAY + slot;
+    }
+}
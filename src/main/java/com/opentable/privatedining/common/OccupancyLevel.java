@@ -0,0 +1,76 @@
+package com.opentable.privatedining.common;
+
+import java.util.Arrays;
+
+// One level of an occupancy pyramid for a single series (a space or the restaurant total): the peak and the summed
+// occupancy of every bucket, a bucket spanning slotsPerBucket BLOCK_INTERVAL slots. Coarser levels are built from
+// the one below, peaks by max and totals by sum, so the average of a bucket is exact at every level.
+public final class OccupancyLevel {
+
+    private final int[] peak;
+
+    // null for the slots themselves, the total of a slot being its occupancy
+    private final long[] total;
+
+    private final int slotsPerBucket;
+
+    private OccupancyLevel(int[] peak, long[] total, int slotsPerBucket) {
+        this.peak = peak;
+        this.total = total;
+        this.slotsPerBucket = slotsPerBucket;
+    }
+
+    // the slots themselves, each slot being its own peak and total
+    public static OccupancyLevel of(int[] occupancy) {
+        return new OccupancyLevel(occupancy, null, 1);
+    }
+
+    public static OccupancyLevel of(int[] peak, long[] total, int slotsPerBucket) {
+        if (peak.length != total.length) {
+            throw new IllegalArgumentException("peak and total must have the same number of buckets");
+        }
+        return new OccupancyLevel(peak, total, slotsPerBucket);
+    }
+
+    // every factor buckets merged into one, a trailing partial bucket is kept
+    public OccupancyLevel coarsen(int factor) {
+        if (factor == 1) {
+            return this;
+        }
+        int buckets = (peak.length + factor - 1) / factor;
+        int[] coarsePeak = new int[buckets];
+        long[] coarseTotal = new long[buckets];
+        for (int i = 0; i < peak.length; i++) {
+            int bucket = i / factor;
+            coarsePeak[bucket] = Math.max(coarsePeak[bucket], peak[i]);
+            coarseTotal[bucket] += total(i);
+        }
+        return new OccupancyLevel(coarsePeak, coarseTotal, slotsPerBucket * factor);
+    }
+
+    public int size() {
+        return peak.length;
+    }
+
+    public int getSlotsPerBucket() {
+        return slotsPerBucket;
+    }
+
+    public int peak(int bucket) {
+        return peak[bucket];
+    }
+
+    public long total(int bucket) {
+        return total == null ? peak[bucket] : total[bucket];
+    }
+
+    // mean occupancy over the slots of the bucket, empty slots included
+    public double average(int bucket) {
+        return (double) total(bucket) / slotsPerBucket;
+    }
+
+    // a copy, levels may be shared by cached reports
+    public int[] peaks() {
+        return Arrays.copyOf(peak, peak.length);
+    }
+}
@@ -0,0 +1,108 @@
+package com.opentable.privatedining.common;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Headcount per slot of every space and of the whole restaurant in one pass over the reservations: each
+// reservation drops a +party / -party event pair into the difference array of its space, then a prefix sum in place
+// turns the events into occupancy and the restaurant total is the sum of its spaces. Bucketing the events by slot
+// index is the sort of the sweep, so the cost is O(reservations + spaces * slots) whatever the overlap, and the
+// only arrays allocated are the ones returned. The prefix sum of a space runs when it is first read, so distinct
+// spaces can be finished by distinct threads.
+public final class OccupancySweep {
+
+    private final int[][] spaces;
+
+    // spaces still holding their difference array
+    private final boolean[] pending;
+
+    private final int slots;
+
+    private int[] total;
+
+    private OccupancySweep(int[][] spaces, boolean[] pending, int slots, int[] total) {
+        this.spaces = spaces;
+        this.pending = pending;
+        this.slots = slots;
+        this.total = total;
+    }
+
+    // reservations of spaces which are not in the list are ignored
+    public static OccupancySweep of(List<Space> spaces, Collection<Reservation> reservations,
+        LocalDateTime from, int slots, long slotMinutes) {
+        Map<UUID, Integer> indexes = indexes(spaces);
+        int[][] occupancy = new int[spaces.size()][slots];
+        for (Reservation reservation : reservations) {
+            Integer index = indexes.get(reservation.getSpaceId());
+            if (index != null) {
+                SlotTimeline.addTo(occupancy[index], reservation, from, slots, slotMinutes);
+            }
+        }
+
+        boolean[] pending = new boolean[occupancy.length];
+        Arrays.fill(pending, true);
+        return new OccupancySweep(occupancy, pending, slots, null);
+    }
+
+    // per-slot sums computed elsewhere (e.g. by the database), laid out like of(...) with the restaurant total
+    // accumulated while they are placed
+    public static OccupancySweep ofSlots(List<Space> spaces, Collection<SlotOccupancy> slotOccupancies, int slots) {
+        Map<UUID, Integer> indexes = indexes(spaces);
+        int[][] occupancy = new int[spaces.size()][slots];
+        int[] total = new int[slots];
+        for (SlotOccupancy slotOccupancy : slotOccupancies) {
+            Integer index = indexes.get(slotOccupancy.spaceId());
+            if (index != null && slotOccupancy.slot() >= 0 && slotOccupancy.slot() < slots) {
+                occupancy[index][slotOccupancy.slot()] += slotOccupancy.occupancy();
+                total[slotOccupancy.slot()] += slotOccupancy.occupancy();
+            }
+        }
+        return new OccupancySweep(occupancy, new boolean[occupancy.length], slots, total);
+    }
+
+    public int size() {
+        return spaces.length;
+    }
+
+    // occupancy of the space at position index of the list given to of(...), a space must not be read by two threads
+    // at once
+    public int[] space(int index) {
+        if (pending[index]) {
+            SlotTimeline.accumulate(spaces[index]);
+            pending[index] = false;
+        }
+        return spaces[index];
+    }
+
+    public int[] total() {
+        if (total == null) {
+            total = new int[slots];
+            for (int i = 0; i < spaces.length; i++) {
+                add(total, space(i));
+            }
+        }
+        return total;
+    }
+
+    public static void add(int[] sum, int[] occupancy) {
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += occupancy[i];
+        }
+    }
+
+    private static Map<UUID, Integer> indexes(List<Space> spaces) {
+        Map<UUID, Integer> indexes = new HashMap<>(spaces.size() * 2);
+        for (int i = 0; i < spaces.size(); i++) {
+            indexes.put(spaces.get(i).getId(), i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,34 @@
+package com.opentable.privatedining.common;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public final class OperatingHours {
+
+    private OperatingHours() {
+
+    }
+
+    // whether a reservation fits into the opening hours of a restaurant, which may span midnight
+    public static boolean isWithin(LocalDateTime rsvtStart, LocalDateTime rsvtEnd, LocalTime restStart,
+        LocalTime restEnd) {
+        // normal same-day hours (e.g. 09:00 - 17:00)
+        if (!restStart.isAfter(restEnd)) {
+            return rsvtStart.toLocalDate().equals(rsvtEnd.toLocalDate()) && !rsvtStart.toLocalTime().isBefore(restStart)
+                && !rsvtEnd.toLocalTime().isAfter(restEnd);
+        }
+        // overnight hours (e.g. 18:00 - 02:00)
+        if (!rsvtStart.toLocalTime().isBefore(restStart)) {
+            // restaurant opens the same day as reservation starts
+            LocalDateTime restStartDt = LocalDateTime.of(rsvtStart.toLocalDate(), restStart);
+            LocalDateTime restEndDt = LocalDateTime.of(rsvtStart.toLocalDate().plusDays(1), restEnd);
+            return !rsvtStart.isBefore(restStartDt) && !rsvtEnd.isAfter(restEndDt);
+        } else {
+            // restaurant opened the day before reservation starts
+            LocalDateTime restStartDt = LocalDateTime.of(rsvtStart.toLocalDate().minusDays(1), restStart);
+            LocalDateTime restEndDt = LocalDateTime.of(rsvtStart.toLocalDate(), restEnd);
+            return !rsvtStart.isBefore(restStartDt) && !rsvtEnd.isAfter(restEndDt);
+        }
+    }
+
+}
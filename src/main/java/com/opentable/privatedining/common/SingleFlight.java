@@ -0,0 +1,119 @@
+package com.opentable.privatedining.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Concurrent calls for the same key share one computation: the first caller computes on its own thread and callers
+// arriving while it runs wait for its result (or its exception). Nothing is kept once the computation is done.
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder computations = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V run(K key, Function<K, V> computation) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            waiters.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+
+        computations.increment();
+        try {
+            V value = computation.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // callers arriving after this start their own computation, callers already waiting still get the running one;
+    // returns the number of computations detached
+    public int forgetIf(Predicate<K> predicate) {
+        int forgotten = 0;
+        for (K key : inFlight.keySet()) {
+            if (predicate.test(key) && inFlight.remove(key) != null) {
+                forgotten++;
+            }
+        }
+        return forgotten;
+    }
+
+    public long getComputations() {
+        return computations.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getWaiters() {
+        return waiters.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    // share of calls served by another caller's computation
+    public double getCoalescingRatio() {
+        long joined = coalesced.sum();
+        long total = joined + computations.sum();
+        return total == 0 ? 0d : (double) joined / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(name + ".computations", computations, LongAdder::sum)
+            .description("Calls which computed the value themselves")
+            .register(registry);
+        FunctionCounter.builder(name + ".coalesced", coalesced, LongAdder::sum)
+            .description("Calls which waited for the computation of an identical call")
+            .register(registry);
+        Gauge.builder(name + ".waiters", this, SingleFlight::getWaiters)
+            .description("Callers currently waiting for another caller's computation")
+            .register(registry);
+        Gauge.builder(name + ".in.flight", this, SingleFlight::getInFlight)
+            .description("Computations currently running")
+            .register(registry);
+        Gauge.builder(name + ".coalescing.ratio", this, SingleFlight::getCoalescingRatio)
+            .register(registry);
+    }
+}
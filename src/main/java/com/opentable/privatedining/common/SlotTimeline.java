@@ -0,0 +1,80 @@
+package com.opentable.privatedining.common;
+
+import com.opentable.privatedining.model.Reservation;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+// Headcount per BLOCK_INTERVAL slot of a window, computed with a difference array: every reservation adds its
+// party at its first slot and removes it after its last, one prefix sum then yields all slots.
+public final class SlotTimeline {
+
+    private SlotTimeline() {
+
+    }
+
+    public static int slotCount(LocalDateTime from, LocalDateTime to) {
+        return Math.toIntExact(Duration.between(from, to).toMinutes() / Constant.BLOCK_INTERVAL);
+    }
+
+    // occupancy[i] is the headcount of [from + i * BLOCK_INTERVAL, from + (i + 1) * BLOCK_INTERVAL)
+    public static int[] occupancy(Collection<Reservation> reservations, LocalDateTime from, int slots) {
+        int[] delta = new int[slots + 1];
+        for (Reservation reservation : reservations) {
+            addTo(delta, reservation, from, slots);
+        }
+        return prefixSum(delta, slots);
+    }
+
+    // adds the reservation to a difference array of slots + 1 entries, the part outside the window is ignored. The
+    // last entry is never summed, so an array of slots entries works as well
+    public static void addTo(int[] delta, Reservation reservation, LocalDateTime from, int slots) {
+        addTo(delta, reservation, from, slots, Constant.BLOCK_INTERVAL);
+    }
+
+    // same as above with slots of slotMinutes each
+    public static void addTo(int[] delta, Reservation reservation, LocalDateTime from, int slots, long slotMinutes) {
+        int first = Math.max(0, slotIndex(from, reservation.getStartTime(), slotMinutes));
+        // a reservation ending inside a slot still occupies it
+        int last = Math.min(slots, slotIndexCeil(from, reservation.getEndTime(), slotMinutes));
+        if (first < last) {
+            delta[first] += reservation.getPartySize();
+            if (last < delta.length) {
+                delta[last] -= reservation.getPartySize();
+            }
+        }
+    }
+
+    public static int[] prefixSum(int[] delta, int slots) {
+        int[] occupancy = new int[slots];
+        int running = 0;
+        for (int i = 0; i < slots; i++) {
+            running += delta[i];
+            occupancy[i] = running;
+        }
+        return occupancy;
+    }
+
+    // turns a difference array of slots entries into the occupancy itself, without another array
+    public static void accumulate(int[] delta) {
+        for (int i = 1; i < delta.length; i++) {
+            delta[i] += delta[i - 1];
+        }
+    }
+
+    // clamped to int so that a reservation far outside the window cannot overflow into it
+    private static int slotIndex(LocalDateTime from, LocalDateTime time, long slotMinutes) {
+        return clamp(Math.floorDiv(ChronoUnit.MINUTES.between(from, time), slotMinutes));
+    }
+
+    private static int slotIndexCeil(LocalDateTime from, LocalDateTime time, long slotMinutes) {
+        // unlike Duration.between, no object per call
+        long minutes = ChronoUnit.MINUTES.between(from, time);
+        return clamp(-Math.floorDiv(-minutes, slotMinutes));
+    }
+
+    private static int clamp(long index) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, index));
+    }
+}
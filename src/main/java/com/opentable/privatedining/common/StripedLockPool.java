@@ -0,0 +1,167 @@
+package com.opentable.privatedining.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed set of locks indexed by the hash of a key. Locks are never created or removed after construction,
+// two keys may share a stripe which only costs some extra waiting.
+public class StripedLockPool implements MeterBinder {
+
+    private final String name;
+
+    private final ReentrantLock[] stripes;
+
+    private final int mask;
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder contended = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final AtomicLongArray contendedByStripe;
+
+    public StripedLockPool(String name, int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        this.name = name;
+        // power of two so that the stripe is a mask instead of a modulo
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.contendedByStripe = new AtomicLongArray(size);
+    }
+
+    // blocks until the stripe of the key is held, release it with unlock() on the returned lock
+    public ReentrantLock lock(Object key) {
+        return lockStripe(stripeOf(key));
+    }
+
+    // holds the stripes of all keys at once, each stripe is taken once and always in ascending order so that two
+    // callers locking overlapping key sets cannot deadlock
+    public List<ReentrantLock> lockAll(Collection<?> keys) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Object key : keys) {
+            stripeIndexes.add(stripeOf(key));
+        }
+        return lockStripes(stripeIndexes);
+    }
+
+    // the indexes must be in ascending order
+    private List<ReentrantLock> lockStripes(Collection<Integer> stripeIndexes) {
+        List<ReentrantLock> locks = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int stripe : stripeIndexes) {
+                locks.add(lockStripe(stripe));
+            }
+        } catch (RuntimeException | Error e) {
+            unlockAll(locks);
+            throw e;
+        }
+        return locks;
+    }
+
+    // holds every stripe, nothing keyed by this pool can run until they are released
+    public List<ReentrantLock> lockAllStripes() {
+        List<Integer> stripeIndexes = new ArrayList<>(stripes.length);
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            stripeIndexes.add(stripe);
+        }
+        return lockStripes(stripeIndexes);
+    }
+
+    public void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    public int stripeOf(Object key) {
+        int hash = key.hashCode();
+        // spread the high bits, UUID hash codes are fine but other keys may only differ in the upper bits
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContended() {
+        return contended.sum();
+    }
+
+    public long getContended(int stripe) {
+        return contendedByStripe.get(stripe);
+    }
+
+    // highest contention count of any single stripe, a hot stripe next to a low total points at a hot key
+    public long getHottestStripeContended() {
+        long hottest = 0;
+        for (int i = 0; i < contendedByStripe.length(); i++) {
+            hottest = Math.max(hottest, contendedByStripe.get(i));
+        }
+        return hottest;
+    }
+
+    public int getQueueLength() {
+        int queued = 0;
+        for (ReentrantLock stripe : stripes) {
+            queued += stripe.getQueueLength();
+        }
+        return queued;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(name + ".acquisitions", acquisitions, LongAdder::sum)
+            .description("Lock acquisitions")
+            .register(registry);
+        FunctionCounter.builder(name + ".contended", contended, LongAdder::sum)
+            .description("Lock acquisitions that had to wait for another holder")
+            .register(registry);
+        FunctionCounter.builder(name + ".wait", waitNanos,
+                adder -> adder.sum() / (double) TimeUnit.SECONDS.toNanos(1))
+            .baseUnit("seconds")
+            .description("Total time spent waiting for a contended stripe")
+            .register(registry);
+        Gauge.builder(name + ".queued", this, StripedLockPool::getQueueLength)
+            .description("Threads currently waiting for a stripe")
+            .register(registry);
+        Gauge.builder(name + ".hottest.contended", this, StripedLockPool::getHottestStripeContended)
+            .description("Contended acquisitions of the busiest stripe")
+            .register(registry);
+        Gauge.builder(name + ".stripes", this, StripedLockPool::getStripeCount)
+            .register(registry);
+    }
+
+    private ReentrantLock lockStripe(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        acquisitions.increment();
+        if (!lock.tryLock()) {
+            contended.increment();
+            contendedByStripe.incrementAndGet(stripe);
+            long started = System.nanoTime();
+            lock.lock();
+            waitNanos.add(System.nanoTime() - started);
+        }
+        return lock;
+    }
+}
@@ -0,0 +1,23 @@
+package com.opentable.privatedining.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AvailabilityConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService availabilitySearchExecutor(AvailabilityProperties availabilityProperties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "availability-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(availabilityProperties.getSearchThreads(), threadFactory);
+    }
+}
@@ -0,0 +1,20 @@
+package com.opentable.privatedining.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "private-dining.availability")
+public class AvailabilityProperties {
+
+    // threads evaluating restaurants of a cross-restaurant search, shared by all concurrent searches
+    private int searchThreads = Runtime.getRuntime().availableProcessors();
+
+    // restaurants evaluated per task, each task loads the reservations of its restaurants with one query
+    private int searchChunkSize = 64;
+
+    // tasks of a single search submitted but not yet consumed, keeps a slow client from piling up results
+    private int searchMaxInFlight = 2 * Runtime.getRuntime().availableProcessors();
+}
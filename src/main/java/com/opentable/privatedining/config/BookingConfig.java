@@ -0,0 +1,50 @@
+package com.opentable.privatedining.config;
+
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.service.BookingMailboxes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BookingConfig {
+
+    @Bean
+    public StripedLockPool spaceLockPool(BookingProperties bookingProperties) {
+        return new StripedLockPool("booking.space.lock", bookingProperties.getLockStripes());
+    }
+
+    @Bean
+    public BookingMailboxes bookingMailboxes(BookingProperties bookingProperties) {
+        // platform threads, a writer only holds one while committing a group
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "booking-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new BookingMailboxes(Executors.newFixedThreadPool(bookingProperties.getWriterThreads(), threadFactory),
+            bookingProperties.getWriterMaxGroupSize());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService slotCounterCheckScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slot-counter-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService ledgerCheckScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.opentable.privatedining.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "private-dining.booking")
+public class BookingProperties {
+
+    // LOCAL: in-JVM space locks with the occupancy ledger, only safe for a single node
+    // ACTOR: one writer per space drains queued bookings and commits them in groups, single node as well
+    // DISTRIBUTED: conditional slot counters in MongoDB, safe for several nodes sharing one database
+    private CapacityMode capacityMode = CapacityMode.LOCAL;
+
+    // number of space locks, rounded up to a power of two; spaces sharing a stripe are serialized together
+    private int lockStripes = 256;
+
+    // upper bound of reservations accepted by a single batch request
+    private int maxBatchSize = 500;
+
+    // page size of reservation listings when the client does not ask for one, and the most it may ask for
+    private int defaultPageSize = 50;
+
+    private int maxPageSize = 500;
+
+    // NDJSON export: documents fetched per cursor batch and written per flush
+    private int exportBatchSize = 1000;
+
+    // ACTOR mode: threads shared by all space writers and the most bookings a writer commits at once
+    private int writerThreads = Runtime.getRuntime().availableProcessors();
+
+    private int writerMaxGroupSize = 64;
+
+    // DISTRIBUTED mode: how often one node checks the slot counters of today and later against the reservations,
+    // 0 disables it
+    private Duration slotCounterCheckInterval = Duration.ofMinutes(15);
+
+    // LOCAL and ACTOR modes: how often the occupancy ledger is checked against the reservations and repaired,
+    // 0 disables it
+    private Duration ledgerCheckInterval = Duration.ofMinutes(15);
+
+    public enum CapacityMode {
+        LOCAL,
+        ACTOR,
+        DISTRIBUTED
+    }
+}
@@ -0,0 +1,33 @@
+package com.opentable.privatedining.config;
+
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.service.OccupancyReportCache;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedCache<ObjectId, Restaurant> restaurantCache(CacheProperties cacheProperties) {
+        CacheProperties.Spec spec = cacheProperties.getRestaurants();
+        return new BoundedCache<>("cache.restaurants", spec.getMaxSize(), spec.getTtl());
+    }
+
+    @Bean
+    public BoundedCache<OccupancyReportCache.Key, OccupancyReport> reportCache(CacheProperties cacheProperties) {
+        CacheProperties.Spec spec = cacheProperties.getReports();
+        return new BoundedCache<>("cache.reports", spec.getMaxSize(), spec.getTtl());
+    }
+
+    // concurrent misses for the same report share one computation
+    @Bean
+    public SingleFlight<OccupancyReportCache.Key, Optional<OccupancyReport>> reportFlights() {
+        return new SingleFlight<>("report.inflight");
+    }
+}
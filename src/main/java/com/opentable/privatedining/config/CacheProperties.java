@@ -0,0 +1,37 @@
+package com.opentable.privatedining.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "private-dining.cache")
+public class CacheProperties {
+
+    // restaurant documents incl. their spaces; writes through this node invalidate right away, the ttl bounds how
+    // long changes made by other nodes stay invisible
+    private Spec restaurants = new Spec(1000, Duration.ofMinutes(5));
+
+    // finished occupancy reports, bookings and cancellations through this node invalidate the reports they overlap
+    private Spec reports = new Spec(500, Duration.ofSeconds(30));
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private int maxSize;
+
+        // zero disables expiry
+        private Duration ttl;
+
+        public Spec() {
+        }
+
+        public Spec(int maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+}
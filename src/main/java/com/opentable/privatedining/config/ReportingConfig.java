@@ -0,0 +1,43 @@
+package com.opentable.privatedining.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReportingConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService rollupRebuildScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // one thread, a restaurant's pyramid is never refreshed twice at once on this node
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService pyramidRefreshExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pyramid-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService reportSeriesExecutor(ReportingProperties reportingProperties) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "report-series-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, reportingProperties.getParallelThreads()), threadFactory);
+    }
+}
@@ -0,0 +1,46 @@
+package com.opentable.privatedining.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "private-dining.reporting")
+public class ReportingProperties {
+
+    // backend of reports which do not ask for one
+    // JAVA: overlapping reservations are read and swept in the JVM
+    // AGGREGATION: MongoDB expands reservations to slots and only returns the per-slot sums
+    // ROLLUP: per-slot headcount maintained by every booking and cancellation, read without touching reservations
+    private Backend backend = Backend.JAVA;
+
+    // how often the rollups are recomputed from the reservations to repair drift, zero disables the job
+    private Duration rollupRebuildInterval = Duration.ofHours(1);
+
+    // days before today the rebuild still repairs, earlier days are left as they are
+    private int rollupRebuildLookbackDays = 7;
+
+    // time range computed at once by a streamed report, at least one bucket; bounds the memory of a stream
+    private Duration streamChunk = Duration.ofDays(1);
+
+    // days folded at once into a heatmap, bounds its memory and the size of each read
+    private Duration heatmapChunk = Duration.ofDays(28);
+
+    // threads computing the space series of large reports, shared by all reports; one disables parallel reports
+    private int parallelThreads = Runtime.getRuntime().availableProcessors();
+
+    // spaces * half-hour slots from which the series of a report are computed in parallel, below it the hand-off
+    // costs more than it saves (see ReportParallelismBenchmark)
+    private long parallelThreshold = 500_000;
+
+    // restaurants a single portfolio report may cover
+    private int portfolioMaxRestaurants = 500;
+
+    public enum Backend {
+        JAVA,
+        AGGREGATION,
+        ROLLUP
+    }
+}
@@ -0,0 +1,110 @@
+package com.opentable.privatedining.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentable.privatedining.common.NdjsonWriter;
+import com.opentable.privatedining.dto.availability.RestaurantAvailabilityDTO;
+import com.opentable.privatedining.mapper.AvailabilityMapper;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.availability.RestaurantAvailability;
+import com.opentable.privatedining.service.AvailabilityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/v1/restaurants")
+@Tag(name = "Availability", description = "Finds the spaces and start times which can take a party")
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+    private final AvailabilityMapper availabilityMapper;
+    private final ObjectMapper objectMapper;
+
+    public AvailabilityController(AvailabilityService availabilityService, AvailabilityMapper availabilityMapper,
+        ObjectMapper objectMapper) {
+        this.availabilityService = availabilityService;
+        this.availabilityMapper = availabilityMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(value = "/availability", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Search availability across restaurants",
+        description = "Stream every restaurant which can host the party, one JSON document per line as soon as it "
+            + "is found; the order of the lines is not defined")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search started",
+            content = @Content(mediaType = NdjsonWriter.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = RestaurantAvailabilityDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid party size, window or duration")
+    })
+    public ResponseEntity<StreamingResponseBody> searchAvailability(
+        @Parameter(description = "Number of people in the party", required = true)
+        @RequestParam("partySize") int partySize,
+        @Parameter(description = "Start of the window to search", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("from") LocalDateTime from,
+        @Parameter(description = "End of the window to search", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("to") LocalDateTime to,
+        @Parameter(description = "Reservation duration in minutes", required = true)
+        @RequestParam("duration") int duration) {
+        // validated and filtered before the response is committed so that bad requests still get a 400
+        List<Restaurant> candidates = availabilityService.findSearchCandidates(partySize, from, to, duration);
+        StreamingResponseBody body = outputStream -> {
+            // every restaurant goes out as soon as it is found
+            NdjsonWriter writer = new NdjsonWriter(outputStream, objectMapper, 1);
+            availabilityService.searchAvailability(candidates, partySize, from, to, duration,
+                availability -> writer.write(availabilityMapper.toDTO(availability)));
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Restaurant availability",
+        description = "Retrieve every space and start time at which the party can be booked for the given duration")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Availability computed",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = RestaurantAvailabilityDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid id, party size, window or duration")
+    })
+    public ResponseEntity<RestaurantAvailabilityDTO> getAvailability(
+        @Parameter(description = "ID of the restaurant", required = true)
+        @PathVariable("id") String id,
+        @Parameter(description = "Number of people in the party", required = true)
+        @RequestParam("partySize") int partySize,
+        @Parameter(description = "Start of the window to search", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("from") LocalDateTime from,
+        @Parameter(description = "End of the window to search", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("to") LocalDateTime to,
+        @Parameter(description = "Reservation duration in minutes", required = true)
+        @RequestParam("duration") int duration) {
+        try {
+            ObjectId restaurantId = new ObjectId(id);
+            RestaurantAvailability availability = availabilityService.getAvailability(restaurantId, partySize, from,
+                to, duration);
+            return ResponseEntity.ok(availabilityMapper.toDTO(availability));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
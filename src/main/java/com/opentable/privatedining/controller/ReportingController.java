@@ -1,8 +1,18 @@
 package com.opentable.privatedining.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
+import com.opentable.privatedining.dto.reporting.ColumnarOccupancyReportDTO;
+import com.opentable.privatedining.dto.reporting.HeatmapReportDTO;
 import com.opentable.privatedining.dto.reporting.OccupancyReportDTO;
+import com.opentable.privatedining.dto.reporting.PortfolioReportDTO;
+import com.opentable.privatedining.jsonserializer.OccupancyReportStreamWriter;
 import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
 import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.OccupancyReportStream;
+import com.opentable.privatedining.model.reporting.PortfolioReport;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
 import com.opentable.privatedining.service.ReportingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,14 +22,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Function;
+import org.bson.types.ObjectId;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/v1/reporting")
@@ -28,10 +44,13 @@ public class ReportingController {
 
     private final ReportingService reportService;
     private final OccupancyReportMapper occupancyReportMapper;
+    private final ObjectMapper objectMapper;
 
-    public ReportingController(ReportingService reportService, OccupancyReportMapper occupancyReportMapper) {
+    public ReportingController(ReportingService reportService, OccupancyReportMapper occupancyReportMapper,
+        ObjectMapper objectMapper) {
         this.reportService = reportService;
         this.occupancyReportMapper = occupancyReportMapper;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}/occupancy")
@@ -40,7 +59,7 @@ public class ReportingController {
         @ApiResponse(responseCode = "200", description = "Valid id and date/time range",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = OccupancyReportDTO.class))),
         @ApiResponse(responseCode = "404", description = "Restaurant/space not found"),
-        @ApiResponse(responseCode = "400", description = "Invalid start/end time or granularity")
+        @ApiResponse(responseCode = "400", description = "Invalid start/end time, granularity or backend")
     })
     public ResponseEntity<OccupancyReportDTO> getOccupancyReport(
         @Parameter(description = "ID of the restaurant to retrieve", required = true)
@@ -52,15 +71,175 @@ public class ReportingController {
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
         @RequestParam("end") LocalDateTime end,
         @Parameter(description = "ID of the space to retrieve")
-        @RequestParam(value = "spaceId", required = false) String spaceId) {
+        @RequestParam(value = "spaceId", required = false) String spaceId,
+        @Parameter(description = "Report backend, JAVA, AGGREGATION or ROLLUP, the configured one by default")
+        @RequestParam(value = "backend", required = false) String backend,
+        @Parameter(description = "Bucket size, HALF_HOURLY (default), HOURLY, DAILY or WEEKLY; start and end must be "
+            + "aligned to it, weeks start on Monday")
+        @RequestParam(value = "granularity", required = false) String granularity) {
+        return report(id, spaceId, start, end, backend, granularity, occupancyReportMapper::toDto);
+    }
+
+    @GetMapping(value = "/{id}/occupancy", produces = ColumnarOccupancyReportDTO.MEDIA_TYPE)
+    @Operation(summary = "Columnar occupancy report",
+        description = "Same report with one occupancy array per series, selected by Accept: "
+            + ColumnarOccupancyReportDTO.MEDIA_TYPE)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Valid id and date/time range",
+            content = @Content(mediaType = ColumnarOccupancyReportDTO.MEDIA_TYPE,
+                schema = @Schema(implementation = ColumnarOccupancyReportDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant/space not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid start/end time, granularity or backend")
+    })
+    public ResponseEntity<ColumnarOccupancyReportDTO> getColumnarOccupancyReport(
+        @Parameter(description = "ID of the restaurant to retrieve", required = true)
+        @PathVariable("id") String id,
+        @Parameter(description = "Report Start time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("start") LocalDateTime start,
+        @Parameter(description = "Report End time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("end") LocalDateTime end,
+        @Parameter(description = "ID of the space to retrieve")
+        @RequestParam(value = "spaceId", required = false) String spaceId,
+        @Parameter(description = "Report backend, JAVA, AGGREGATION or ROLLUP, the configured one by default")
+        @RequestParam(value = "backend", required = false) String backend,
+        @Parameter(description = "Bucket size, HALF_HOURLY (default), HOURLY, DAILY or WEEKLY")
+        @RequestParam(value = "granularity", required = false) String granularity) {
+        return report(id, spaceId, start, end, backend, granularity, occupancyReportMapper::toColumnarDto);
+    }
+
+    @GetMapping("/{id}/occupancy/heatmap")
+    @Operation(summary = "Occupancy heatmap",
+        description = "Half-hour occupancy of a range of whole days folded by day of week and time of day: the average "
+            + "and peak of each of the 7 x 48 half-hours of the week, for the restaurant and each space")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Valid id and date range",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = HeatmapReportDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant/space not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid start/end time or backend")
+    })
+    public ResponseEntity<HeatmapReportDTO> getHeatmapReport(
+        @Parameter(description = "ID of the restaurant to retrieve", required = true)
+        @PathVariable("id") String id,
+        @Parameter(description = "Start of the range, midnight", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("start") LocalDateTime start,
+        @Parameter(description = "End of the range, midnight", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("end") LocalDateTime end,
+        @Parameter(description = "ID of the space to retrieve")
+        @RequestParam(value = "spaceId", required = false) String spaceId,
+        @Parameter(description = "Report backend, JAVA, AGGREGATION or ROLLUP, the configured one by default")
+        @RequestParam(value = "backend", required = false) String backend) {
+        try {
+            HeatmapReport request = new HeatmapReport(new ObjectId(id), occupancyReportMapper.stringToUuid(spaceId),
+                start, end);
+            return ResponseEntity.ok(occupancyReportMapper.toHeatmapDto(reportService.getHeatmapReport(request,
+                toBackend(backend))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/portfolio/occupancy")
+    @Operation(summary = "Portfolio occupancy report",
+        description = "Occupancy of many restaurants at once, selected by id or by cuisine type: the total of each "
+            + "restaurant and of the whole portfolio")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Valid ids or cuisine type and date/time range",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PortfolioReportDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant not found"),
+        @ApiResponse(responseCode = "400", description = "Neither or both of ids and cuisine type, too many "
+            + "restaurants, invalid start/end time or granularity")
+    })
+    public ResponseEntity<PortfolioReportDTO> getPortfolioReport(
+        @Parameter(description = "IDs of the restaurants, comma separated or repeated")
+        @RequestParam(value = "restaurantIds", required = false) List<String> restaurantIds,
+        @Parameter(description = "Cuisine type selecting the restaurants instead of ids, case insensitive")
+        @RequestParam(value = "cuisineType", required = false) String cuisineType,
+        @Parameter(description = "Report Start time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("start") LocalDateTime start,
+        @Parameter(description = "Report End time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("end") LocalDateTime end,
+        @Parameter(description = "Bucket size, HALF_HOURLY (default), HOURLY, DAILY or WEEKLY")
+        @RequestParam(value = "granularity", required = false) String granularity) {
+        try {
+            List<ObjectId> ids = restaurantIds == null ? null
+                : restaurantIds.stream().map(ObjectId::new).toList();
+            PortfolioReport request = new PortfolioReport(ids, cuisineType, start, end, (long) toLevel(granularity)
+                .getMinutes());
+            return ResponseEntity.ok(occupancyReportMapper.toPortfolioDto(reportService.getPortfolioReport(request)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/{id}/occupancy/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Streamed occupancy report",
+        description = "Occupancy over long periods, computed and written in time order one chunk at a time: one row "
+            + "per slot with the value of every series, the restaurant total first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Valid id and date/time range",
+            content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "404", description = "Restaurant/space not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid start/end time, granularity or backend")
+    })
+    public ResponseEntity<StreamingResponseBody> streamOccupancyReport(
+        @Parameter(description = "ID of the restaurant to retrieve", required = true)
+        @PathVariable("id") String id,
+        @Parameter(description = "Report Start time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("start") LocalDateTime start,
+        @Parameter(description = "Report End time", required = true)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam("end") LocalDateTime end,
+        @Parameter(description = "ID of the space to retrieve")
+        @RequestParam(value = "spaceId", required = false) String spaceId,
+        @Parameter(description = "Report backend, JAVA, AGGREGATION or ROLLUP, the configured one by default")
+        @RequestParam(value = "backend", required = false) String backend,
+        @Parameter(description = "Bucket size, HALF_HOURLY (default), HOURLY, DAILY or WEEKLY")
+        @RequestParam(value = "granularity", required = false) String granularity) {
+        OccupancyReportStream stream;
+        try {
+            OccupancyReport request = toRequest(id, spaceId, start, end, granularity);
+            // validated before the response is committed, errors still map to their status
+            stream = reportService.streamOccupancyReport(request, toBackend(backend));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream ->
+            OccupancyReportStreamWriter.write(stream, objectMapper.getFactory().createGenerator(outputStream));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private <T> ResponseEntity<T> report(String id, String spaceId, LocalDateTime start, LocalDateTime end,
+        String backend, String granularity, Function<OccupancyReport, T> toDto) {
         try {
-            OccupancyReportDTO requestDto = new OccupancyReportDTO(id, spaceId, start, end);
-            OccupancyReport request = occupancyReportMapper.toModel(requestDto);
-            Optional<OccupancyReport> report = reportService.getOccupancyReport(request);
-            return report.map(r -> ResponseEntity.ok(occupancyReportMapper.toDto(r)))
+            OccupancyReport request = toRequest(id, spaceId, start, end, granularity);
+            Optional<OccupancyReport> report = reportService.getOccupancyReport(request, toBackend(backend));
+            return report.map(r -> ResponseEntity.ok(toDto.apply(r)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    private OccupancyReport toRequest(String id, String spaceId, LocalDateTime start, LocalDateTime end,
+        String granularity) {
+        OccupancyReportDTO requestDto = new OccupancyReportDTO(id, spaceId, start, end);
+        requestDto.setGranularity((long) toLevel(granularity).getMinutes());
+        return occupancyReportMapper.toModel(requestDto);
+    }
+
+    private static ReportGranularity toLevel(String granularity) {
+        return granularity == null ? ReportGranularity.HALF_HOURLY
+            : ReportGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+    }
+
+    private static Backend toBackend(String backend) {
+        return backend == null ? null : Backend.valueOf(backend.toUpperCase(Locale.ROOT));
+    }
 }
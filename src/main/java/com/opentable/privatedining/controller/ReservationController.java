@@ -1,8 +1,16 @@
 package com.opentable.privatedining.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentable.privatedining.common.NdjsonWriter;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.dto.BatchReservationResultDTO;
 import com.opentable.privatedining.dto.ReservationDTO;
+import com.opentable.privatedining.dto.ReservationPageDTO;
 import com.opentable.privatedining.mapper.ReservationMapper;
 import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationPage;
+import com.opentable.privatedining.model.ReservationQuery;
 import com.opentable.privatedining.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +19,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 import org.bson.types.ObjectId;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,30 +35,149 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/v1/reservations")
 @Tag(name = "Reservation", description = "Reservation management API")
 public class ReservationController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ReservationService reservationService;
     private final ReservationMapper reservationMapper;
+    private final ObjectMapper objectMapper;
+    private final int exportBatchSize;
 
-    public ReservationController(ReservationService reservationService, ReservationMapper reservationMapper) {
+    public ReservationController(ReservationService reservationService, ReservationMapper reservationMapper,
+        ObjectMapper objectMapper, BookingProperties bookingProperties) {
         this.reservationService = reservationService;
         this.reservationMapper = reservationMapper;
+        this.objectMapper = objectMapper;
+        this.exportBatchSize = bookingProperties.getExportBatchSize();
     }
 
-    @GetMapping
-    @Operation(summary = "Get all reservations", description = "Retrieve a list of all reservations")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of reservations",
-        content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservationDTO.class)))
-    public List<ReservationDTO> getAllReservations() {
-        return reservationService.getAllReservations()
-            .stream()
-            .map(reservationMapper::toDTO)
-            .toList();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get all reservations",
+        description = "Retrieve one page of all reservations ordered by start time, the cursor of the next page is "
+            + "returned in the " + NEXT_CURSOR_HEADER + " header")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved list of reservations",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ReservationDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid page size or cursor")
+    })
+    public ResponseEntity<List<ReservationDTO>> getAllReservations(
+        @Parameter(description = "Page size")
+        @RequestParam(value = "limit", required = false) Integer limit,
+        @Parameter(description = NEXT_CURSOR_HEADER + " of the previous page")
+        @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            ReservationQuery query = new ReservationQuery(null, null, null, limit, ReservationCursor.decode(cursor));
+            ReservationPage page = reservationService.getReservations(query);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNext() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNext().encode());
+            }
+            return response.body(page.getReservations().stream()
+                .map(reservationMapper::toDTO)
+                .toList());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all reservations",
+        description = "Stream every reservation as newline-delimited JSON, selected with Accept: "
+            + NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @ApiResponse(responseCode = "200", description = "One reservation per line",
+        content = @Content(mediaType = NdjsonWriter.APPLICATION_NDJSON_VALUE,
+            schema = @Schema(implementation = ReservationDTO.class)))
+    public ResponseEntity<StreamingResponseBody> exportReservations() {
+        StreamingResponseBody body = outputStream -> {
+            NdjsonWriter writer = new NdjsonWriter(outputStream, objectMapper, exportBatchSize);
+            try (Stream<Reservation> reservations = reservationService.streamReservations()) {
+                reservations.forEach(reservation -> writer.write(reservationMapper.toDTO(reservation)));
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/restaurants/{restaurantId}")
+    @Operation(summary = "Get reservations of a restaurant",
+        description = "Retrieve one page of the reservations of a restaurant ordered by start time")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of reservations",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ReservationPageDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid ID, date range, page size or cursor")
+    })
+    public ResponseEntity<ReservationPageDTO> getReservationsByRestaurant(
+        @Parameter(description = "ID of the restaurant", required = true)
+        @PathVariable String restaurantId,
+        @Parameter(description = "Only reservations ending after this time")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam(value = "from", required = false) LocalDateTime from,
+        @Parameter(description = "Only reservations starting before this time")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam(value = "to", required = false) LocalDateTime to,
+        @Parameter(description = "Only reservations with this status")
+        @RequestParam(value = "status", required = false) String status,
+        @Parameter(description = "Page size")
+        @RequestParam(value = "limit", required = false) Integer limit,
+        @Parameter(description = "nextCursor of the previous page")
+        @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            ObjectId objectId = new ObjectId(restaurantId);
+            ReservationQuery query = new ReservationQuery(from, to, status, limit, ReservationCursor.decode(cursor));
+            return ResponseEntity.ok(reservationMapper.toDTO(
+                reservationService.getReservationsByRestaurant(objectId, query)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/restaurants/{restaurantId}/spaces/{spaceId}")
+    @Operation(summary = "Get reservations of a space",
+        description = "Retrieve one page of the reservations of a space ordered by start time")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of reservations",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ReservationPageDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Restaurant or space not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid ID, date range, page size or cursor")
+    })
+    public ResponseEntity<ReservationPageDTO> getReservationsBySpace(
+        @Parameter(description = "ID of the restaurant", required = true)
+        @PathVariable String restaurantId,
+        @Parameter(description = "ID of the space", required = true)
+        @PathVariable String spaceId,
+        @Parameter(description = "Only reservations ending after this time")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam(value = "from", required = false) LocalDateTime from,
+        @Parameter(description = "Only reservations starting before this time")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        @RequestParam(value = "to", required = false) LocalDateTime to,
+        @Parameter(description = "Only reservations with this status")
+        @RequestParam(value = "status", required = false) String status,
+        @Parameter(description = "Page size")
+        @RequestParam(value = "limit", required = false) Integer limit,
+        @Parameter(description = "nextCursor of the previous page")
+        @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            ObjectId objectId = new ObjectId(restaurantId);
+            UUID spaceUuid = UUID.fromString(spaceId);
+            ReservationQuery query = new ReservationQuery(from, to, status, limit, ReservationCursor.decode(cursor));
+            return ResponseEntity.ok(reservationMapper.toDTO(
+                reservationService.getReservationsBySpace(objectId, spaceUuid, query)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -86,6 +218,27 @@ public class ReservationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(reservationMapper.toDTO(savedReservation));
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create reservations in bulk",
+        description = "Create many reservations at once, every reservation gets its own result in request order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see the status of every item",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = BatchReservationResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    public List<BatchReservationResultDTO> createReservations(
+        @Parameter(description = "Reservations to be created", required = true)
+        @RequestBody List<ReservationDTO> reservationDTOs) {
+        List<Reservation> reservations = reservationDTOs.stream()
+            .map(reservationMapper::toModel)
+            .toList();
+        return reservationService.createReservations(reservations)
+            .stream()
+            .map(reservationMapper::toDTO)
+            .toList();
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete reservation", description = "Delete a reservation by its ID")
     @ApiResponses(value = {
@@ -0,0 +1,27 @@
+package com.opentable.privatedining.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchReservationResultDTO {
+
+    @Schema(description = "Position of the reservation in the batch request", example = "0")
+    private int index;
+
+    @Schema(description = "Outcome of the reservation", example = "CREATED",
+        allowableValues = {"CREATED", "CONFLICT", "INVALID", "NOT_FOUND", "FAILED"})
+    private String status;
+
+    @Schema(description = "Reservation as requested, or as stored when it was created")
+    private ReservationDTO reservation;
+
+    @Schema(description = "Reason the reservation was rejected or not stored", example = "Reservation must start in the future.")
+    private String message;
+}
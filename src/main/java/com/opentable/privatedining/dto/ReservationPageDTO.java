@@ -0,0 +1,22 @@
+package com.opentable.privatedining.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationPageDTO {
+
+    @Schema(description = "Reservations of this page ordered by start time")
+    private List<ReservationDTO> reservations;
+
+    @Schema(description = "Pass as cursor to fetch the next page, absent on the last page",
+        example = "MjAyNi0wMS0zMFQxOTowMHw2NGI2NGM0ZjJmNGU0YjNhMmM4YjQ1Njc")
+    private String nextCursor;
+}
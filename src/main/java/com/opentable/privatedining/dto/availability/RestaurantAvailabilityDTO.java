@@ -0,0 +1,40 @@
+package com.opentable.privatedining.dto.availability;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RestaurantAvailabilityDTO {
+
+    @Schema(description = "ID of the restaurant", example = "507f1f77bcf86cd799439011", type = "string")
+    private String restaurantId;
+
+    @Schema(description = "Name of the restaurant", example = "Test Restaurant")
+    private String restaurantName;
+
+    @Schema(description = "Number of people in the party", example = "4")
+    private int partySize;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "Start of the searched window", example = "15-01-2026 18:00", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "End of the searched window", example = "15-01-2026 23:00", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime to;
+
+    @Schema(description = "Reservation duration in minutes", example = "120")
+    private int duration;
+
+    @Schema(description = "Spaces which can take the party, with their possible start times")
+    private List<SpaceAvailabilityDTO> spaces;
+}
@@ -0,0 +1,33 @@
+package com.opentable.privatedining.dto.availability;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpaceAvailabilityDTO {
+
+    @Schema(description = "ID of the space", example = "123e4567-e89b-12d3-a456-426614174000", type = "string")
+    private String spaceId;
+
+    @Schema(description = "Name of the space", example = "Wine Cellar")
+    private String spaceName;
+
+    @Schema(description = "Minimum capacity of the space", example = "2")
+    private Integer minCapacity;
+
+    @Schema(description = "Maximum capacity of the space", example = "20")
+    private Integer maxCapacity;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "array", description = "Start times at which the party fits for the whole duration", example = "[\"15-01-2026 19:30\"]")
+    private List<LocalDateTime> startTimes;
+}
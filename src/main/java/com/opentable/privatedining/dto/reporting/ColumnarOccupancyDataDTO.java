@@ -0,0 +1,35 @@
+package com.opentable.privatedining.dto.reporting;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.opentable.privatedining.jsonserializer.TwoDecimalArraySerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ColumnarOccupancyDataDTO {
+
+    @Schema(description = "ID of the restaurant/space", example = "507f1f77bcf86cd799439011", type = "string")
+    private String id;
+
+    @Schema(description = "Name of the restaurant/space", example = "Private Dining Room A")
+    private String name;
+
+    @Schema(description = "Capacity of the restaurant/space, occupancy rates are occupancy / capacity", example = "50", type = "integer")
+    private Integer capacity;
+
+    @Schema(description = "Occupancy of every point, the peak half-hour occupancy for hourly, daily and weekly reports", example = "[30, 42, 0]")
+    private int[] occupancy;
+
+    @JsonInclude(Include.NON_NULL)
+    @JsonSerialize(using = TwoDecimalArraySerializer.class)
+    @Schema(description = "Mean half-hour occupancy of every point, only for hourly, daily and weekly reports", example = "[17.25, 30.5, 0]")
+    private double[] averageOccupancy;
+}
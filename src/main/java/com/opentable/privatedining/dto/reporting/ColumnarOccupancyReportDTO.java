@@ -0,0 +1,42 @@
+package com.opentable.privatedining.dto.reporting;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Occupancy report with one array per series instead of one object per point, sent for
+// Accept: application/vnd.opentable.occupancy-columnar+json. Point i of every series covers
+// [start + i * granularity, start + (i + 1) * granularity).
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ColumnarOccupancyReportDTO {
+
+    public static final String MEDIA_TYPE = "application/vnd.opentable.occupancy-columnar+json";
+
+    @Schema(description = "ID of the restaurant", example = "507f1f77bcf86cd799439011", type = "string")
+    private String restaurantId;
+
+    @Schema(description = "ID of the space within the restaurant", example = "123e4567-e89b-12d3-a456-426614174000", type = "string")
+    private String spaceId;
+
+    @Schema(description = "Start of the first point", example = "2026-01-15T18:30:00Z", type = "string", format = "date-time")
+    private Instant start;
+
+    @Schema(description = "End of the last point", example = "2026-01-16T18:30:00Z", type = "string", format = "date-time")
+    private Instant end;
+
+    @Schema(description = "Minutes per point: 30, 60 (hourly), 1440 (daily) or 10080 (weekly)", example = "30", type = "integer")
+    private Long granularity;
+
+    @Schema(description = "Occupancy series of the restaurant")
+    private ColumnarOccupancyDataDTO restaurantData;
+
+    @Schema(description = "Occupancy series of the spaces")
+    private List<ColumnarOccupancyDataDTO> spaceData;
+}
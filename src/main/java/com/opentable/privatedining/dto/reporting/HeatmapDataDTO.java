@@ -0,0 +1,27 @@
+package com.opentable.privatedining.dto.reporting;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapDataDTO {
+
+    @Schema(description = "ID of the restaurant/space", example = "507f1f77bcf86cd799439011", type = "string")
+    private String id;
+
+    @Schema(description = "Name of the restaurant/space", example = "Private Dining Room A")
+    private String name;
+
+    @Schema(description = "Capacity of the restaurant/space, rates are occupancy / capacity", example = "50", type = "integer")
+    private Integer capacity;
+
+    @Schema(description = "One row per day of week, Monday first, of 48 half-hours each")
+    private List<HeatmapDayDTO> days;
+}
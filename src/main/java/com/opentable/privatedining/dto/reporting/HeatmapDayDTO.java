@@ -0,0 +1,35 @@
+package com.opentable.privatedining.dto.reporting;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.opentable.privatedining.jsonserializer.TwoDecimalArraySerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.DayOfWeek;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapDayDTO {
+
+    @Schema(description = "Day of week of the row", example = "FRIDAY")
+    private DayOfWeek dayOfWeek;
+
+    @JsonSerialize(using = TwoDecimalArraySerializer.class)
+    @Schema(description = "Mean occupancy of each half-hour of the day (00:00, 00:30, ...) over the range", example = "[0, 0, 12.5]")
+    private double[] averageOccupancy;
+
+    @Schema(description = "Peak occupancy of each half-hour of the day over the range", example = "[0, 0, 30]")
+    private int[] peakOccupancy;
+
+    @JsonSerialize(using = TwoDecimalArraySerializer.class)
+    @Schema(description = "averageOccupancy / capacity of each half-hour", example = "[0, 0, 0.25]")
+    private double[] averageRate;
+
+    @JsonSerialize(using = TwoDecimalArraySerializer.class)
+    @Schema(description = "peakOccupancy / capacity of each half-hour", example = "[0, 0, 0.6]")
+    private double[] peakRate;
+}
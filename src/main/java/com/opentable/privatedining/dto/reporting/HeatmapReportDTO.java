@@ -0,0 +1,37 @@
+package com.opentable.privatedining.dto.reporting;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapReportDTO {
+
+    @Schema(description = "ID of the restaurant", example = "507f1f77bcf86cd799439011", type = "string")
+    private String restaurantId;
+
+    @Schema(description = "ID of the space within the restaurant", example = "123e4567-e89b-12d3-a456-426614174000", type = "string")
+    private String spaceId;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "Start of the folded range, midnight", example = "01-01-2026 00:00", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime start;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "End of the folded range, midnight", example = "01-01-2027 00:00", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime end;
+
+    @Schema(description = "Heatmap of the restaurant total")
+    private HeatmapDataDTO restaurantData;
+
+    @Schema(description = "Heatmap of each space")
+    private List<HeatmapDataDTO> spaceData;
+}
@@ -1,6 +1,8 @@
 package com.opentable.privatedining.dto.reporting;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.opentable.privatedining.jsonserializer.TwoDecimalSerializer;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,4 +35,13 @@ public class OccupancyPointDTO {
     @Schema(description = "Occupancy rate (occupancy/capacity) during the current slot", example = "0.6", type = "number", format = "double")
     @JsonSerialize(using = TwoDecimalSerializer.class)
     private Double occupancyRate;
+
+    @JsonInclude(Include.NON_NULL)
+    @Schema(description = "Highest half-hour occupancy within the bucket, only for hourly, daily and weekly reports", example = "42", type = "integer")
+    private Integer peakOccupancy;
+
+    @JsonInclude(Include.NON_NULL)
+    @Schema(description = "Mean half-hour occupancy within the bucket, only for hourly, daily and weekly reports", example = "17.25", type = "number", format = "double")
+    @JsonSerialize(using = TwoDecimalSerializer.class)
+    private Double averageOccupancy;
 }
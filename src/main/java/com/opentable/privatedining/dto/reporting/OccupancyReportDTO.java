@@ -29,6 +29,9 @@ public class OccupancyReportDTO {
     @Schema(type = "string", description = "End time of the occupancy report", example = "16-01-2026 19:30", pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime end;
 
+    @Schema(description = "Minutes per data point: 30, 60 (hourly), 1440 (daily) or 10080 (weekly)", example = "30", type = "integer")
+    private Long granularity;
+
     @Schema(description = "Occupancy data for the restaurant")
     private OccupancyDataDTO restaurantData;
 
@@ -41,4 +44,9 @@ public class OccupancyReportDTO {
         this.start = start;
         this.end = end;
     }
+
+    public OccupancyReportDTO(String restaurantId, String spaceId, LocalDateTime start, LocalDateTime end,
+        OccupancyDataDTO restaurantData, List<OccupancyDataDTO> spaceData) {
+        this(restaurantId, spaceId, start, end, null, restaurantData, spaceData);
+    }
 }
@@ -0,0 +1,40 @@
+package com.opentable.privatedining.dto.reporting;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioReportDTO {
+
+    @Schema(description = "IDs of the restaurants of the portfolio", example = "[\"507f1f77bcf86cd799439011\"]")
+    private List<String> restaurantIds;
+
+    @Schema(description = "Cuisine type the restaurants were selected by", example = "Italian")
+    private String cuisineType;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "Start time of the occupancy report", example = "15-01-2026 19:30", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime start;
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @Schema(type = "string", description = "End time of the occupancy report", example = "16-01-2026 19:30", pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime end;
+
+    @Schema(description = "Minutes per data point: 30, 60 (hourly), 1440 (daily) or 10080 (weekly)", example = "30", type = "integer")
+    private Long granularity;
+
+    @Schema(description = "Occupancy of all restaurants of the portfolio together")
+    private OccupancyDataDTO portfolioData;
+
+    @Schema(description = "Occupancy of each restaurant, in the order of restaurantIds")
+    private List<OccupancyDataDTO> restaurantData;
+}
@@ -0,0 +1,91 @@
+package com.opentable.privatedining.jsonserializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.model.reporting.OccupancyChunk;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.OccupancyReportStream;
+import com.opentable.privatedining.model.reporting.OccupancySeries;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+
+// Writes a streamed report in time order, one row per bucket holding the value of every series:
+// { restaurantId, spaceId, start, end, granularity, series: [{ id, name, capacity }],
+//   slots: [{ slotStart, slotEnd, occupancy: [..], occupancyRate: [..], averageOccupancy: [..] }] }
+// where the restaurant total comes first in a restaurant-wide report, occupancy is the peak of a coarse bucket and
+// averageOccupancy is only written for coarse buckets. The output is flushed after every chunk.
+public final class OccupancyReportStreamWriter {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private OccupancyReportStreamWriter() {
+
+    }
+
+    public static void write(OccupancyReportStream stream, JsonGenerator gen) throws IOException {
+        OccupancyReport request = stream.request();
+        gen.writeStartObject();
+        gen.writeStringField("restaurantId", request.getRestaurantId().toHexString());
+        gen.writeStringField("spaceId", request.getSpaceId() == null ? null : request.getSpaceId().toString());
+        gen.writeStringField("start", request.getStart().format(FORMATTER));
+        gen.writeStringField("end", request.getEnd().format(FORMATTER));
+        gen.writeNumberField("granularity", request.getGranularity());
+        gen.writeArrayFieldStart("series");
+        for (OccupancySeries series : stream.series()) {
+            gen.writeStartObject();
+            gen.writeStringField("id", series.id());
+            gen.writeStringField("name", series.name());
+            gen.writeNumberField("capacity", series.capacity());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("slots");
+        gen.flush();
+
+        Iterator<OccupancyChunk> chunks = stream.chunks();
+        while (chunks.hasNext()) {
+            writeChunk(chunks.next(), stream.series(), request.getGranularity(), gen);
+            gen.flush();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.flush();
+    }
+
+    private static void writeChunk(OccupancyChunk chunk, List<OccupancySeries> series, long granularity,
+        JsonGenerator gen) throws IOException {
+        List<OccupancyLevel> levels = chunk.series();
+        boolean coarse = levels.get(0).getSlotsPerBucket() > 1;
+        LocalDateTime slotStart = chunk.start();
+        for (int bucket = 0; bucket < levels.get(0).size(); bucket++) {
+            LocalDateTime slotEnd = slotStart.plusMinutes(granularity);
+            gen.writeStartObject();
+            gen.writeStringField("slotStart", slotStart.format(FORMATTER));
+            gen.writeStringField("slotEnd", slotEnd.format(FORMATTER));
+            gen.writeArrayFieldStart("occupancy");
+            for (OccupancyLevel level : levels) {
+                gen.writeNumber(level.peak(bucket));
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("occupancyRate");
+            for (int i = 0; i < levels.size(); i++) {
+                int capacity = series.get(i).capacity();
+                TwoDecimalSerializer.writeRounded(gen,
+                    capacity == 0 ? 0d : (double) levels.get(i).peak(bucket) / capacity);
+            }
+            gen.writeEndArray();
+            if (coarse) {
+                gen.writeArrayFieldStart("averageOccupancy");
+                for (OccupancyLevel level : levels) {
+                    TwoDecimalSerializer.writeRounded(gen, level.average(bucket));
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            slotStart = slotEnd;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.opentable.privatedining.jsonserializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+
+public class TwoDecimalArraySerializer extends JsonSerializer<double[]> {
+
+    @Override
+    public void serialize(double[] values, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray(values, values.length);
+        for (double value : values) {
+            TwoDecimalSerializer.writeRounded(gen, value);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -4,8 +4,6 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 public class TwoDecimalSerializer extends JsonSerializer<Double> {
 
@@ -15,8 +13,13 @@ public class TwoDecimalSerializer extends JsonSerializer<Double> {
             gen.writeNull();
             return;
         }
-        BigDecimal decimal = BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
-        gen.writeNumber(decimal);
+        writeRounded(gen, value);
+    }
+
+    // shared with the writers which bypass the object mapper, rounded half up to 4 decimals without a BigDecimal
+    // per value (values are non-negative)
+    public static void writeRounded(JsonGenerator gen, double value) throws IOException {
+        gen.writeNumber(Math.round(value * 10_000) / 10_000d);
     }
 
 }
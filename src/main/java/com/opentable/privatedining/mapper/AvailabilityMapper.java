@@ -0,0 +1,41 @@
+package com.opentable.privatedining.mapper;
+
+import com.opentable.privatedining.dto.availability.RestaurantAvailabilityDTO;
+import com.opentable.privatedining.dto.availability.SpaceAvailabilityDTO;
+import com.opentable.privatedining.model.availability.RestaurantAvailability;
+import com.opentable.privatedining.model.availability.SpaceAvailability;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AvailabilityMapper {
+
+    public RestaurantAvailabilityDTO toDTO(RestaurantAvailability availability) {
+        if (availability == null) {
+            return null;
+        }
+
+        return new RestaurantAvailabilityDTO(
+            availability.getRestaurantId() != null ? availability.getRestaurantId().toHexString() : null,
+            availability.getRestaurantName(),
+            availability.getPartySize(),
+            availability.getFrom(),
+            availability.getTo(),
+            availability.getDuration(),
+            availability.getSpaces().stream().map(this::toDTO).toList()
+        );
+    }
+
+    public SpaceAvailabilityDTO toDTO(SpaceAvailability availability) {
+        if (availability == null) {
+            return null;
+        }
+
+        return new SpaceAvailabilityDTO(
+            availability.getSpaceId() != null ? availability.getSpaceId().toString() : null,
+            availability.getSpaceName(),
+            availability.getMinCapacity(),
+            availability.getMaxCapacity(),
+            availability.getStartTimes()
+        );
+    }
+}
@@ -1,7 +1,11 @@
 package com.opentable.privatedining.mapper;
 
+import com.opentable.privatedining.dto.BatchReservationResultDTO;
 import com.opentable.privatedining.dto.ReservationDTO;
+import com.opentable.privatedining.dto.ReservationPageDTO;
+import com.opentable.privatedining.model.BatchReservationResult;
 import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationPage;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Component;
 
@@ -61,4 +65,22 @@ public class ReservationMapper {
 
         return reservation;
     }
-}
\ No newline at end of file
+
+    public BatchReservationResultDTO toDTO(BatchReservationResult result) {
+        if (result == null) {
+            return null;
+        }
+
+        return new BatchReservationResultDTO(result.getIndex(), result.getStatus().name(),
+            toDTO(result.getReservation()), result.getMessage());
+    }
+
+    public ReservationPageDTO toDTO(ReservationPage page) {
+        if (page == null) {
+            return null;
+        }
+
+        return new ReservationPageDTO(page.getReservations().stream().map(this::toDTO).toList(),
+            page.getNext() != null ? page.getNext().encode() : null);
+    }
+}
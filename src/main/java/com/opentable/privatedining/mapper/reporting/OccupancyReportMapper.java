@@ -1,20 +1,143 @@
 package com.opentable.privatedining.mapper.reporting;
 
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OccupancyHeatmap;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.dto.reporting.ColumnarOccupancyDataDTO;
+import com.opentable.privatedining.dto.reporting.ColumnarOccupancyReportDTO;
+import com.opentable.privatedining.dto.reporting.HeatmapDataDTO;
+import com.opentable.privatedining.dto.reporting.HeatmapDayDTO;
+import com.opentable.privatedining.dto.reporting.HeatmapReportDTO;
+import com.opentable.privatedining.dto.reporting.OccupancyDataDTO;
+import com.opentable.privatedining.dto.reporting.OccupancyPointDTO;
 import com.opentable.privatedining.dto.reporting.OccupancyReportDTO;
+import com.opentable.privatedining.dto.reporting.PortfolioReportDTO;
+import com.opentable.privatedining.model.reporting.HeatmapData;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
+import com.opentable.privatedining.model.reporting.OccupancyData;
 import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.PortfolioReport;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.bson.types.ObjectId;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring", uses = {OccupancyDataMapper.class, OccupancyPointMapper.class})
+@Mapper(componentModel = "spring")
 public interface OccupancyReportMapper {
 
+    // only used for requests, which carry no occupancy
+    @Mapping(target = "restaurantData", ignore = true)
+    @Mapping(target = "spaceData", ignore = true)
     OccupancyReport toModel(OccupancyReportDTO occupancyReportDTO);
 
-    OccupancyReportDTO toDto(OccupancyReport occupancyReport);
-
     OccupancyReport copy(OccupancyReport source);
 
+    default OccupancyReportDTO toDto(OccupancyReport report) {
+        if (report == null) {
+            return null;
+        }
+        LocalDateTime start = report.getStart();
+        long granularity = report.getGranularity();
+        List<OccupancyDataDTO> spaceData = report.getSpaceData() == null ? null
+            : report.getSpaceData().stream().map(data -> toDto(data, start, granularity)).toList();
+        return new OccupancyReportDTO(objectIdToString(report.getRestaurantId()), uuidToString(report.getSpaceId()),
+            start, report.getEnd(), granularity, toDto(report.getRestaurantData(), start, granularity), spaceData);
+    }
+
+    default PortfolioReportDTO toPortfolioDto(PortfolioReport report) {
+        LocalDateTime start = report.getStart();
+        long granularity = report.getGranularity();
+        return new PortfolioReportDTO(report.getRestaurantIds().stream().map(this::objectIdToString).toList(),
+            report.getCuisineType(), start, report.getEnd(), granularity,
+            toDto(report.getPortfolioData(), start, granularity),
+            report.getRestaurantData().stream().map(data -> toDto(data, start, granularity)).toList());
+    }
+
+    default HeatmapReportDTO toHeatmapDto(HeatmapReport report) {
+        List<HeatmapDataDTO> spaceData = report.getSpaceData() == null ? null
+            : report.getSpaceData().stream().map(this::toHeatmapDto).toList();
+        return new HeatmapReportDTO(objectIdToString(report.getRestaurantId()), uuidToString(report.getSpaceId()),
+            report.getStart(), report.getEnd(), toHeatmapDto(report.getRestaurantData()), spaceData);
+    }
+
+    // one row per day of week, Monday first
+    default HeatmapDataDTO toHeatmapDto(HeatmapData data) {
+        if (data == null) {
+            return null;
+        }
+        OccupancyHeatmap heatmap = data.getHeatmap();
+        int capacity = data.getCapacity();
+        List<HeatmapDayDTO> days = new ArrayList<>(OccupancyHeatmap.DAYS);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            double[] average = new double[OccupancyHeatmap.SLOTS_PER_DAY];
+            int[] peak = new int[OccupancyHeatmap.SLOTS_PER_DAY];
+            double[] averageRate = new double[OccupancyHeatmap.SLOTS_PER_DAY];
+            double[] peakRate = new double[OccupancyHeatmap.SLOTS_PER_DAY];
+            for (int slot = 0; slot < OccupancyHeatmap.SLOTS_PER_DAY; slot++) {
+                average[slot] = heatmap.average(day, slot);
+                peak[slot] = heatmap.peak(day, slot);
+                averageRate[slot] = capacity == 0 ? 0d : average[slot] / capacity;
+                peakRate[slot] = capacity == 0 ? 0d : (double) peak[slot] / capacity;
+            }
+            days.add(new HeatmapDayDTO(day, average, peak, averageRate, peakRate));
+        }
+        return new HeatmapDataDTO(data.getId(), data.getName(), capacity, days);
+    }
+
+    // one point object per bucket, only built for clients of the point format
+    default OccupancyDataDTO toDto(OccupancyData data, LocalDateTime start, long granularity) {
+        if (data == null) {
+            return null;
+        }
+        OccupancyLevel occupancy = data.getOccupancy();
+        boolean buckets = occupancy.getSlotsPerBucket() > 1;
+        int capacity = data.getCapacity();
+        List<OccupancyPointDTO> points = new ArrayList<>(occupancy.size());
+        LocalDateTime slotStart = start;
+        for (int i = 0; i < occupancy.size(); i++) {
+            LocalDateTime slotEnd = slotStart.plusMinutes(granularity);
+            int peak = occupancy.peak(i);
+            double occupancyRate = capacity == 0 ? 0d : (double) peak / capacity;
+            points.add(new OccupancyPointDTO(slotStart, slotEnd, capacity, peak, occupancyRate,
+                buckets ? peak : null, buckets ? occupancy.average(i) : null));
+            slotStart = slotEnd;
+        }
+        return new OccupancyDataDTO(data.getId(), data.getName(), points);
+    }
+
+    default ColumnarOccupancyReportDTO toColumnarDto(OccupancyReport report) {
+        List<ColumnarOccupancyDataDTO> spaceData = report.getSpaceData() == null ? null
+            : report.getSpaceData().stream().map(this::toColumnarDto).toList();
+        return new ColumnarOccupancyReportDTO(objectIdToString(report.getRestaurantId()),
+            uuidToString(report.getSpaceId()), toInstant(report.getStart()), toInstant(report.getEnd()),
+            report.getGranularity(), toColumnarDto(report.getRestaurantData()), spaceData);
+    }
+
+    default ColumnarOccupancyDataDTO toColumnarDto(OccupancyData data) {
+        if (data == null) {
+            return null;
+        }
+        OccupancyLevel occupancy = data.getOccupancy();
+        double[] average = null;
+        if (occupancy.getSlotsPerBucket() > 1) {
+            average = new double[occupancy.size()];
+            for (int i = 0; i < average.length; i++) {
+                average[i] = occupancy.average(i);
+            }
+        }
+        return new ColumnarOccupancyDataDTO(data.getId(), data.getName(), data.getCapacity(), occupancy.peaks(),
+            average);
+    }
+
+    default Instant toInstant(LocalDateTime time) {
+        return time == null ? null : time.atZone(Constant.ZONE_ID).toInstant();
+    }
+
     default String objectIdToString(ObjectId id) {
         return id == null ? null : id.toHexString();
     }
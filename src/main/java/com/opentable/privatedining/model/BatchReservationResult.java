@@ -0,0 +1,27 @@
+package com.opentable.privatedining.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// outcome of a single item of a batch booking, index is the position of the item in the request
+@Getter
+@AllArgsConstructor
+public class BatchReservationResult {
+
+    private final int index;
+
+    private final Status status;
+
+    private final Reservation reservation;
+
+    private final String message;
+
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID,
+        NOT_FOUND,
+        // accepted but the insert failed, the message tells whether it is known not to be stored
+        FAILED
+    }
+}
@@ -7,9 +7,21 @@ import lombok.Setter;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+// equality fields first, then startTime for the overlap range and the listing order, _id as keyset tie-breaker;
+// endTime of the overlap predicate is filtered from the index scan
 @Document(collection = "reservations")
+@CompoundIndexes({
+    @CompoundIndex(name = "restaurant_start", def = "{ 'restaurantId': 1, 'startTime': 1, '_id': 1 }"),
+    @CompoundIndex(name = "restaurant_space_start",
+        def = "{ 'restaurantId': 1, 'spaceId': 1, 'startTime': 1, '_id': 1 }"),
+    @CompoundIndex(name = "space_start", def = "{ 'spaceId': 1, 'startTime': 1 }"),
+    @CompoundIndex(name = "start", def = "{ 'startTime': 1, '_id': 1 }")
+})
 @Getter
 @Setter
 public class Reservation {
@@ -20,6 +32,8 @@ public class Reservation {
     private UUID spaceId;
     private String customerEmail;
     private LocalDateTime startTime;
+    // startup rebuild of the occupancy ledger and slot counters
+    @Indexed(name = "end")
     private LocalDateTime endTime;
     private Integer partySize;
     private String status;
@@ -0,0 +1,37 @@
+package com.opentable.privatedining.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.bson.types.ObjectId;
+
+// position after the last reservation of a page, reservations are ordered by (startTime, id)
+public record ReservationCursor(LocalDateTime startTime, ObjectId id) {
+
+    public static ReservationCursor of(Reservation reservation) {
+        return new ReservationCursor(reservation.getStartTime(), reservation.getId());
+    }
+
+    // opaque to clients, throws IllegalArgumentException for anything not produced by encode()
+    public static ReservationCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        try {
+            return new ReservationCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                new ObjectId(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((startTime + "|" + id.toHexString()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,15 @@
+package com.opentable.privatedining.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ReservationPage {
+
+    private List<Reservation> reservations;
+
+    // null on the last page
+    private ReservationCursor next;
+}
@@ -0,0 +1,26 @@
+package com.opentable.privatedining.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// optional filters of a reservation listing, every null field is ignored
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationQuery {
+
+    // reservations overlapping [from, to)
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private String status;
+
+    private Integer limit;
+
+    private ReservationCursor after;
+}
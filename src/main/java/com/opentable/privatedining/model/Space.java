@@ -3,14 +3,17 @@ package com.opentable.privatedining.model;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.mongodb.core.index.Indexed;
 
 @Getter
 @Setter
 public class Space {
 
+    // indexed as spaces.maxCapacity of the restaurant for the availability search
     private UUID id;
     private String name;
     private Integer minCapacity;
+    @Indexed
     private Integer maxCapacity;
 
     public Space() {
@@ -0,0 +1,27 @@
+package com.opentable.privatedining.model.availability;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.types.ObjectId;
+
+@Getter
+@AllArgsConstructor
+public class RestaurantAvailability {
+
+    private ObjectId restaurantId;
+
+    private String restaurantName;
+
+    private int partySize;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private int duration;
+
+    // only spaces with at least one start time
+    private List<SpaceAvailability> spaces;
+}
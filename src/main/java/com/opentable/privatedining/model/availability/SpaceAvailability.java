@@ -0,0 +1,23 @@
+package com.opentable.privatedining.model.availability;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SpaceAvailability {
+
+    private UUID spaceId;
+
+    private String spaceName;
+
+    private Integer minCapacity;
+
+    private Integer maxCapacity;
+
+    // every start time at which the party fits for the whole duration
+    private List<LocalDateTime> startTimes;
+}
@@ -0,0 +1,8 @@
+package com.opentable.privatedining.model.reporting;
+
+import java.util.UUID;
+
+// peak and summed half-hour occupancy of one bucket of a pyramid level, a null space being the restaurant total
+public record BucketOccupancy(UUID spaceId, int bucket, int peak, long total) {
+
+}
@@ -0,0 +1,22 @@
+package com.opentable.privatedining.model.reporting;
+
+import com.opentable.privatedining.common.OccupancyHeatmap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapData {
+
+    private String id;
+
+    private String name;
+
+    private int capacity;
+
+    private OccupancyHeatmap heatmap;
+}
@@ -0,0 +1,34 @@
+package com.opentable.privatedining.model.reporting;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+
+// occupancy of a range of whole days folded into one week of half-hours
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapReport {
+
+    private ObjectId restaurantId;
+
+    private UUID spaceId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private HeatmapData restaurantData;
+
+    private List<HeatmapData> spaceData;
+
+    public HeatmapReport(ObjectId restaurantId, UUID spaceId, LocalDateTime start, LocalDateTime end) {
+        this(restaurantId, spaceId, start, end, null, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.opentable.privatedining.model.reporting;
+
+import com.opentable.privatedining.common.OccupancyLevel;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// consecutive buckets of a streamed report starting at start, one level per series
+public record OccupancyChunk(LocalDateTime start, List<OccupancyLevel> series) {
+
+}
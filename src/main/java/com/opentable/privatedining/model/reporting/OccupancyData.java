@@ -1,11 +1,12 @@
 package com.opentable.privatedining.model.reporting;
 
-import java.util.List;
+import com.opentable.privatedining.common.OccupancyLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// bucket i of the series starts at the report start + i * granularity, points are only built by the mappers
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,5 +17,8 @@ public class OccupancyData {
 
     private String name;
 
-    private List<OccupancyPoint> points;
+    // the same at every bucket
+    private int capacity;
+
+    private OccupancyLevel occupancy;
 }
@@ -24,9 +24,15 @@ public class OccupancyReport {
 
     private LocalDateTime end;
 
-    private final Long granularity = (long) Constant.BLOCK_INTERVAL;
+    // minutes per point, one of the ReportGranularity levels
+    private Long granularity = (long) Constant.BLOCK_INTERVAL;
 
     private OccupancyData restaurantData;
 
     private List<OccupancyData> spaceData;
+
+    public OccupancyReport(ObjectId restaurantId, UUID spaceId, LocalDateTime start, LocalDateTime end,
+        OccupancyData restaurantData, List<OccupancyData> spaceData) {
+        this(restaurantId, spaceId, start, end, (long) Constant.BLOCK_INTERVAL, restaurantData, spaceData);
+    }
 }
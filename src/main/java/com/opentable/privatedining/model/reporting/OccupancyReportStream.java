@@ -0,0 +1,11 @@
+package com.opentable.privatedining.model.reporting;
+
+import java.util.Iterator;
+import java.util.List;
+
+// A validated report whose buckets are computed chunk by chunk in time order while the chunks are iterated, only
+// one chunk is held in memory at a time
+public record OccupancyReportStream(OccupancyReport request, List<OccupancySeries> series,
+    Iterator<OccupancyChunk> chunks) {
+
+}
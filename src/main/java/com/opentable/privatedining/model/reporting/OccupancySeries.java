@@ -0,0 +1,6 @@
+package com.opentable.privatedining.model.reporting;
+
+// a restaurant total or a space of a streamed report, in the order of the values of every chunk
+public record OccupancySeries(String id, String name, int capacity) {
+
+}
@@ -0,0 +1,40 @@
+package com.opentable.privatedining.model.reporting;
+
+import com.opentable.privatedining.common.Constant;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioReport {
+
+    // the restaurants of the portfolio; when empty they are selected by cuisineType and listed in the response
+    private List<ObjectId> restaurantIds;
+
+    private String cuisineType;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    // minutes per point, one of the ReportGranularity levels
+    private Long granularity = (long) Constant.BLOCK_INTERVAL;
+
+    // every restaurant of the portfolio together
+    private OccupancyData portfolioData;
+
+    // the total of each restaurant, in the order of restaurantIds
+    private List<OccupancyData> restaurantData;
+
+    public PortfolioReport(List<ObjectId> restaurantIds, String cuisineType, LocalDateTime start, LocalDateTime end,
+        Long granularity) {
+        this(restaurantIds, cuisineType, start, end, granularity, null, null);
+    }
+}
@@ -0,0 +1,64 @@
+package com.opentable.privatedining.model.reporting;
+
+import com.opentable.privatedining.common.Constant;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Optional;
+
+// Levels of the occupancy pyramid, each bucket spanning a whole number of buckets of the level below. Buckets are
+// aligned to wall-clock boundaries (weeks start on Monday) so that stored buckets can be shared by every report.
+public enum ReportGranularity {
+
+    HALF_HOURLY(Constant.BLOCK_INTERVAL),
+    HOURLY(60),
+    DAILY(24 * 60),
+    WEEKLY(7 * 24 * 60);
+
+    private final int minutes;
+
+    ReportGranularity(int minutes) {
+        this.minutes = minutes;
+    }
+
+    public int getMinutes() {
+        return minutes;
+    }
+
+    // BLOCK_INTERVAL slots per bucket
+    public int getSlots() {
+        return minutes / Constant.BLOCK_INTERVAL;
+    }
+
+    // the level the buckets of this one are built from, none for the half-hour slots
+    public Optional<ReportGranularity> below() {
+        return ordinal() == 0 ? Optional.empty() : Optional.of(values()[ordinal() - 1]);
+    }
+
+    // buckets of the level below per bucket of this one
+    public int factor() {
+        return below().map(level -> minutes / level.minutes).orElse(1);
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return switch (this) {
+            case HALF_HOURLY -> time.truncatedTo(ChronoUnit.HOURS)
+                .plusMinutes(time.getMinute() / Constant.BLOCK_INTERVAL * Constant.BLOCK_INTERVAL);
+            case HOURLY -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAILY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEKLY -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+
+    public boolean isAligned(LocalDateTime time) {
+        return bucketStart(time).equals(time);
+    }
+
+    public static Optional<ReportGranularity> ofMinutes(long minutes) {
+        return Arrays.stream(values())
+            .filter(level -> level.minutes == minutes)
+            .findFirst();
+    }
+}
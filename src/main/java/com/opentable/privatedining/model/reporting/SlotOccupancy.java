@@ -0,0 +1,8 @@
+package com.opentable.privatedining.model.reporting;
+
+import java.util.UUID;
+
+// headcount of a space during the report slot at index slot
+public record SlotOccupancy(UUID spaceId, int slot, int occupancy) {
+
+}
@@ -0,0 +1,55 @@
+package com.opentable.privatedining.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+// Time-limited leases on background jobs shared by every node, documents look like { _id: job, owner, expiresAt }.
+// A node holds the lease of a job until it expires and renews it by acquiring it again, another node only takes it
+// over once it has expired, so a job runs on one node at a time.
+@Repository
+public class JobLeaseStore {
+
+    public static final String COLLECTION = "job_leases";
+
+    private final MongoTemplate mongoTemplate;
+
+    // this node, for as long as the process lives
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLeaseStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // true if this node holds the lease of the job for the next ttl
+    public boolean tryAcquire(String job, Duration ttl) {
+        Date now = new Date();
+        try {
+            // a lease held by another node does not match, the upsert then collides with its _id
+            collection().updateOne(Filters.and(Filters.eq("_id", job),
+                    Filters.or(Filters.eq("owner", owner), Filters.lt("expiresAt", now))),
+                Updates.combine(Updates.set("owner", owner),
+                    Updates.set("expiresAt", new Date(now.getTime() + ttl.toMillis()))),
+                new UpdateOptions().upsert(true));
+            return true;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,71 @@
+package com.opentable.privatedining.repository;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+// Creates the indexes declared on the documents before anything reads them (the data loader and the startup
+// ledger rebuild run later). Automatic index creation of Spring Data is off by default and stays off so that
+// only the collections listed here get indexes.
+@Component
+public class MongoIndexInitializer {
+
+    static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Reservation.class, Restaurant.class);
+
+    // collections written without a mapped document class; their _id is a compound document whose fields the _id
+    // index cannot range over
+    static final Map<String, List<Index>> INDEXED_COLLECTIONS = Map.of(
+        OccupancyRollupStore.COLLECTION, List.of(
+            new Index().on("restaurantId", Direction.ASC).on("_id.slotStart", Direction.ASC).named("restaurant_slot"),
+            new Index().on("_id.spaceId", Direction.ASC).on("_id.slotStart", Direction.ASC).named("space_slot")),
+        OccupancyPyramidStore.COLLECTION, List.of(
+            new Index().on("_id.restaurantId", Direction.ASC).on("_id.level", Direction.ASC)
+                .on("_id.bucketStart", Direction.ASC).named("restaurant_level_bucket")),
+        SlotOccupancyStore.COLLECTION, List.of(
+            new Index().on("_id.spaceId", Direction.ASC).on("_id.slotStart", Direction.ASC).named("space_slot")));
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // ensureIndex is a no-op for an index that already exists with the same definition
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+            mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> document : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(document);
+            resolver.resolveIndexFor(document).forEach(index -> {
+                indexOps.ensureIndex(index);
+                logger.debug("Ensured index {} on {}", index.getIndexKeys(), mongoTemplate.getCollectionName(document));
+            });
+        }
+        INDEXED_COLLECTIONS.forEach((collection, indexes) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            indexes.forEach(index -> {
+                indexOps.ensureIndex(index);
+                logger.debug("Ensured index {} on {}", index.getIndexKeys(), collection);
+            });
+        });
+    }
+}
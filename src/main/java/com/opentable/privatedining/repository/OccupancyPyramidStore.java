@@ -0,0 +1,201 @@
+package com.opentable.privatedining.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.BucketOccupancy;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+// Hourly, daily and weekly occupancy buckets above the half-hour rollups of OccupancyRollupStore, documents look
+// like { _id: { restaurantId, spaceId, level, bucketStart }, peak, total } where level is the bucket length in
+// minutes and a null spaceId is the restaurant total over its current spaces. Peaks cannot follow a cancellation
+// incrementally, so the buckets of the days a booking touches are recomputed (by OccupancyPyramidRefresher), each
+// level from the one below: hours and days from the rollups of the day, weeks from the stored days.
+@Repository
+public class OccupancyPyramidStore {
+
+    public static final String COLLECTION = "occupancy_pyramid";
+
+    private static final int SLOTS_PER_DAY = ReportGranularity.DAILY.getSlots();
+
+    private final MongoTemplate mongoTemplate;
+
+    private final OccupancyRollupStore occupancyRollupStore;
+
+    public OccupancyPyramidStore(MongoTemplate mongoTemplate, OccupancyRollupStore occupancyRollupStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.occupancyRollupStore = occupancyRollupStore;
+    }
+
+    // non-empty buckets of a restaurant (and space) in [start, end), bucket i being start + i * level
+    public List<BucketOccupancy> find(ObjectId restaurantId, UUID spaceId, ReportGranularity level,
+        LocalDateTime start, LocalDateTime end) {
+        List<Bson> filters = new ArrayList<>(List.of(levelFilter(restaurantId, List.of(level), start, end)));
+        if (spaceId != null) {
+            filters.add(Filters.eq("_id.spaceId", spaceId));
+        }
+        List<BucketOccupancy> buckets = new ArrayList<>();
+        for (Document bucket : collection().find(Filters.and(filters))) {
+            Document id = bucket.get("_id", Document.class);
+            LocalDateTime bucketStart = toLocalDateTime(id.getDate("bucketStart"));
+            int index = (int) (Duration.between(start, bucketStart).toMinutes() / level.getMinutes());
+            buckets.add(new BucketOccupancy(id.get("spaceId", UUID.class), index, bucket.getInteger("peak"),
+                bucket.get("total", Number.class).longValue()));
+        }
+        return buckets;
+    }
+
+    // recompute the buckets of a restaurant from the given day on from its rollups; returns the number of buckets
+    // rewritten
+    public int rebuild(Restaurant restaurant, LocalDate from) {
+        ObjectId restaurantId = restaurant.getId();
+        Set<LocalDate> days = new TreeSet<>(occupancyRollupStore.days(restaurantId, from));
+        for (Date bucketStart : collection().distinct("_id.bucketStart",
+            Filters.and(Filters.eq("_id.restaurantId", restaurantId),
+                Filters.eq("_id.level", ReportGranularity.DAILY.getMinutes()),
+                Filters.gte("_id.bucketStart", toDate(from.atStartOfDay()))), Date.class)) {
+            days.add(toLocalDateTime(bucketStart).toLocalDate());
+        }
+        return refresh(restaurant, days);
+    }
+
+    // recompute the buckets of the days, after their rollups were updated; the restaurant total covers the spaces
+    // the restaurant is given with. Returns the number of buckets rewritten or removed
+    public int refresh(Restaurant restaurant, Collection<LocalDate> days) {
+        ObjectId restaurantId = restaurant.getId();
+        Set<UUID> spaces = new HashSet<>();
+        restaurant.getSpaces().stream().map(Space::getId).forEach(spaces::add);
+        int changed = 0;
+        Set<LocalDateTime> weeks = new TreeSet<>();
+        for (LocalDate day : days) {
+            LocalDateTime from = day.atStartOfDay();
+            Map<UUID, int[]> slots = new HashMap<>();
+            int[] restaurantTotal = new int[SLOTS_PER_DAY];
+            slots.put(null, restaurantTotal);
+            for (SlotOccupancy slot : occupancyRollupStore.find(restaurantId, null, from, from.plusDays(1))) {
+                slots.computeIfAbsent(slot.spaceId(), k -> new int[SLOTS_PER_DAY])[slot.slot()] += slot.occupancy();
+                if (spaces.contains(slot.spaceId())) {
+                    restaurantTotal[slot.slot()] += slot.occupancy();
+                }
+            }
+
+            Map<Document, Document> expected = new HashMap<>();
+            slots.forEach((spaceId, occupancy) -> {
+                OccupancyLevel hours = OccupancyLevel.of(occupancy).coarsen(ReportGranularity.HOURLY.factor());
+                put(expected, restaurantId, spaceId, ReportGranularity.HOURLY, from, hours);
+                put(expected, restaurantId, spaceId, ReportGranularity.DAILY, from,
+                    hours.coarsen(ReportGranularity.DAILY.factor()));
+            });
+            changed += sync(restaurantId, List.of(ReportGranularity.HOURLY, ReportGranularity.DAILY), from,
+                from.plusDays(1), expected);
+            weeks.add(ReportGranularity.WEEKLY.bucketStart(from));
+        }
+
+        int daysPerWeek = ReportGranularity.WEEKLY.factor();
+        for (LocalDateTime week : weeks) {
+            Map<UUID, int[]> peaks = new HashMap<>();
+            Map<UUID, long[]> totals = new HashMap<>();
+            for (BucketOccupancy day : find(restaurantId, null, ReportGranularity.DAILY, week,
+                week.plusDays(daysPerWeek))) {
+                peaks.computeIfAbsent(day.spaceId(), k -> new int[daysPerWeek])[day.bucket()] = day.peak();
+                totals.computeIfAbsent(day.spaceId(), k -> new long[daysPerWeek])[day.bucket()] = day.total();
+            }
+            Map<Document, Document> expected = new HashMap<>();
+            peaks.forEach((spaceId, peak) -> put(expected, restaurantId, spaceId, ReportGranularity.WEEKLY, week,
+                OccupancyLevel.of(peak, totals.get(spaceId), SLOTS_PER_DAY).coarsen(daysPerWeek)));
+            changed += sync(restaurantId, List.of(ReportGranularity.WEEKLY), week, week.plusDays(daysPerWeek),
+                expected);
+        }
+        return changed;
+    }
+
+    private static void put(Map<Document, Document> buckets, ObjectId restaurantId, UUID spaceId,
+        ReportGranularity level, LocalDateTime from, OccupancyLevel occupancy) {
+        for (int i = 0; i < occupancy.size(); i++) {
+            if (occupancy.total(i) != 0) {
+                buckets.put(bucketId(restaurantId, spaceId, level, from.plusMinutes((long) i * level.getMinutes())),
+                    new Document("peak", occupancy.peak(i)).append("total", occupancy.total(i)));
+            }
+        }
+    }
+
+    // write the buckets of the levels in [from, to) which differ from the expected ones and remove the ones no
+    // longer expected
+    private int sync(ObjectId restaurantId, List<ReportGranularity> levels, LocalDateTime from, LocalDateTime to,
+        Map<Document, Document> expected) {
+        Map<Document, Document> actual = new HashMap<>();
+        for (Document bucket : collection().find(levelFilter(restaurantId, levels, from, to))) {
+            actual.put(bucket.get("_id", Document.class), new Document("peak", bucket.getInteger("peak"))
+                .append("total", bucket.get("total", Number.class).longValue()));
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        expected.forEach((id, bucket) -> {
+            if (!bucket.equals(actual.get(id))) {
+                writes.add(new UpdateOneModel<>(Filters.eq("_id", id),
+                    Updates.combine(Updates.set("peak", bucket.get("peak")), Updates.set("total", bucket.get("total"))),
+                    new UpdateOptions().upsert(true)));
+            }
+        });
+        Set<Document> stale = new HashSet<>(actual.keySet());
+        stale.removeAll(expected.keySet());
+        stale.forEach(id -> writes.add(new DeleteOneModel<>(Filters.eq("_id", id))));
+        if (!writes.isEmpty()) {
+            collection().bulkWrite(writes);
+        }
+        return writes.size();
+    }
+
+    private static Bson levelFilter(ObjectId restaurantId, List<ReportGranularity> levels, LocalDateTime from,
+        LocalDateTime to) {
+        return Filters.and(Filters.eq("_id.restaurantId", restaurantId),
+            Filters.in("_id.level", levels.stream().map(ReportGranularity::getMinutes).toList()),
+            Filters.gte("_id.bucketStart", toDate(from)), Filters.lt("_id.bucketStart", toDate(to)));
+    }
+
+    // field order matters for _id equality, every id is built here
+    private static Document bucketId(ObjectId restaurantId, UUID spaceId, ReportGranularity level,
+        LocalDateTime bucketStart) {
+        return new Document("restaurantId", restaurantId).append("spaceId", spaceId)
+            .append("level", level.getMinutes()).append("bucketStart", toDate(bucketStart));
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(Constant.ZONE_ID).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), Constant.ZONE_ID);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,201 @@
+package com.opentable.privatedining.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+// Pre-aggregated headcount per (spaceId, BLOCK_INTERVAL slot) for reporting, documents look like
+// { _id: { spaceId, slotStart }, restaurantId, occupancy }. Kept current by every booking and cancellation in all
+// capacity modes, unlike the slot counters of SlotOccupancyStore which only exist in distributed mode and gate
+// capacity rather than report it.
+@Repository
+public class OccupancyRollupStore {
+
+    public static final String COLLECTION = "occupancy_rollup";
+
+    private final MongoTemplate mongoTemplate;
+
+    public OccupancyRollupStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void add(Collection<Reservation> reservations) {
+        increment(reservations, 1);
+    }
+
+    public void remove(Collection<Reservation> reservations) {
+        increment(reservations, -1);
+    }
+
+    // non-empty slots of a restaurant (and space) in [start, end), slot i being start + i * BLOCK_INTERVAL
+    public List<SlotOccupancy> find(ObjectId restaurantId, UUID spaceId, LocalDateTime start, LocalDateTime end) {
+        List<Bson> filters = new ArrayList<>(List.of(Filters.eq("restaurantId", restaurantId),
+            Filters.gte("_id.slotStart", toDate(start)), Filters.lt("_id.slotStart", toDate(end)),
+            Filters.ne("occupancy", 0)));
+        if (spaceId != null) {
+            filters.add(Filters.eq("_id.spaceId", spaceId));
+        }
+        List<SlotOccupancy> slots = new ArrayList<>();
+        for (Document rollup : collection().find(Filters.and(filters))) {
+            Document id = rollup.get("_id", Document.class);
+            LocalDateTime slotStart = toLocalDateTime(id.getDate("slotStart"));
+            int slot = (int) (Duration.between(start, slotStart).toMinutes() / Constant.BLOCK_INTERVAL);
+            slots.add(new SlotOccupancy(id.get("spaceId", UUID.class), slot, rollup.getInteger("occupancy")));
+        }
+        return slots;
+    }
+
+    // days from the given one on which a restaurant has any non-empty slot
+    public Set<LocalDate> days(ObjectId restaurantId, LocalDate from) {
+        Set<LocalDate> days = new TreeSet<>();
+        for (Date slotStart : collection().distinct("_id.slotStart",
+            Filters.and(Filters.eq("restaurantId", restaurantId),
+                Filters.gte("_id.slotStart", toDate(from.atStartOfDay())), Filters.ne("occupancy", 0)), Date.class)) {
+            days.add(toLocalDateTime(slotStart).toLocalDate());
+        }
+        return days;
+    }
+
+    // every rollup of a space from the given slot on, slot start -> occupancy
+    public Map<LocalDateTime, Integer> find(UUID spaceId, LocalDateTime from) {
+        Map<LocalDateTime, Integer> rollups = new TreeMap<>();
+        for (Document rollup : collection().find(Filters.and(Filters.eq("_id.spaceId", spaceId),
+            Filters.gte("_id.slotStart", toDate(from)))).projection(Projections.include("occupancy"))) {
+            rollups.put(toLocalDateTime(rollup.get("_id", Document.class).getDate("slotStart")),
+                rollup.getInteger("occupancy", 0));
+        }
+        return rollups;
+    }
+
+    // set a rollup only if it still holds the value it was read with, a missing rollup reads as 0; false when a
+    // booking or cancellation changed it in the meantime
+    public boolean compareAndSet(ObjectId restaurantId, UUID spaceId, LocalDateTime slotStart, int current,
+        int occupancy) {
+        Bson filter = Filters.and(Filters.eq("_id", slotId(spaceId, slotStart)), Filters.eq("occupancy", current));
+        Bson update = Updates.combine(Updates.set("occupancy", occupancy),
+            Updates.setOnInsert("restaurantId", restaurantId));
+        try {
+            UpdateResult result = collection().updateOne(filter, update, new UpdateOptions().upsert(current == 0));
+            return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            // the rollup exists with another value
+            return false;
+        }
+    }
+
+    // bring the rollups of a space from the start of the given day on in line with its reservations there. Only for
+    // the capacity modes whose bookings and cancellations write the rollups under the space lock, which the caller
+    // holds, so that none of them is between its reservation write and its increment. Each drifted slot is corrected
+    // by an increment of the difference rather than overwritten. Returns the number of slots that had drifted
+    public int repair(ObjectId restaurantId, UUID spaceId, LocalDateTime from, Collection<Reservation> reservations) {
+        Map<Document, Integer> drift = new HashMap<>();
+        count(reservations).forEach((id, occupancy) -> {
+            if (!id.getDate("slotStart").before(toDate(from))) {
+                drift.put(id, occupancy);
+            }
+        });
+        for (Document rollup : collection().find(Filters.and(Filters.eq("_id.spaceId", spaceId),
+            Filters.gte("_id.slotStart", toDate(from)))).projection(Projections.include("occupancy"))) {
+            drift.merge(rollup.get("_id", Document.class), -rollup.getInteger("occupancy", 0), Integer::sum);
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        drift.forEach((id, difference) -> {
+            if (difference != 0) {
+                writes.add(new UpdateOneModel<>(Filters.eq("_id", id),
+                    Updates.combine(Updates.inc("occupancy", difference),
+                        Updates.setOnInsert("restaurantId", restaurantId)),
+                    new UpdateOptions().upsert(true)));
+            }
+        });
+        if (!writes.isEmpty()) {
+            collection().bulkWrite(writes);
+        }
+        return writes.size();
+    }
+
+    private void increment(Collection<Reservation> reservations, int sign) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        Map<Document, ObjectId> restaurants = new HashMap<>();
+        count(reservations, restaurants).forEach((id, occupancy) -> writes.add(new UpdateOneModel<>(
+            Filters.eq("_id", id),
+            Updates.combine(Updates.inc("occupancy", sign * occupancy),
+                Updates.setOnInsert("restaurantId", restaurants.get(id))),
+            new UpdateOptions().upsert(true))));
+        if (!writes.isEmpty()) {
+            collection().bulkWrite(writes);
+        }
+    }
+
+    private static Map<Document, Integer> count(Collection<Reservation> reservations) {
+        return count(reservations, new HashMap<>());
+    }
+
+    // summed party size per slot id, one write per slot however many of the reservations share it
+    private static Map<Document, Integer> count(Collection<Reservation> reservations,
+        Map<Document, ObjectId> restaurants) {
+        Map<Document, Integer> counts = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getSpaceId() == null) {
+                continue;
+            }
+            for (LocalDateTime slotStart = reservation.getStartTime(); slotStart.isBefore(reservation.getEndTime());
+                slotStart = slotStart.plusMinutes(Constant.BLOCK_INTERVAL)) {
+                Document id = slotId(reservation.getSpaceId(), slotStart);
+                counts.merge(id, reservation.getPartySize(), Integer::sum);
+                restaurants.put(id, reservation.getRestaurantId());
+            }
+        }
+        return counts;
+    }
+
+    // stored like every other LocalDateTime of the system, as a UTC instant of the system zone
+    private static Document slotId(UUID spaceId, LocalDateTime slotStart) {
+        return new Document("spaceId", spaceId).append("slotStart", toDate(slotStart));
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(Constant.ZONE_ID).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), Constant.ZONE_ID);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -2,6 +2,7 @@ package com.opentable.privatedining.repository;
 
 import com.opentable.privatedining.model.Reservation;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.bson.types.ObjectId;
@@ -10,7 +11,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ReservationRepository extends MongoRepository<Reservation, ObjectId> {
+public interface ReservationRepository extends MongoRepository<Reservation, ObjectId>, ReservationRepositoryCustom {
 
     @Query("{ 'restaurantId': ?0, 'spaceId': ?1, 'startTime': { $lt: ?3 }, 'endTime': { $gt: ?2 } }")
     List<Reservation> findByRestaurantIdAndSpaceIdAndOverlap(ObjectId restaurantId, UUID spaceId,
@@ -18,4 +19,21 @@ public interface ReservationRepository extends MongoRepository<Reservation, Obje
 
     @Query("{ 'restaurantId': ?0, 'startTime': { $lt: ?2 }, 'endTime': { $gt: ?1 } }")
     List<Reservation> findByRestaurantIdAndOverlap(ObjectId restaurantId, LocalDateTime from, LocalDateTime to);
+
+    @Query("{ 'restaurantId': { $in: ?0 }, 'startTime': { $lt: ?2 }, 'endTime': { $gt: ?1 } }")
+    List<Reservation> findByRestaurantIdInAndOverlap(Collection<ObjectId> restaurantIds, LocalDateTime from,
+        LocalDateTime to);
+
+    @Query("{ 'spaceId': ?0, 'startTime': { $lt: ?2 }, 'endTime': { $gt: ?1 } }")
+    List<Reservation> findBySpaceIdAndOverlap(UUID spaceId, LocalDateTime from, LocalDateTime to);
+
+    List<Reservation> findByEndTimeAfter(LocalDateTime time);
+
+    // reservations of a space ending after time; earliestStart bounds the index scan, reservations last at most a day
+    @Query("{ 'spaceId': ?0, 'startTime': { $gte: ?1 }, 'endTime': { $gt: ?2 } }")
+    List<Reservation> findBySpaceIdEndingAfter(UUID spaceId, LocalDateTime earliestStart, LocalDateTime time);
+
+    List<Reservation> findByRestaurantId(ObjectId restaurantId);
+
+    long removeById(ObjectId id);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.opentable.privatedining.repository;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationQuery;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+
+public interface ReservationRepositoryCustom {
+
+    // up to limit reservations of a restaurant (and space) ordered by (startTime, id), starting after query.after;
+    // a null restaurantId or spaceId is not filtered on
+    List<Reservation> findPage(ObjectId restaurantId, UUID spaceId, ReservationQuery query, int limit);
+
+    // every reservation in _id order read from a cursor batchSize documents at a time, close the stream when done
+    Stream<Reservation> streamAll(int batchSize);
+
+    // summed party sizes per (space, slot) of the reservations of a restaurant (and space) overlapping [start, end),
+    // slot i being [start + i * slotMinutes, start + (i + 1) * slotMinutes); empty slots are not returned
+    List<SlotOccupancy> sumPartySizeBySlot(ObjectId restaurantId, UUID spaceId, LocalDateTime start,
+        LocalDateTime end, int slots, long slotMinutes);
+}
@@ -0,0 +1,113 @@
+package com.opentable.privatedining.repository;
+
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationQuery;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+public class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReservationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Reservation> findPage(ObjectId restaurantId, UUID spaceId, ReservationQuery query, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (restaurantId != null) {
+            criteria.add(Criteria.where("restaurantId").is(restaurantId));
+        }
+        if (spaceId != null) {
+            criteria.add(Criteria.where("spaceId").is(spaceId));
+        }
+        if (query.getTo() != null) {
+            criteria.add(Criteria.where("startTime").lt(query.getTo()));
+        }
+        if (query.getFrom() != null) {
+            criteria.add(Criteria.where("endTime").gt(query.getFrom()));
+        }
+        if (query.getStatus() != null) {
+            criteria.add(Criteria.where("status").is(query.getStatus()));
+        }
+        ReservationCursor after = query.getAfter();
+        if (after != null) {
+            // keyset: strictly after the last (startTime, id) of the previous page, no skip over earlier pages
+            criteria.add(new Criteria().orOperator(Criteria.where("startTime").gt(after.startTime()),
+                Criteria.where("startTime").is(after.startTime()).and("_id").gt(after.id())));
+        }
+
+        Query page = (criteria.isEmpty() ? new Query() : Query.query(new Criteria().andOperator(criteria)))
+            .with(Sort.by(Sort.Order.asc("startTime"), Sort.Order.asc("_id")))
+            .limit(limit);
+        return mongoTemplate.find(page, Reservation.class);
+    }
+
+    @Override
+    public Stream<Reservation> streamAll(int batchSize) {
+        Query all = new Query().with(Sort.by(Sort.Order.asc("_id"))).cursorBatchSize(batchSize);
+        return mongoTemplate.stream(all, Reservation.class);
+    }
+
+    @Override
+    public List<SlotOccupancy> sumPartySizeBySlot(ObjectId restaurantId, UUID spaceId, LocalDateTime start,
+        LocalDateTime end, int slots, long slotMinutes) {
+        Criteria overlap = Criteria.where("restaurantId").is(restaurantId)
+            .and("startTime").lt(end)
+            .and("endTime").gt(start);
+        if (spaceId != null) {
+            overlap.and("spaceId").is(spaceId);
+        }
+        // slot indexes are computed on wall-clock times like SlotTimeline does, otherwise a window crossing a
+        // daylight saving change would shift every slot after it by an hour
+        Date windowStart = Date.from(start.toInstant(ZoneOffset.UTC));
+        long slotMillis = slotMinutes * 60_000;
+        Document firstSlot = new Document("$max", List.of(0, new Document("$toInt", new Document("$floor",
+            new Document("$divide", List.of(new Document("$subtract", List.of(wallClock("$startTime"), windowStart)),
+                slotMillis))))));
+        // a reservation ending inside a slot still occupies it
+        Document lastSlot = new Document("$min", List.of(slots, new Document("$toInt", new Document("$ceil",
+            new Document("$divide", List.of(new Document("$subtract", List.of(wallClock("$endTime"), windowStart)),
+                slotMillis))))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(overlap),
+            Aggregation.stage(new Document("$project", new Document("spaceId", 1).append("partySize", 1)
+                .append("slot", new Document("$range", List.of(firstSlot, lastSlot))))),
+            Aggregation.stage(new Document("$unwind", "$slot")),
+            Aggregation.stage(new Document("$group",
+                new Document("_id", new Document("spaceId", "$spaceId").append("slot", "$slot"))
+                    .append("occupancy", new Document("$sum", "$partySize")))),
+            Aggregation.stage(new Document("$project", new Document("_id", 0).append("spaceId", "$_id.spaceId")
+                .append("slot", "$_id.slot").append("occupancy", 1))))
+            // one document per reserved slot before grouping, long ranges may not fit the in-memory limit
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, Reservation.class, SlotOccupancy.class).getMappedResults();
+    }
+
+    // the stored UTC instant as the wall-clock time of the system zone, itself expressed as a UTC date
+    private static Document wallClock(String field) {
+        String format = "%Y-%m-%dT%H:%M:%S";
+        Document local = new Document("$dateToString", new Document("date", field).append("format", format)
+            .append("timezone", Constant.ZONE_ID.getId()));
+        return new Document("$dateFromString", new Document("dateString", local).append("format", format)
+            .append("timezone", "UTC"));
+    }
+}
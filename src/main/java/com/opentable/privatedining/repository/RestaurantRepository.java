@@ -1,6 +1,7 @@
 package com.opentable.privatedining.repository;
 
 import com.opentable.privatedining.model.Restaurant;
+import java.util.List;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -8,4 +9,8 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface RestaurantRepository extends MongoRepository<Restaurant, ObjectId> {
 
+    // restaurants with at least one space large enough for the party
+    List<Restaurant> findBySpacesMaxCapacityGreaterThanEqual(int partySize);
+
+    List<Restaurant> findByCuisineTypeIgnoreCase(String cuisineType);
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.opentable.privatedining.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.model.Reservation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+// Headcount per (spaceId, slotStart) kept in MongoDB, documents look like
+// { _id: { spaceId, slotStart }, restaurantId, occupancy }
+@Repository
+public class SlotOccupancyStore {
+
+    public static final String COLLECTION = "slot_occupancy";
+
+    private final MongoTemplate mongoTemplate;
+
+    public SlotOccupancyStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // reserve capacity slot by slot, returns the first slot that could not take the party
+    // slots reserved before the failing one are released again
+    public Optional<LocalDateTime> tryReserve(ObjectId restaurantId, UUID spaceId, LocalDateTime start,
+        LocalDateTime end, int partySize, int minCapacity, int maxCapacity) {
+        List<LocalDateTime> reserved = new ArrayList<>();
+        for (LocalDateTime slotStart : slotsOf(start, end)) {
+            if (!reserveSlot(restaurantId, spaceId, slotStart, partySize, minCapacity, maxCapacity)) {
+                release(spaceId, reserved, partySize);
+                return Optional.of(slotStart);
+            }
+            reserved.add(slotStart);
+        }
+        return Optional.empty();
+    }
+
+    public void release(UUID spaceId, LocalDateTime start, LocalDateTime end, int partySize) {
+        release(spaceId, slotsOf(start, end), partySize);
+    }
+
+    public int getOccupancy(UUID spaceId, LocalDateTime slotStart) {
+        Document slot = collection().find(Filters.eq("_id", slotId(spaceId, slotStart))).first();
+        return slot == null ? 0 : slot.getInteger("occupancy", 0);
+    }
+
+    public boolean isEmpty() {
+        return collection().countDocuments() == 0;
+    }
+
+    // overwrite the counters with the headcount of the given reservations, idempotent so that several nodes
+    // seeding at the same time end up with the same values
+    public void overwrite(Collection<Reservation> reservations) {
+        Map<Document, Document> counts = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            for (LocalDateTime slotStart : slotsOf(reservation.getStartTime(), reservation.getEndTime())) {
+                Document count = counts.computeIfAbsent(slotId(reservation.getSpaceId(), slotStart),
+                    k -> new Document("restaurantId", reservation.getRestaurantId()).append("occupancy", 0));
+                count.put("occupancy", count.getInteger("occupancy") + reservation.getPartySize());
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<UpdateOneModel<Document>> writes = new ArrayList<>(counts.size());
+        counts.forEach((id, count) -> writes.add(new UpdateOneModel<>(Filters.eq("_id", id),
+            Updates.combine(Updates.set("restaurantId", count.get("restaurantId")),
+                Updates.set("occupancy", count.getInteger("occupancy"))),
+            new UpdateOptions().upsert(true))));
+        collection().bulkWrite(writes);
+    }
+
+    // counters of a space from the given slot on, by slot start
+    public Map<LocalDateTime, Integer> find(UUID spaceId, LocalDateTime from) {
+        Map<LocalDateTime, Integer> counters = new TreeMap<>();
+        for (Document slot : collection().find(Filters.and(Filters.eq("_id.spaceId", spaceId),
+            Filters.gte("_id.slotStart", toDate(from))))) {
+            counters.put(toLocalDateTime(slot.get("_id", Document.class).getDate("slotStart")),
+                slot.getInteger("occupancy", 0));
+        }
+        return counters;
+    }
+
+    // set a counter only if it still holds the value it was read with, a missing counter reads as 0; false when a
+    // booking or cancellation changed it in the meantime
+    public boolean compareAndSet(ObjectId restaurantId, UUID spaceId, LocalDateTime slotStart, int current,
+        int occupancy) {
+        Bson filter = Filters.and(Filters.eq("_id", slotId(spaceId, slotStart)), Filters.eq("occupancy", current));
+        Bson update = Updates.combine(Updates.set("occupancy", occupancy),
+            Updates.setOnInsert("restaurantId", restaurantId));
+        try {
+            return applied(collection().updateOne(filter, update, new UpdateOptions().upsert(current == 0)));
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            // the counter exists with another value
+            return false;
+        }
+    }
+
+    // headcount per slot of the given reservations of one space
+    public static Map<LocalDateTime, Integer> count(Collection<Reservation> reservations) {
+        Map<LocalDateTime, Integer> counts = new TreeMap<>();
+        for (Reservation reservation : reservations) {
+            for (LocalDateTime slotStart : slotsOf(reservation.getStartTime(), reservation.getEndTime())) {
+                counts.merge(slotStart, reservation.getPartySize(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private boolean reserveSlot(ObjectId restaurantId, UUID spaceId, LocalDateTime slotStart, int partySize,
+        int minCapacity, int maxCapacity) {
+        // only match when occupancy + partySize stays within [minCapacity, maxCapacity]
+        Bson filter = Filters.and(Filters.eq("_id", slotId(spaceId, slotStart)),
+            Filters.gte("occupancy", minCapacity - partySize), Filters.lte("occupancy", maxCapacity - partySize));
+        Bson update = Updates.combine(Updates.inc("occupancy", partySize),
+            Updates.setOnInsert("restaurantId", restaurantId));
+        // a missing slot has no occupancy yet, only create it when the party alone fits
+        boolean fitsEmptySlot = partySize >= minCapacity && partySize <= maxCapacity;
+        try {
+            return applied(collection().updateOne(filter, update, new UpdateOptions().upsert(fitsEmptySlot)));
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            // either the slot exists but is full, or another node created it concurrently: match it once more
+            return applied(collection().updateOne(filter, update));
+        }
+    }
+
+    private void release(UUID spaceId, List<LocalDateTime> slots, int partySize) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        List<UpdateOneModel<Document>> writes = new ArrayList<>(slots.size());
+        for (LocalDateTime slotStart : slots) {
+            writes.add(new UpdateOneModel<>(Filters.eq("_id", slotId(spaceId, slotStart)),
+                Updates.inc("occupancy", -partySize)));
+        }
+        collection().bulkWrite(writes);
+    }
+
+    private static boolean applied(UpdateResult result) {
+        return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+    }
+
+    private static List<LocalDateTime> slotsOf(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (LocalDateTime slotStart = start; slotStart.isBefore(end);
+            slotStart = slotStart.plusMinutes(Constant.BLOCK_INTERVAL)) {
+            slots.add(slotStart);
+        }
+        return slots;
+    }
+
+    // stored like every other LocalDateTime of the system, as a UTC instant of the system zone
+    private static Document slotId(UUID spaceId, LocalDateTime slotStart) {
+        return new Document("spaceId", spaceId).append("slotStart", toDate(slotStart));
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(Constant.ZONE_ID).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), Constant.ZONE_ID);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,245 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OperatingHours;
+import com.opentable.privatedining.common.SlotTimeline;
+import com.opentable.privatedining.config.AvailabilityProperties;
+import com.opentable.privatedining.exception.InvalidReservationException;
+import com.opentable.privatedining.exception.RestaurantNotFoundException;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.availability.RestaurantAvailability;
+import com.opentable.privatedining.model.availability.SpaceAvailability;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AvailabilityService {
+
+    // longest window a single search may cover
+    public static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private final RestaurantService restaurantService;
+    private final ReservationService reservationService;
+    private final AvailabilityProperties availabilityProperties;
+    private final ExecutorService searchExecutor;
+
+    public AvailabilityService(RestaurantService restaurantService, ReservationService reservationService,
+        AvailabilityProperties availabilityProperties, ExecutorService availabilitySearchExecutor) {
+        this.restaurantService = restaurantService;
+        this.reservationService = reservationService;
+        this.availabilityProperties = availabilityProperties;
+        this.searchExecutor = availabilitySearchExecutor;
+    }
+
+    // every space and start time in [from, to) at which a party of partySize can be booked for duration minutes
+    public RestaurantAvailability getAvailability(ObjectId restaurantId, int partySize, LocalDateTime from,
+        LocalDateTime to, int duration) {
+        validateParams(partySize, from, to, duration);
+
+        Restaurant restaurant = restaurantService.getRestaurantById(restaurantId)
+            .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
+
+        // one query for the whole window, every space is answered from the same result
+        List<Reservation> reservations = reservationService.getReservationByRestaurantAndOverlap(restaurantId, from,
+            to);
+
+        return computeAvailability(restaurant, reservations, partySize, from, to, duration, LocalDateTime.now());
+    }
+
+    // restaurants which could host the party at all: a space large enough and at least one start within the
+    // operating hours, both checked without looking at reservations
+    public List<Restaurant> findSearchCandidates(int partySize, LocalDateTime from, LocalDateTime to, int duration) {
+        validateParams(partySize, from, to, duration);
+
+        int slots = SlotTimeline.slotCount(from, to);
+        int length = duration / Constant.BLOCK_INTERVAL;
+        LocalDateTime now = LocalDateTime.now();
+        List<Restaurant> candidates = new ArrayList<>();
+        for (Restaurant restaurant : restaurantService.getRestaurantsWithSpaceFor(partySize)) {
+            if (anyStartAllowed(allowedStarts(restaurant, from, slots, length, duration, now))) {
+                candidates.add(restaurant);
+            }
+        }
+        return candidates;
+    }
+
+    // evaluates the candidates in chunks on the search executor, every restaurant with at least one available space
+    // is handed to the sink on the calling thread as soon as its chunk completes
+    public void searchAvailability(List<Restaurant> candidates, int partySize, LocalDateTime from, LocalDateTime to,
+        int duration, Consumer<RestaurantAvailability> sink) {
+        validateParams(partySize, from, to, duration);
+
+        LocalDateTime now = LocalDateTime.now();
+        int chunkSize = Math.max(1, availabilityProperties.getSearchChunkSize());
+        int maxInFlight = Math.max(1, availabilityProperties.getSearchMaxInFlight());
+        int chunks = (candidates.size() + chunkSize - 1) / chunkSize;
+
+        CompletionService<List<RestaurantAvailability>> completion = new ExecutorCompletionService<>(searchExecutor);
+        List<Future<List<RestaurantAvailability>>> pending = new ArrayList<>();
+        int submitted = 0;
+        try {
+            for (int completed = 0; completed < chunks; completed++) {
+                // only a bounded number of chunks ahead of the consumer
+                while (submitted < chunks && submitted - completed < maxInFlight) {
+                    List<Restaurant> chunk = candidates.subList(submitted * chunkSize,
+                        Math.min(candidates.size(), (submitted + 1) * chunkSize));
+                    pending.add(completion.submit(() -> evaluateChunk(chunk, partySize, from, to, duration, now)));
+                    submitted++;
+                }
+                completion.take().get().forEach(sink);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Availability search interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Availability search failed", e.getCause());
+        } finally {
+            // the consumer may have failed (e.g. client gone), do not keep evaluating for nobody
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    RestaurantAvailability computeAvailability(Restaurant restaurant, List<Reservation> reservations, int partySize,
+        LocalDateTime from, LocalDateTime to, int duration, LocalDateTime now) {
+        int slots = SlotTimeline.slotCount(from, to);
+        int length = duration / Constant.BLOCK_INTERVAL;
+        boolean[] startAllowed = allowedStarts(restaurant, from, slots, length, duration, now);
+
+        // difference arrays of all spaces built in a single pass over the reservations
+        Map<UUID, int[]> deltas = new HashMap<>();
+        for (Space space : restaurant.getSpaces()) {
+            if (space.getMaxCapacity() != null && partySize <= space.getMaxCapacity()) {
+                deltas.put(space.getId(), new int[slots + 1]);
+            }
+        }
+        for (Reservation reservation : reservations) {
+            int[] delta = deltas.get(reservation.getSpaceId());
+            if (delta != null) {
+                SlotTimeline.addTo(delta, reservation, from, slots);
+            }
+        }
+
+        List<SpaceAvailability> spaces = new ArrayList<>();
+        for (Space space : restaurant.getSpaces()) {
+            int[] delta = deltas.get(space.getId());
+            if (delta == null) {
+                continue;
+            }
+            List<LocalDateTime> startTimes = startTimes(SlotTimeline.prefixSum(delta, slots), startAllowed, length,
+                partySize, space, from);
+            if (!startTimes.isEmpty()) {
+                spaces.add(new SpaceAvailability(space.getId(), space.getName(), space.getMinCapacity(),
+                    space.getMaxCapacity(), startTimes));
+            }
+        }
+
+        return new RestaurantAvailability(restaurant.getId(), restaurant.getName(), partySize, from, to, duration,
+            spaces);
+    }
+
+    private List<RestaurantAvailability> evaluateChunk(List<Restaurant> chunk, int partySize, LocalDateTime from,
+        LocalDateTime to, int duration, LocalDateTime now) {
+        Map<ObjectId, List<Reservation>> reservationsByRestaurant = new HashMap<>();
+        List<ObjectId> restaurantIds = chunk.stream().map(Restaurant::getId).toList();
+        for (Reservation reservation : reservationService.getReservationByRestaurantsAndOverlap(restaurantIds, from,
+            to)) {
+            reservationsByRestaurant.computeIfAbsent(reservation.getRestaurantId(), k -> new ArrayList<>())
+                .add(reservation);
+        }
+
+        List<RestaurantAvailability> available = new ArrayList<>();
+        for (Restaurant restaurant : chunk) {
+            RestaurantAvailability availability = computeAvailability(restaurant,
+                reservationsByRestaurant.getOrDefault(restaurant.getId(), List.of()), partySize, from, to, duration,
+                now);
+            if (!availability.getSpaces().isEmpty()) {
+                available.add(availability);
+            }
+        }
+        return available;
+    }
+
+    private void validateParams(int partySize, LocalDateTime from, LocalDateTime to, int duration) {
+        if (from == null || to == null) {
+            throw new InvalidReservationException("Availability window cannot be null.");
+        }
+        if (partySize <= 0) {
+            throw new InvalidReservationException("Party size must be positive.");
+        }
+        if (!from.isBefore(to)) {
+            throw new InvalidReservationException("Availability window start must be before its end.");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new InvalidReservationException("Availability window cannot exceed " + MAX_WINDOW.toDays()
+                + " days.");
+        }
+        if (from.getMinute() % Constant.BLOCK_INTERVAL != 0 || to.getMinute() % Constant.BLOCK_INTERVAL != 0
+            || from.getSecond() != 0 || to.getSecond() != 0) {
+            throw new InvalidReservationException("Availability window must be on the hour or half-hour.");
+        }
+        // same limits as a single reservation
+        if (duration <= 0 || duration % Constant.BLOCK_INTERVAL != 0 || duration > Duration.ofHours(24).toMinutes()) {
+            throw new InvalidReservationException(
+                "Duration must be a positive multiple of " + Constant.BLOCK_INTERVAL + " minutes within 24 hours.");
+        }
+    }
+
+    // start slots which are in the future and keep the whole reservation within the window and the operating hours,
+    // the same for every space of the restaurant
+    private boolean[] allowedStarts(Restaurant restaurant, LocalDateTime from, int slots, int length, int duration,
+        LocalDateTime now) {
+        boolean[] allowed = new boolean[slots];
+        for (int i = 0; i + length <= slots; i++) {
+            LocalDateTime start = from.plusMinutes((long) i * Constant.BLOCK_INTERVAL);
+            allowed[i] = start.isAfter(now) && OperatingHours.isWithin(start, start.plusMinutes(duration),
+                restaurant.getStartTime(), restaurant.getEndTime());
+        }
+        return allowed;
+    }
+
+    private boolean anyStartAllowed(boolean[] allowed) {
+        for (boolean start : allowed) {
+            if (start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // one sweep over the occupancy counting how many consecutive slots in a row can take the party,
+    // a start is possible once the run covers the whole duration
+    private List<LocalDateTime> startTimes(int[] occupancy, boolean[] startAllowed, int length, int partySize,
+        Space space, LocalDateTime from) {
+        int minCapacity = space.getMinCapacity() != null ? space.getMinCapacity() : 0;
+        int maxCapacity = space.getMaxCapacity();
+        List<LocalDateTime> startTimes = new ArrayList<>();
+        int run = 0;
+        for (int i = 0; i < occupancy.length; i++) {
+            int proposed = occupancy[i] + partySize;
+            run = proposed >= minCapacity && proposed <= maxCapacity ? run + 1 : 0;
+            int start = i - length + 1;
+            if (run >= length && startAllowed[start]) {
+                startTimes.add(from.plusMinutes((long) start * Constant.BLOCK_INTERVAL));
+            }
+        }
+        return startTimes;
+    }
+}
@@ -0,0 +1,150 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Space;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.DisposableBean;
+
+// One mailbox per space, served by at most one writer at a time. A writer takes up to maxGroupSize queued bookings,
+// hands them to the group writer and gives its thread back, so idle spaces hold no thread and a busy space cannot
+// starve the others.
+public class BookingMailboxes implements MeterBinder, DisposableBean {
+
+    private final Executor executor;
+
+    private final int maxGroupSize;
+
+    private final ConcurrentHashMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder groups = new LongAdder();
+
+    private final LongAdder queued = new LongAdder();
+
+    public BookingMailboxes(Executor executor, int maxGroupSize) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("Group size must be positive: " + maxGroupSize);
+        }
+        this.executor = executor;
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    // the group writer must complete the future of every request it is given, it is the same for all submissions
+    public CompletableFuture<Reservation> submit(Reservation reservation, Space space,
+        Consumer<List<BookingRequest>> groupWriter) {
+        BookingRequest request = new BookingRequest(reservation, space, new CompletableFuture<>());
+        Mailbox mailbox = mailboxes.computeIfAbsent(reservation.getSpaceId(), k -> new Mailbox());
+        requests.increment();
+        queued.increment();
+        mailbox.queue.add(request);
+        schedule(mailbox, groupWriter);
+        return request.result();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getGroups() {
+        return groups.sum();
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.mailbox.requests", requests, LongAdder::sum)
+            .description("Bookings submitted to the space writers")
+            .register(registry);
+        FunctionCounter.builder("booking.mailbox.groups", groups, LongAdder::sum)
+            .description("Groups committed by the space writers, requests / groups is the average group size")
+            .register(registry);
+        Gauge.builder("booking.mailbox.queued", queued, LongAdder::sum)
+            .description("Bookings waiting for their space writer")
+            .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ExecutorService executorService) {
+            // queued groups are still written, new submissions are failed
+            executorService.shutdown();
+        }
+    }
+
+    private void schedule(Mailbox mailbox, Consumer<List<BookingRequest>> groupWriter) {
+        if (!mailbox.scheduled.compareAndSet(false, true)) {
+            // the current writer picks the request up
+            return;
+        }
+        try {
+            executor.execute(() -> drain(mailbox, groupWriter));
+        } catch (RejectedExecutionException e) {
+            mailbox.scheduled.set(false);
+            failAll(mailbox, e);
+        }
+    }
+
+    private void drain(Mailbox mailbox, Consumer<List<BookingRequest>> groupWriter) {
+        try {
+            List<BookingRequest> group = new ArrayList<>(maxGroupSize);
+            BookingRequest request;
+            while (group.size() < maxGroupSize && (request = mailbox.queue.poll()) != null) {
+                group.add(request);
+            }
+            queued.add(-group.size());
+            if (!group.isEmpty()) {
+                groups.increment();
+                try {
+                    groupWriter.accept(group);
+                } catch (RuntimeException e) {
+                    group.forEach(r -> r.result().completeExceptionally(e));
+                }
+            }
+        } finally {
+            mailbox.scheduled.set(false);
+            // requests queued while this group was written get a new turn at the back of the executor queue
+            if (!mailbox.queue.isEmpty()) {
+                schedule(mailbox, groupWriter);
+            }
+        }
+    }
+
+    private void failAll(Mailbox mailbox, RuntimeException e) {
+        BookingRequest request;
+        while ((request = mailbox.queue.poll()) != null) {
+            queued.decrement();
+            request.result().completeExceptionally(e);
+        }
+    }
+
+    public record BookingRequest(Reservation reservation, Space space, CompletableFuture<Reservation> result) {
+
+    }
+
+    private static final class Mailbox {
+
+        private final Queue<BookingRequest> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+}
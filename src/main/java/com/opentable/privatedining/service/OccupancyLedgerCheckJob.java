@@ -0,0 +1,72 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Compares the hydrated days of the occupancy ledger with the reservations and overwrites drifted days, in the
+// capacity modes that book through the ledger and on the node holding the job lease. The ledger drifts when an insert
+// fails without telling what it stored: the capacity of those reservations is kept until this check finds them
+// missing. Each space is checked under its lock, so bookings and cancellations never race the repair.
+@Component
+public class OccupancyLedgerCheckJob {
+
+    static final String JOB = "occupancy-ledger-check";
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyLedgerCheckJob.class);
+
+    private final ReservationService reservationService;
+
+    private final BookingProperties bookingProperties;
+
+    private final ScheduledExecutorService ledgerCheckScheduler;
+
+    private final JobLeaseStore jobLeaseStore;
+
+    public OccupancyLedgerCheckJob(ReservationService reservationService, BookingProperties bookingProperties,
+        ScheduledExecutorService ledgerCheckScheduler, JobLeaseStore jobLeaseStore) {
+        this.reservationService = reservationService;
+        this.bookingProperties = bookingProperties;
+        this.ledgerCheckScheduler = ledgerCheckScheduler;
+        this.jobLeaseStore = jobLeaseStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedule() {
+        Duration interval = bookingProperties.getLedgerCheckInterval();
+        if (bookingProperties.getCapacityMode() == CapacityMode.DISTRIBUTED || interval.isZero()
+            || interval.isNegative()) {
+            return;
+        }
+        // the ledger starts out matching the database, the first check runs after one interval
+        ledgerCheckScheduler.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    // returns the drifted slots, empty when another node holds the lease
+    public List<Drift> check() {
+        if (!jobLeaseStore.tryAcquire(JOB, bookingProperties.getLedgerCheckInterval().multipliedBy(2))) {
+            return List.of();
+        }
+        return reservationService.verifyOccupancyLedger(true);
+    }
+
+    // an exception would cancel every later run of the scheduled task
+    private void runSafely() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            logger.error("Occupancy ledger check failed", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.repository.OccupancyPyramidStore;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Refreshes the occupancy pyramid off the booking path. Bookings only note the days they touched; a single
+// background thread recomputes them per restaurant with its spaces from the restaurant cache, so a burst of bookings
+// on one day costs one refresh, and drops the restaurant's cached reports afterwards, the pyramid backend serves
+// them. OccupancyRollupRebuildJob queues its rebuilds here as well, so one thread writes a restaurant's pyramid; a
+// failed refresh is left to its next run.
+@Component
+public class OccupancyPyramidRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyPyramidRefresher.class);
+
+    private final OccupancyPyramidStore occupancyPyramidStore;
+
+    private final OccupancyReportCache occupancyReportCache;
+
+    private final ExecutorService refreshExecutor;
+
+    // resolved on first use, RestaurantService queues rebuilds here
+    private final ObjectProvider<RestaurantService> restaurantService;
+
+    // restaurants with a refresh queued, merged into until the refresh takes them out
+    private final ConcurrentMap<ObjectId, Pending> pending = new ConcurrentHashMap<>();
+
+    public OccupancyPyramidRefresher(OccupancyPyramidStore occupancyPyramidStore,
+        OccupancyReportCache occupancyReportCache, ExecutorService pyramidRefreshExecutor,
+        ObjectProvider<RestaurantService> restaurantService) {
+        this.occupancyPyramidStore = occupancyPyramidStore;
+        this.occupancyReportCache = occupancyReportCache;
+        this.refreshExecutor = pyramidRefreshExecutor;
+        this.restaurantService = restaurantService;
+    }
+
+    // queue the days the reservations touch, after their rollups were updated
+    public void refresh(Collection<Reservation> reservations) {
+        Map<ObjectId, Set<LocalDate>> days = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getSpaceId() == null) {
+                continue;
+            }
+            Set<LocalDate> restaurantDays = days.computeIfAbsent(reservation.getRestaurantId(), k -> new TreeSet<>());
+            for (LocalDate day = reservation.getStartTime().toLocalDate();
+                day.atStartOfDay().isBefore(reservation.getEndTime()); day = day.plusDays(1)) {
+                restaurantDays.add(day);
+            }
+        }
+        days.forEach((restaurantId, restaurantDays) -> queue(restaurantId, restaurantDays, null));
+    }
+
+    // queue every day of the restaurant, its totals cover its spaces and they changed
+    public void rebuild(ObjectId restaurantId) {
+        rebuild(restaurantId, LocalDate.EPOCH);
+    }
+
+    // queue every day of the restaurant from the given one on
+    public void rebuild(ObjectId restaurantId, LocalDate from) {
+        queue(restaurantId, Set.of(), from);
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    private void queue(ObjectId restaurantId, Set<LocalDate> days, LocalDate rebuildFrom) {
+        boolean[] created = new boolean[1];
+        pending.compute(restaurantId, (id, queued) -> {
+            if (queued == null) {
+                queued = new Pending();
+                created[0] = true;
+            }
+            queued.days.addAll(days);
+            if (rebuildFrom != null && (queued.rebuildFrom == null || rebuildFrom.isBefore(queued.rebuildFrom))) {
+                queued.rebuildFrom = rebuildFrom;
+            }
+            return queued;
+        });
+        if (created[0]) {
+            refreshExecutor.execute(() -> run(restaurantId));
+        }
+    }
+
+    private void run(ObjectId restaurantId) {
+        Pending queued = pending.remove(restaurantId);
+        if (queued == null) {
+            return;
+        }
+        try {
+            // a deleted restaurant has no reports left to serve
+            Optional<Restaurant> restaurant = restaurantService.getObject().getRestaurantById(restaurantId);
+            if (restaurant.isPresent() && queued.rebuildFrom != null) {
+                occupancyPyramidStore.rebuild(restaurant.get(), queued.rebuildFrom);
+                // days before the rebuild, e.g. of a cancelled past reservation
+                queued.days.removeIf(day -> !day.isBefore(queued.rebuildFrom));
+            }
+            if (restaurant.isPresent() && !queued.days.isEmpty()) {
+                occupancyPyramidStore.refresh(restaurant.get(), queued.days);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Occupancy pyramid not refreshed for restaurant {}", restaurantId, e);
+        }
+        occupancyReportCache.invalidate(restaurantId);
+    }
+
+    private static final class Pending {
+
+        private final Set<LocalDate> days = new TreeSet<>();
+
+        // every day from this one on, null when only the days above are queued
+        private LocalDate rebuildFrom;
+    }
+}
@@ -0,0 +1,63 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+// Finished occupancy reports, dashboards poll the same report every few seconds. A booking or cancellation through
+// this node drops the reports of its restaurant whose window it overlaps and a change to the restaurant drops all of
+// its reports; the ttl bounds how long changes made by other nodes stay invisible. Misses for the same report, a
+// dashboard opened by a whole shift at once, share a single computation.
+@Component
+public class OccupancyReportCache {
+
+    // shared instances, callers must not modify the reports they get from the cache
+    private final BoundedCache<Key, OccupancyReport> reportCache;
+
+    private final SingleFlight<Key, Optional<OccupancyReport>> reportFlights;
+
+    public OccupancyReportCache(BoundedCache<Key, OccupancyReport> reportCache,
+        SingleFlight<Key, Optional<OccupancyReport>> reportFlights) {
+        this.reportCache = reportCache;
+        this.reportFlights = reportFlights;
+    }
+
+    public Optional<OccupancyReport> get(OccupancyReport request, Function<Key, Optional<OccupancyReport>> loader) {
+        return reportCache.get(Key.of(request), key -> reportFlights.run(key, loader));
+    }
+
+    // returns the number of reports dropped; running computations of the dropped reports are no longer joined, the
+    // cache does not store their result either
+    public int invalidate(Collection<Reservation> reservations) {
+        reportFlights.forgetIf(key -> reservations.stream().anyMatch(key::overlaps));
+        return reportCache.invalidateIf(key -> reservations.stream().anyMatch(key::overlaps));
+    }
+
+    public int invalidate(ObjectId restaurantId) {
+        reportFlights.forgetIf(key -> key.restaurantId().equals(restaurantId));
+        return reportCache.invalidateIf(key -> key.restaurantId().equals(restaurantId));
+    }
+
+    public record Key(ObjectId restaurantId, UUID spaceId, LocalDateTime start, LocalDateTime end, long granularity) {
+
+        static Key of(OccupancyReport request) {
+            return new Key(request.getRestaurantId(), request.getSpaceId(), request.getStart(), request.getEnd(),
+                request.getGranularity());
+        }
+
+        // a restaurant-wide report covers every space, reservations without a space are never reported
+        boolean overlaps(Reservation reservation) {
+            return restaurantId.equals(reservation.getRestaurantId()) && reservation.getSpaceId() != null
+                && (spaceId == null || spaceId.equals(reservation.getSpaceId()))
+                && reservation.getStartTime().isBefore(end) && reservation.getEndTime().isAfter(start);
+        }
+    }
+}
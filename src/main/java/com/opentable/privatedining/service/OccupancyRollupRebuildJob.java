@@ -0,0 +1,163 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
+import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Repairs the occupancy rollups from the reservations, and the pyramid from the rollups, once at startup (which also
+// seeds them for an existing data set) and then periodically. Rollups drift when a rollup update fails after its
+// reservation was stored; pyramid buckets when two bookings of a day race or a space is removed. Only the days from
+// rollup-rebuild-lookback-days before today on are repaired, earlier days can no longer be booked, and only on the
+// node holding the job lease. In distributed mode a drifted slot is only corrected on the run after the one that
+// found it, so seeding an existing data set takes two runs there.
+@Component
+public class OccupancyRollupRebuildJob {
+
+    static final String JOB = "occupancy-rollup-rebuild";
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyRollupRebuildJob.class);
+
+    private final RestaurantService restaurantService;
+
+    private final ReservationRepository reservationRepository;
+
+    private final OccupancyRollupStore occupancyRollupStore;
+
+    private final OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    private final ReportingProperties reportingProperties;
+
+    private final ScheduledExecutorService rollupRebuildScheduler;
+
+    private final JobLeaseStore jobLeaseStore;
+
+    private final StripedLockPool spaceLocks;
+
+    private final BookingProperties bookingProperties;
+
+    // distributed mode: rollups off their reservations seen by the previous run, only those are corrected
+    private Set<Drift> suspected = new HashSet<>();
+
+    public OccupancyRollupRebuildJob(RestaurantService restaurantService, ReservationRepository reservationRepository,
+        OccupancyRollupStore occupancyRollupStore, OccupancyPyramidRefresher occupancyPyramidRefresher,
+        ReportingProperties reportingProperties, ScheduledExecutorService rollupRebuildScheduler,
+        JobLeaseStore jobLeaseStore, StripedLockPool spaceLocks, BookingProperties bookingProperties) {
+        this.restaurantService = restaurantService;
+        this.reservationRepository = reservationRepository;
+        this.occupancyRollupStore = occupancyRollupStore;
+        this.occupancyPyramidRefresher = occupancyPyramidRefresher;
+        this.reportingProperties = reportingProperties;
+        this.rollupRebuildScheduler = rollupRebuildScheduler;
+        this.jobLeaseStore = jobLeaseStore;
+        this.spaceLocks = spaceLocks;
+        this.bookingProperties = bookingProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedule() {
+        Duration interval = reportingProperties.getRollupRebuildInterval();
+        if (interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        rollupRebuildScheduler.scheduleWithFixedDelay(this::runSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // returns the number of slots which had drifted from the reservations, zero when another node holds the lease
+    public synchronized int rebuild() {
+        // outlives one interval so that the holder renews it before another node can take over
+        if (!jobLeaseStore.tryAcquire(JOB, reportingProperties.getRollupRebuildInterval().multipliedBy(2))) {
+            return 0;
+        }
+        LocalDate fromDay = LocalDate.now().minusDays(reportingProperties.getRollupRebuildLookbackDays());
+        LocalDateTime from = fromDay.atStartOfDay();
+        int drifted = 0;
+        Set<Drift> stillSuspected = new HashSet<>();
+        for (Restaurant restaurant : restaurantService.getAllRestaurants()) {
+            for (Space space : restaurant.getSpaces()) {
+                if (bookingProperties.getCapacityMode() == CapacityMode.DISTRIBUTED) {
+                    drifted += repairSeenTwice(restaurant, space, from, stillSuspected);
+                    continue;
+                }
+                // local and actor bookings write the reservation and increment the rollups under the same lock
+                ReentrantLock lock = spaceLocks.lock(space.getId());
+                try {
+                    drifted += occupancyRollupStore.repair(restaurant.getId(), space.getId(), from,
+                        reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            // on the refresher thread, after the repaired rollups; it drops the restaurant's cached reports
+            occupancyPyramidRefresher.rebuild(restaurant.getId(), fromDay);
+        }
+        suspected = stillSuspected;
+        if (drifted > 0) {
+            logger.warn("Occupancy rollups drifted from the reservations in {} slots, repaired", drifted);
+        }
+        return drifted;
+    }
+
+    // Distributed bookings take no lock: a booking stores its reservation and then increments the rollups, a
+    // cancellation deletes it and then decrements them, so any node's booking in flight looks like drift for a moment.
+    // A slot is only corrected when the previous run saw the same drift, with a compare-and-set on the value read
+    // before the reservations, so a rollup a booking changed in the meantime is left to the next run.
+    private int repairSeenTwice(Restaurant restaurant, Space space, LocalDateTime from, Set<Drift> stillSuspected) {
+        Map<LocalDateTime, Integer> actual = occupancyRollupStore.find(space.getId(), from);
+        Map<LocalDateTime, Integer> expected = SlotOccupancyStore.count(
+            reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from));
+        Set<LocalDateTime> slots = new TreeSet<>(actual.keySet());
+        slots.addAll(expected.keySet());
+        int drifted = 0;
+        for (LocalDateTime slotStart : slots) {
+            int expectedCount = expected.getOrDefault(slotStart, 0);
+            int actualCount = actual.getOrDefault(slotStart, 0);
+            if (slotStart.isBefore(from) || expectedCount == actualCount) {
+                continue;
+            }
+            drifted++;
+            Drift drift = new Drift(space.getId(), slotStart.toLocalDate(),
+                (int) (Duration.between(slotStart.toLocalDate().atStartOfDay(), slotStart).toMinutes()
+                    / Constant.BLOCK_INTERVAL), expectedCount, actualCount);
+            if (suspected.contains(drift)) {
+                occupancyRollupStore.compareAndSet(restaurant.getId(), space.getId(), slotStart, actualCount,
+                    expectedCount);
+            } else {
+                stillSuspected.add(drift);
+            }
+        }
+        return drifted;
+    }
+
+    // an exception would cancel every later run of the scheduled task
+    private void runSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Occupancy rollup rebuild failed", e);
+        }
+    }
+}
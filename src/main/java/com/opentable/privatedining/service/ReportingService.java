@@ -1,6 +1,11 @@
 package com.opentable.privatedining.service;
 
 import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OccupancyHeatmap;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.common.OccupancySweep;
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
 import com.opentable.privatedining.exception.InvalidReportingException;
 import com.opentable.privatedining.exception.RestaurantNotFoundException;
 import com.opentable.privatedining.exception.SpaceNotFoundException;
@@ -8,17 +13,34 @@ import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
 import com.opentable.privatedining.model.Reservation;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.BucketOccupancy;
+import com.opentable.privatedining.model.reporting.HeatmapData;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
+import com.opentable.privatedining.model.reporting.OccupancyChunk;
 import com.opentable.privatedining.model.reporting.OccupancyData;
-import com.opentable.privatedining.model.reporting.OccupancyPoint;
 import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.OccupancyReportStream;
+import com.opentable.privatedining.model.reporting.OccupancySeries;
+import com.opentable.privatedining.model.reporting.PortfolioReport;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
+import com.opentable.privatedining.repository.OccupancyPyramidStore;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 
@@ -28,156 +50,471 @@ public class ReportingService {
     private final RestaurantService restaurantService;
     private final ReservationService reservationService;
     private final OccupancyReportMapper occupancyReportMapper;
+    private final SpaceIndex spaceIndex;
+    private final ReportingProperties reportingProperties;
+    private final OccupancyRollupStore occupancyRollupStore;
+    private final OccupancyPyramidStore occupancyPyramidStore;
+    private final OccupancyReportCache occupancyReportCache;
+    private final ExecutorService reportSeriesExecutor;
 
     public ReportingService(RestaurantService restaurantService, ReservationService reservationService,
-        OccupancyReportMapper occupancyReportMapper) {
+        OccupancyReportMapper occupancyReportMapper, SpaceIndex spaceIndex, ReportingProperties reportingProperties,
+        OccupancyRollupStore occupancyRollupStore, OccupancyPyramidStore occupancyPyramidStore,
+        OccupancyReportCache occupancyReportCache, ExecutorService reportSeriesExecutor) {
         this.restaurantService = restaurantService;
         this.reservationService = reservationService;
         this.occupancyReportMapper = occupancyReportMapper;
+        this.spaceIndex = spaceIndex;
+        this.reportingProperties = reportingProperties;
+        this.occupancyRollupStore = occupancyRollupStore;
+        this.occupancyPyramidStore = occupancyPyramidStore;
+        this.occupancyReportCache = occupancyReportCache;
+        this.reportSeriesExecutor = reportSeriesExecutor;
     }
 
     public Optional<OccupancyReport> getOccupancyReport(OccupancyReport request) {
+        return getOccupancyReport(request, null);
+    }
+
+    // a null backend falls back to the configured one and is served from the report cache, all backends produce
+    // the same report; an explicitly requested backend is always computed so backends can be compared
+    public Optional<OccupancyReport> getOccupancyReport(OccupancyReport request, Backend backend) {
         validateParams(request);
 
-        validateExistence(request);
+        Restaurant restaurant = validateExistence(request.getRestaurantId(), request.getSpaceId());
 
-        return getReport(request);
+        if (backend != null) {
+            return getReport(request, restaurant, backend);
+        }
+        return occupancyReportCache.get(request,
+            key -> getReport(request, restaurant, reportingProperties.getBackend()));
     }
 
-    private Optional<OccupancyReport> getReport(OccupancyReport request) {
+    // validates the request and resolves its series right away, so errors surface before anything is written; the
+    // buckets are computed chunk by chunk in time order as the chunks are iterated and never cached
+    public OccupancyReportStream streamOccupancyReport(OccupancyReport request, Backend backend) {
+        validateParams(request);
+
+        Restaurant restaurant = validateExistence(request.getRestaurantId(), request.getSpaceId());
+        Backend reportBackend = backend == null ? reportingProperties.getBackend() : backend;
+        ReportGranularity level = ReportGranularity.ofMinutes(request.getGranularity()).get(); // validated earlier
+
+        List<OccupancySeries> series = new ArrayList<>();
+        List<Space> spaces;
+        if (request.getSpaceId() == null) {
+            spaces = restaurant.getSpaces();
+            series.add(new OccupancySeries(restaurant.getId().toHexString(), restaurant.getName(),
+                spaces.stream().mapToInt(Space::getMaxCapacity).sum()));
+        } else {
+            spaces = List.of(spaceIndex.find(restaurant, request.getSpaceId()).get()); // validated existence earlier
+        }
+        spaces.forEach(space -> series.add(new OccupancySeries(space.getId().toString(), space.getName(),
+            space.getMaxCapacity())));
+
+        long chunkBuckets = Math.max(1, reportingProperties.getStreamChunk().toMinutes() / level.getMinutes());
+        Iterator<OccupancyChunk> chunks = new Iterator<>() {
+
+            private LocalDateTime next = request.getStart();
+
+            @Override
+            public boolean hasNext() {
+                return next.isBefore(request.getEnd());
+            }
+
+            @Override
+            public OccupancyChunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocalDateTime chunkEnd = next.plusMinutes(chunkBuckets * level.getMinutes());
+                if (chunkEnd.isAfter(request.getEnd())) {
+                    chunkEnd = request.getEnd();
+                }
+                OccupancyReport chunk = new OccupancyReport(request.getRestaurantId(), request.getSpaceId(), next,
+                    chunkEnd, request.getGranularity(), null, null);
+                int buckets = (int) (Duration.between(next, chunkEnd).toMinutes() / level.getMinutes());
+                Series occupancy = occupancy(chunk, spaces, level, buckets, reportBackend);
+                List<OccupancyLevel> levels = new ArrayList<>(series.size());
+                if (request.getSpaceId() == null) {
+                    levels.add(occupancy.total());
+                }
+                levels.addAll(occupancy.spaces());
+                LocalDateTime chunkStart = next;
+                next = chunkEnd;
+                return new OccupancyChunk(chunkStart, levels);
+            }
+        };
+        return new OccupancyReportStream(request, series, chunks);
+    }
+
+    private Optional<OccupancyReport> getReport(OccupancyReport request, Restaurant restaurant, Backend backend) {
         ObjectId restaurantId = request.getRestaurantId();
         UUID spaceId = request.getSpaceId();
         LocalDateTime start = request.getStart();
         LocalDateTime end = request.getEnd();
-        Long granularity = request.getGranularity();
-
-        long minuteInterval = Duration.between(start, end).toMinutes();
-
-        // get the ceiling value of (minuteInterval / granularity)
-        long limit = (minuteInterval + granularity - 1) / granularity;
-        // cast limit to int, throw exception if overflow
-        // this is unlikely to happen in practice since it would require a very large time range, just being defensive
-        int intLimit;
-        try {
-            intLimit = Math.toIntExact(limit);
-        } catch (ArithmeticException e) {
-            throw new InvalidReportingException("given time range is too large");
-        }
+        ReportGranularity level = ReportGranularity.ofMinutes(request.getGranularity()).get(); // validated earlier
+        int intLimit = buckets(start, end, level);
 
         OccupancyReport response = occupancyReportMapper.copy(request);
 
         if (request.getSpaceId() == null) {
             // return restaurant-wide occupancy data with each space's occupancy included
-            List<Reservation> reservations = reservationService.getReservationByRestaurantAndOverlap(restaurantId,
-                start, end);
-            Restaurant restaurant = restaurantService.getRestaurantById(restaurantId)
-                .get(); // validated existence earlier
-            List<OccupancyPoint> restaurantPoints = new ArrayList<>(intLimit);
-            response.setSpaceData(new ArrayList<>(restaurant.getSpaces().size()));
-            for (Space space : restaurant.getSpaces()) {
-                List<Reservation> reservationsBySpace = reservations.stream()
-                    .filter(r -> r.getSpaceId().equals(space.getId()))
-                    .toList();
-                populateSpacePoint(request, space, intLimit, granularity, reservationsBySpace, response);
+            List<Space> spaces = restaurant.getSpaces();
+            Series series = occupancy(request, spaces, level, intLimit, backend);
+            response.setSpaceData(new ArrayList<>(spaces.size()));
+            for (int i = 0; i < spaces.size(); i++) {
+                Space space = spaces.get(i);
+                response.getSpaceData().add(new OccupancyData(space.getId().toString(), space.getName(),
+                    space.getMaxCapacity(), series.spaces().get(i)));
             }
-            populateRestaurantPoint(request, intLimit, granularity, response, restaurantPoints, restaurantId,
-                restaurant);
+            int totalCapacity = spaces.stream()
+                .mapToInt(Space::getMaxCapacity)
+                .sum();
+            response.setRestaurantData(new OccupancyData(restaurantId.toHexString(), restaurant.getName(),
+                totalCapacity, series.total()));
         } else {
             // return space-specific occupancy data
-            List<Reservation> reservations = reservationService.getReservationByRestaurantAndSpaceAndOverlap(
-                restaurantId, spaceId, start, end);
-            Space space = restaurantService.getSpaceById(restaurantId, spaceId).get(); // validated existence earlier
+            Space space = spaceIndex.find(restaurant, spaceId).get(); // validated existence earlier
+            Series series = occupancy(request, List.of(space), level, intLimit, backend);
             response.setSpaceData(new ArrayList<>(1));
-            populateSpacePoint(request, space, intLimit, granularity, reservations, response);
+            response.getSpaceData().add(new OccupancyData(space.getId().toString(), space.getName(),
+                space.getMaxCapacity(), series.spaces().get(0)));
         }
 
         return Optional.of(response);
     }
 
-    private void populateRestaurantPoint(OccupancyReport request, int intLimit, Long granularity,
-        OccupancyReport response, List<OccupancyPoint> restaurantPoints, ObjectId restaurantId, Restaurant restaurant) {
-        int totalCapacity = restaurant.getSpaces().stream()
-            .mapToInt(Space::getMaxCapacity)
-            .sum();
-        for (int i = 0; i < intLimit; i++) {
-            LocalDateTime slotStart = request.getStart().plusMinutes(i * granularity);
-            LocalDateTime slotEnd = slotStart.plusMinutes(granularity);
-            int finalI = i;
-            int totalOccupancy = response.getSpaceData().stream()
-                .mapToInt(spaceData -> spaceData.getPoints().get(finalI).getOccupancy())
-                .sum();
-            double occupancyRate = totalCapacity == 0 ? 0d : (double) totalOccupancy / totalCapacity;
-            restaurantPoints.add(new OccupancyPoint(slotStart, slotEnd, totalCapacity, totalOccupancy,
-                occupancyRate));
-        }
-        response.setRestaurantData(
-            new OccupancyData(restaurantId.toHexString(), restaurant.getName(), restaurantPoints));
-    }
-
-    private void populateSpacePoint(OccupancyReport request, Space space, int intLimit, Long granularity,
-        List<Reservation> reservationsBySpace, OccupancyReport response) {
-        OccupancyData occupancyDataBySpace = new OccupancyData(space.getId().toString(), space.getName(),
-            new ArrayList<>(intLimit));
-        for (int i = 0; i < intLimit; i++) {
-            LocalDateTime slotStart = request.getStart().plusMinutes(i * granularity);
-            LocalDateTime slotEnd = slotStart.plusMinutes(granularity);
-            int totalOccupancy = reservationsBySpace.stream()
-                .filter(r -> r.getStartTime().isBefore(slotEnd) && r.getEndTime().isAfter(slotStart))
-                .mapToInt(Reservation::getPartySize)
-                .sum();
+    // the half-hour series of the range, whole days, are computed heatmap-chunk at a time with the usual backends and
+    // folded into the heatmaps of the chunk's series before the next chunk is read; never cached
+    public HeatmapReport getHeatmapReport(HeatmapReport request, Backend backend) {
+        if (request.getRestaurantId() == null) {
+            throw new InvalidReportingException("parameters must not be null");
+        }
+        validateRange(request.getStart(), request.getEnd(), (long) ReportGranularity.DAILY.getMinutes());
 
-            OccupancyPoint point = new OccupancyPoint(slotStart, slotEnd, space.getMaxCapacity(),
-                totalOccupancy,
-                space.getMaxCapacity() == 0 ? 0d
-                    : (double) totalOccupancy / space.getMaxCapacity());
-            occupancyDataBySpace.getPoints().add(point);
+        Restaurant restaurant = validateExistence(request.getRestaurantId(), request.getSpaceId());
+        Backend reportBackend = backend == null ? reportingProperties.getBackend() : backend;
+        List<Space> spaces = request.getSpaceId() == null ? restaurant.getSpaces()
+            : List.of(spaceIndex.find(restaurant, request.getSpaceId()).get()); // validated existence earlier
+
+        HeatmapReport response = new HeatmapReport(request.getRestaurantId(), request.getSpaceId(),
+            request.getStart(), request.getEnd());
+        List<OccupancyHeatmap> heatmaps = new ArrayList<>(spaces.size());
+        response.setSpaceData(new ArrayList<>(spaces.size()));
+        for (Space space : spaces) {
+            OccupancyHeatmap heatmap = new OccupancyHeatmap();
+            heatmaps.add(heatmap);
+            response.getSpaceData().add(new HeatmapData(space.getId().toString(), space.getName(),
+                space.getMaxCapacity(), heatmap));
+        }
+        OccupancyHeatmap restaurantHeatmap = new OccupancyHeatmap();
+        if (request.getSpaceId() == null) {
+            response.setRestaurantData(new HeatmapData(restaurant.getId().toHexString(), restaurant.getName(),
+                spaces.stream().mapToInt(Space::getMaxCapacity).sum(), restaurantHeatmap));
+        }
+
+        long chunkDays = Math.max(1, reportingProperties.getHeatmapChunk().toDays());
+        for (LocalDateTime from = request.getStart(); from.isBefore(request.getEnd()); ) {
+            LocalDateTime to = from.plusDays(chunkDays);
+            if (to.isAfter(request.getEnd())) {
+                to = request.getEnd();
+            }
+            OccupancyReport chunk = new OccupancyReport(request.getRestaurantId(), request.getSpaceId(), from, to,
+                null, null);
+            Series series = occupancy(chunk, spaces, ReportGranularity.HALF_HOURLY,
+                buckets(from, to, ReportGranularity.HALF_HOURLY), reportBackend);
+            for (int i = 0; i < spaces.size(); i++) {
+                heatmaps.get(i).add(from, series.spaces().get(i));
+            }
+            if (request.getSpaceId() == null) {
+                restaurantHeatmap.add(from, series.total());
+            }
+            from = to;
         }
-        response.getSpaceData().add(occupancyDataBySpace);
+        return response;
     }
 
-    private void validateExistence(OccupancyReport request) {
-        // Validate that the restaurant/space exists
+    // restaurants selected by id or by cuisine type; the reservations of all of them are read with one query and the
+    // restaurants computed in groups on the report executor, each group summing its restaurants into a partial
+    // portfolio total
+    public PortfolioReport getPortfolioReport(PortfolioReport request) {
+        validatePortfolioParams(request);
+        List<Restaurant> restaurants = portfolioRestaurants(request);
+        if (restaurants.size() > reportingProperties.getPortfolioMaxRestaurants()) {
+            throw new InvalidReportingException("a portfolio report covers at most "
+                + reportingProperties.getPortfolioMaxRestaurants() + " restaurants");
+        }
+
+        LocalDateTime start = request.getStart();
+        LocalDateTime end = request.getEnd();
+        ReportGranularity level = ReportGranularity.ofMinutes(request.getGranularity()).get(); // validated earlier
+        int slotCount = buckets(start, end, level) * level.getSlots();
+        List<ObjectId> restaurantIds = restaurants.stream().map(Restaurant::getId).toList();
+        Map<ObjectId, List<Reservation>> reservations = new HashMap<>();
+        for (Reservation reservation : reservationService.getReservationByRestaurantsAndOverlap(restaurantIds, start,
+            end)) {
+            reservations.computeIfAbsent(reservation.getRestaurantId(), k -> new ArrayList<>()).add(reservation);
+        }
+
+        long spaceSlots = (long) slotCount * restaurants.stream().mapToInt(r -> r.getSpaces().size()).sum();
+        int tasks = spaceSlots >= reportingProperties.getParallelThreshold()
+            ? Math.max(1, Math.min(reportingProperties.getParallelThreads(), restaurants.size())) : 1;
+        List<Callable<Group>> groups = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            List<Restaurant> group = restaurants.subList(restaurants.size() * t / tasks,
+                restaurants.size() * (t + 1) / tasks);
+            groups.add(() -> {
+                List<OccupancyLevel> levels = new ArrayList<>(group.size());
+                int[] total = new int[slotCount];
+                for (Restaurant restaurant : group) {
+                    int[] occupancy = OccupancySweep.of(restaurant.getSpaces(),
+                        reservations.getOrDefault(restaurant.getId(), List.of()), start, slotCount,
+                        Constant.BLOCK_INTERVAL).total();
+                    OccupancySweep.add(total, occupancy);
+                    levels.add(coarsen(OccupancyLevel.of(occupancy), level));
+                }
+                return new Group(levels, total);
+            });
+        }
+
+        PortfolioReport response = new PortfolioReport(restaurantIds, request.getCuisineType(), start, end,
+            request.getGranularity());
+        response.setRestaurantData(new ArrayList<>(restaurants.size()));
+        int[] total = new int[slotCount];
+        int portfolioCapacity = 0;
+        int index = 0;
+        for (Group group : run(groups)) {
+            OccupancySweep.add(total, group.total());
+            for (OccupancyLevel occupancy : group.levels()) {
+                Restaurant restaurant = restaurants.get(index++);
+                int capacity = restaurant.getSpaces().stream().mapToInt(Space::getMaxCapacity).sum();
+                portfolioCapacity += capacity;
+                response.getRestaurantData().add(new OccupancyData(restaurant.getId().toHexString(),
+                    restaurant.getName(), capacity, occupancy));
+            }
+        }
+        response.setPortfolioData(new OccupancyData(null, "Portfolio", portfolioCapacity,
+            coarsen(OccupancyLevel.of(total), level)));
+        return response;
+    }
+
+    // in the order of the requested ids, an unknown id fails the whole report
+    private List<Restaurant> portfolioRestaurants(PortfolioReport request) {
+        if (request.getRestaurantIds() == null || request.getRestaurantIds().isEmpty()) {
+            return restaurantService.getRestaurantsByCuisineType(request.getCuisineType());
+        }
+        Set<ObjectId> ids = new LinkedHashSet<>(request.getRestaurantIds());
+        if (ids.size() > reportingProperties.getPortfolioMaxRestaurants()) {
+            throw new InvalidReportingException("a portfolio report covers at most "
+                + reportingProperties.getPortfolioMaxRestaurants() + " restaurants");
+        }
+        Map<ObjectId, Restaurant> found = new HashMap<>();
+        restaurantService.getRestaurantsByIds(ids).forEach(restaurant -> found.put(restaurant.getId(), restaurant));
+        List<Restaurant> restaurants = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            Restaurant restaurant = found.get(id);
+            if (restaurant == null) {
+                throw new RestaurantNotFoundException(id);
+            }
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    // coarse levels come straight from the stored pyramid with the rollup backend, the other backends build them
+    // from the half-hour slots the same way the pyramid is built, each level from the one below
+    private Series occupancy(OccupancyReport request, List<Space> spaces, ReportGranularity level, int buckets,
+        Backend backend) {
+        if (backend == Backend.ROLLUP && level != ReportGranularity.HALF_HOURLY) {
+            return pyramid(request, spaces, level, buckets);
+        }
+        int slotCount = buckets * level.getSlots();
+        OccupancySweep sweep = slots(request, spaces, slotCount, backend);
+        int tasks = Math.min(reportingProperties.getParallelThreads(), spaces.size());
+        if (tasks > 1 && (long) spaces.size() * slotCount >= reportingProperties.getParallelThreshold()) {
+            return parallel(sweep, slotCount, level, tasks);
+        }
+        List<OccupancyLevel> spaceLevels = new ArrayList<>(spaces.size());
+        for (int i = 0; i < spaces.size(); i++) {
+            spaceLevels.add(coarsen(OccupancyLevel.of(sweep.space(i)), level));
+        }
+        return new Series(spaceLevels, coarsen(OccupancyLevel.of(sweep.total()), level));
+    }
+
+    // the spaces split into one contiguous group per task on the report executor, each task finishing the series of
+    // its spaces and summing them into a partial restaurant total; the partials are then added up here
+    private Series parallel(OccupancySweep sweep, int slotCount, ReportGranularity level, int tasks) {
+        List<Callable<Group>> groups = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int from = sweep.size() * t / tasks;
+            int to = sweep.size() * (t + 1) / tasks;
+            groups.add(() -> {
+                List<OccupancyLevel> levels = new ArrayList<>(to - from);
+                int[] total = new int[slotCount];
+                for (int i = from; i < to; i++) {
+                    int[] occupancy = sweep.space(i);
+                    OccupancySweep.add(total, occupancy);
+                    levels.add(coarsen(OccupancyLevel.of(occupancy), level));
+                }
+                return new Group(levels, total);
+            });
+        }
+
+        List<OccupancyLevel> spaceLevels = new ArrayList<>(sweep.size());
+        int[] total = new int[slotCount];
+        for (Group group : run(groups)) {
+            spaceLevels.addAll(group.levels());
+            OccupancySweep.add(total, group.total());
+        }
+        return new Series(spaceLevels, coarsen(OccupancyLevel.of(total), level));
+    }
+
+    // a single task runs on the calling thread, more on the report executor; results in the order of the tasks
+    private <T> List<T> run(List<Callable<T>> tasks) {
+        try {
+            if (tasks.size() == 1) {
+                return List.of(tasks.get(0).call());
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : reportSeriesExecutor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Occupancy report interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Occupancy report failed", e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Occupancy report failed", e);
+        }
+    }
+
+    private static OccupancyLevel coarsen(OccupancyLevel slots, ReportGranularity level) {
+        return level.below().map(below -> coarsen(slots, below).coarsen(level.factor())).orElse(slots);
+    }
+
+    private Series pyramid(OccupancyReport request, List<Space> spaces, ReportGranularity level, int buckets) {
+        Map<UUID, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < spaces.size(); i++) {
+            indexes.put(spaces.get(i).getId(), i);
+        }
+        int[][] peaks = new int[spaces.size() + 1][buckets];
+        long[][] totals = new long[spaces.size() + 1][buckets];
+        for (BucketOccupancy bucket : occupancyPyramidStore.find(request.getRestaurantId(), request.getSpaceId(),
+            level, request.getStart(), request.getEnd())) {
+            // the last row is the restaurant total, buckets of removed spaces are ignored
+            Integer index = bucket.spaceId() == null ? Integer.valueOf(spaces.size()) : indexes.get(bucket.spaceId());
+            if (index != null) {
+                peaks[index][bucket.bucket()] = bucket.peak();
+                totals[index][bucket.bucket()] = bucket.total();
+            }
+        }
+        List<OccupancyLevel> levels = new ArrayList<>(spaces.size() + 1);
+        for (int i = 0; i <= spaces.size(); i++) {
+            levels.add(OccupancyLevel.of(peaks[i], totals[i], level.getSlots()));
+        }
+        return new Series(levels.subList(0, spaces.size()), levels.get(spaces.size()));
+    }
+
+    private OccupancySweep slots(OccupancyReport request, List<Space> spaces, int slots, Backend backend) {
         ObjectId restaurantId = request.getRestaurantId();
+        UUID spaceId = request.getSpaceId();
+        LocalDateTime start = request.getStart();
+        LocalDateTime end = request.getEnd();
+        if (backend == Backend.ROLLUP) {
+            // one rollup document per space and non-empty block, independent of the number of reservations
+            return OccupancySweep.ofSlots(spaces, occupancyRollupStore.find(restaurantId, spaceId, start, end),
+                slots);
+        }
+        if (backend == Backend.AGGREGATION) {
+            return OccupancySweep.ofSlots(spaces, reservationService.getOccupancyBySlot(restaurantId, spaceId, start,
+                end, slots, Constant.BLOCK_INTERVAL), slots);
+        }
+        List<Reservation> reservations = spaceId == null
+            ? reservationService.getReservationByRestaurantAndOverlap(restaurantId, start, end)
+            : reservationService.getReservationByRestaurantAndSpaceAndOverlap(restaurantId, spaceId, start, end);
+        return OccupancySweep.of(spaces, reservations, start, slots, Constant.BLOCK_INTERVAL);
+    }
+
+    private Restaurant validateExistence(ObjectId restaurantId, UUID spaceId) {
+        // Validate that the restaurant/space exists
         Optional<Restaurant> restaurantOpt = restaurantService.getRestaurantById(restaurantId);
         if (restaurantOpt.isEmpty()) {
             throw new RestaurantNotFoundException(restaurantId);
         }
 
-        if (request.getSpaceId() != null) {
-            Restaurant restaurant = restaurantOpt.get();
-            // Assume space IDs are unique within a restaurant
-            Map<UUID, Space> idToSpace = restaurant.getSpaces().stream()
-                .collect(Collectors.toMap(Space::getId, s -> s, (s1, s2) -> s1));
-            UUID spaceId = request.getSpaceId();
-            Optional<Space> optSpace = Optional.ofNullable(idToSpace.get(spaceId));
-            if (optSpace.isEmpty()) {
-                throw new SpaceNotFoundException(restaurantId, spaceId);
-            }
+        Restaurant restaurant = restaurantOpt.get();
+        if (spaceId != null && spaceIndex.find(restaurant, spaceId).isEmpty()) {
+            throw new SpaceNotFoundException(restaurantId, spaceId);
         }
+        return restaurant;
     }
 
     private void validateParams(OccupancyReport request) {
         // Validation null checks
-        if (request.getRestaurantId() == null || request.getStart() == null || request.getEnd() == null
-            || request.getGranularity() == null) {
+        if (request.getRestaurantId() == null) {
+            throw new InvalidReportingException("parameters must not be null");
+        }
+        validateRange(request.getStart(), request.getEnd(), request.getGranularity());
+    }
+
+    private void validatePortfolioParams(PortfolioReport request) {
+        boolean byIds = request.getRestaurantIds() != null && !request.getRestaurantIds().isEmpty();
+        boolean byCuisine = request.getCuisineType() != null && !request.getCuisineType().isBlank();
+        if (byIds == byCuisine) {
+            throw new InvalidReportingException("either restaurant ids or a cuisine type must be given");
+        }
+        validateRange(request.getStart(), request.getEnd(), request.getGranularity());
+    }
+
+    private void validateRange(LocalDateTime start, LocalDateTime end, Long granularity) {
+        // Validation null checks
+        if (start == null || end == null || granularity == null) {
             throw new InvalidReportingException("parameters must not be null");
         }
 
         // Validation start before end
-        if (!request.getStart().isBefore(request.getEnd())) {
+        if (!start.isBefore(end)) {
             throw new InvalidReportingException("start time must be before end time");
         }
 
-        // Validation time block alignment
-        if (request.getStart().getMinute() % Constant.BLOCK_INTERVAL != 0
-            || request.getEnd().getMinute() % Constant.BLOCK_INTERVAL != 0) {
-            throw new InvalidReportingException("start and end times must be half-hour or hourly aligned");
+        // Validation granularity
+        Optional<ReportGranularity> level = ReportGranularity.ofMinutes(granularity);
+        if (level.isEmpty()) {
+            throw new InvalidReportingException("granularity must be 30, 60, 1440 or 10080 minutes");
+        }
+
+        // Validation time block alignment, weeks start on Monday
+        if (!level.get().isAligned(start) || !level.get().isAligned(end)) {
+            throw new InvalidReportingException("start and end times must be aligned to the granularity");
         }
+    }
 
-        // Validation granularity
-        if (request.getGranularity() <= 0 || request.getGranularity() % Constant.BLOCK_INTERVAL != 0) {
-            throw new InvalidReportingException(
-                "granularity must be positive and divisible by " + Constant.BLOCK_INTERVAL);
+    // start and end are aligned to the level, the range holds a whole number of buckets
+    private static int buckets(LocalDateTime start, LocalDateTime end, ReportGranularity level) {
+        long limit = Duration.between(start, end).toMinutes() / Constant.BLOCK_INTERVAL;
+        // cast the number of half-hour slots behind the buckets to int, throw exception if overflow
+        // this is unlikely to happen in practice since it would require a very large time range, just being defensive
+        try {
+            return Math.toIntExact(limit) / level.getSlots();
+        } catch (ArithmeticException e) {
+            throw new InvalidReportingException("given time range is too large");
         }
     }
+
+    // levels of a group of spaces (or restaurants) and their partial total in half-hour slots
+    private record Group(List<OccupancyLevel> levels, int[] total) {
+
+    }
+
+    // per-space levels in the order of the spaces, and the restaurant total
+    private record Series(List<OccupancyLevel> spaces, OccupancyLevel total) {
+
+    }
 }
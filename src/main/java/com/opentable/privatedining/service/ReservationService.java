@@ -1,23 +1,56 @@
 package com.opentable.privatedining.service;
 
+import com.mongodb.MongoBulkWriteException;
 import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OperatingHours;
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
 import com.opentable.privatedining.exception.InvalidReservationException;
 import com.opentable.privatedining.exception.ReservationConflictException;
 import com.opentable.privatedining.exception.RestaurantNotFoundException;
 import com.opentable.privatedining.exception.SpaceNotFoundException;
+import com.opentable.privatedining.model.BatchReservationResult;
+import com.opentable.privatedining.model.BatchReservationResult.Status;
 import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationPage;
+import com.opentable.privatedining.model.ReservationQuery;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
 import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.BookingMailboxes.BookingRequest;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import com.opentable.privatedining.service.SlotOccupancyLedger.SlotConflict;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,20 +58,60 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class ReservationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
     private final ReservationRepository reservationRepository;
 
     private final RestaurantService restaurantService;
 
+    private final SlotOccupancyLedger occupancyLedger;
+
+    private final SlotOccupancyStore slotOccupancyStore;
+
+    private final OccupancyRollupStore occupancyRollupStore;
+
+    private final OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    private final BookingProperties bookingProperties;
+
     // single-JVM safety lock
-    private final ConcurrentHashMap<UUID, ReentrantLock> spaceLocks = new ConcurrentHashMap<>();
+    private final StripedLockPool spaceLocks;
 
-    public ReservationService(ReservationRepository reservationRepository, RestaurantService restaurantService) {
+    private final BookingMailboxes bookingMailboxes;
+
+    private final SpaceIndex spaceIndex;
+
+    private final OccupancyReportCache occupancyReportCache;
+
+    // epoch day the ledger last released its past days on, the first booking of a new day releases them
+    private final AtomicLong ledgerDay = new AtomicLong();
+
+    public ReservationService(ReservationRepository reservationRepository, RestaurantService restaurantService,
+        SlotOccupancyLedger occupancyLedger, SlotOccupancyStore slotOccupancyStore,
+        OccupancyRollupStore occupancyRollupStore, OccupancyPyramidRefresher occupancyPyramidRefresher,
+        BookingProperties bookingProperties, StripedLockPool spaceLocks, BookingMailboxes bookingMailboxes,
+        SpaceIndex spaceIndex, OccupancyReportCache occupancyReportCache) {
         this.reservationRepository = reservationRepository;
         this.restaurantService = restaurantService;
+        this.occupancyLedger = occupancyLedger;
+        this.slotOccupancyStore = slotOccupancyStore;
+        this.occupancyRollupStore = occupancyRollupStore;
+        this.occupancyPyramidRefresher = occupancyPyramidRefresher;
+        this.bookingProperties = bookingProperties;
+        this.spaceLocks = spaceLocks;
+        this.bookingMailboxes = bookingMailboxes;
+        this.spaceIndex = spaceIndex;
+        this.occupancyReportCache = occupancyReportCache;
+    }
+
+    public ReservationPage getReservations(ReservationQuery query) {
+        return findPage(null, null, query);
     }
 
-    public List<Reservation> getAllReservations() {
-        return reservationRepository.findAll();
+    // every reservation from a database cursor, memory stays constant however many there are;
+    // the caller must close the stream
+    public Stream<Reservation> streamReservations() {
+        return reservationRepository.streamAll(bookingProperties.getExportBatchSize());
     }
 
     public Optional<Reservation> getReservationById(ObjectId id) {
@@ -46,6 +119,14 @@ public class ReservationService {
     }
 
     public Reservation createReservation(Reservation reservation) {
+        if (isDistributed()) {
+            // capacity is enforced atomically by MongoDB, no JVM lock required
+            return createWithSlotCounters(reservation);
+        }
+        if (bookingProperties.getCapacityMode() == CapacityMode.ACTOR) {
+            return awaitBooking(submitReservation(reservation));
+        }
+
         // make sure space id is valid to obtain a lock key
         UUID spaceId = reservation.getSpaceId();
         if (spaceId == null) {
@@ -54,8 +135,7 @@ public class ReservationService {
         }
 
         // Assume space ids are unique across restaurants
-        ReentrantLock lock = spaceLocks.computeIfAbsent(spaceId, k -> new ReentrantLock());
-        lock.lock();
+        ReentrantLock lock = spaceLocks.lock(spaceId);
 
         try {
             final int maxRetryAttempts = 3;
@@ -82,18 +162,312 @@ public class ReservationService {
             throw new IllegalStateException("Failed to create reservation after multiple attempts.");
         } finally {
             lock.unlock();
-            // clean up the lock if no longer needed
-            spaceLocks.computeIfPresent(spaceId, (k, v) -> v.isLocked() || v.hasQueuedThreads() ? v : null);
         }
     }
 
+    // Queues the reservation for the writer of its space. Request rules are checked right away, capacity is checked
+    // and the reservation stored by the writer together with the other bookings queued for the same space.
+    public CompletableFuture<Reservation> submitReservation(Reservation reservation) {
+        Space space = validateRequest(reservation);
+        return bookingMailboxes.submit(reservation, space, this::commitGroup);
+    }
+
+    private Reservation awaitBooking(CompletableFuture<Reservation> booking) {
+        try {
+            return booking.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // runs on the space writer, all requests belong to the same space
+    private void commitGroup(List<BookingRequest> group) {
+        Reservation first = group.get(0).reservation();
+        ReentrantLock lock = spaceLocks.lock(first.getSpaceId());
+        try {
+            loadLedger(first.getRestaurantId(), first.getSpaceId(), group.stream().map(BookingRequest::reservation)
+                .toList());
+            List<BookingRequest> accepted = new ArrayList<>();
+            for (BookingRequest request : group) {
+                try {
+                    bookInLedger(request.reservation(), request.space());
+                    accepted.add(request);
+                } catch (ReservationConflictException | InvalidReservationException e) {
+                    request.result().completeExceptionally(e);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            List<Reservation> saved;
+            try {
+                saved = reservationRepository.insert(withIds(accepted.stream().map(BookingRequest::reservation)
+                    .toList()));
+            } catch (RuntimeException e) {
+                Set<ObjectId> storedIds = compensateFailedInsert(accepted.stream().map(BookingRequest::reservation)
+                    .toList(), e, unstored -> unstored.forEach(occupancyLedger::remove)).orElse(List.of()).stream()
+                    .map(Reservation::getId).collect(Collectors.toSet());
+                // every request of the group gets its own outcome, the stored ones are booked
+                for (BookingRequest request : accepted) {
+                    if (storedIds.contains(request.reservation().getId())) {
+                        request.result().complete(request.reservation());
+                    } else {
+                        request.result().completeExceptionally(e);
+                    }
+                }
+                return;
+            }
+            recordCreated(saved);
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).result().complete(saved.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Reservation createWithSlotCounters(Reservation reservation) {
+        reserveSlotCounters(reservation, validateRequest(reservation));
+
+        Reservation saved;
+        try {
+            saved = reservationRepository.save(reservation);
+        } catch (RuntimeException e) {
+            // give the capacity back if the reservation itself could not be stored
+            releaseSlotCounters(reservation);
+            throw e;
+        }
+        recordCreated(List.of(saved));
+        return saved;
+    }
+
+    private void reserveSlotCounters(Reservation reservation, Space space) {
+        UUID spaceId = reservation.getSpaceId();
+        LocalDateTime startTime = reservation.getStartTime();
+        LocalDateTime endTime = reservation.getEndTime();
+        int partySize = reservation.getPartySize();
+
+        Optional<LocalDateTime> fullSlot = slotOccupancyStore.tryReserve(reservation.getRestaurantId(), spaceId,
+            startTime, endTime, partySize, space.getMinCapacity(), space.getMaxCapacity());
+        if (fullSlot.isPresent()) {
+            int proposedPartySize = slotOccupancyStore.getOccupancy(spaceId, fullSlot.get()) + partySize;
+            throw new ReservationConflictException(reservation.getRestaurantId(), spaceId, startTime, endTime,
+                space.getMinCapacity(), space.getMaxCapacity(), proposedPartySize, fullSlot.get());
+        }
+    }
+
+    private void releaseSlotCounters(Reservation reservation) {
+        slotOccupancyStore.release(reservation.getSpaceId(), reservation.getStartTime(), reservation.getEndTime(),
+            reservation.getPartySize());
+    }
+
+    // Books many reservations at once. Every space is locked once for the whole batch, its occupancy is read with a
+    // single query over the combined window of its items and all accepted items are stored with one bulk insert.
+    // Items are validated in request order, so a later item conflicts with an earlier one of the same batch.
+    public List<BatchReservationResult> createReservations(List<Reservation> reservations) {
+        if (reservations.isEmpty() || reservations.size() > bookingProperties.getMaxBatchSize()) {
+            throw new InvalidReservationException(
+                "Batch must contain between 1 and " + bookingProperties.getMaxBatchSize() + " reservations.");
+        }
+
+        BatchReservationResult[] results = new BatchReservationResult[reservations.size()];
+        Map<ObjectId, Optional<Restaurant>> restaurants = new HashMap<>();
+        Map<UUID, List<Integer>> itemsBySpace = new LinkedHashMap<>();
+        Space[] spaces = new Space[reservations.size()];
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            try {
+                spaces[i] = validateRequest(reservation,
+                    id -> restaurants.computeIfAbsent(id, restaurantService::getRestaurantById));
+                itemsBySpace.computeIfAbsent(reservation.getSpaceId(), k -> new ArrayList<>()).add(i);
+            } catch (InvalidReservationException | RestaurantNotFoundException | SpaceNotFoundException e) {
+                results[i] = rejected(i, reservation, e);
+            }
+        }
+
+        if (!itemsBySpace.isEmpty()) {
+            if (isDistributed()) {
+                createBatchWithSlotCounters(reservations, spaces, itemsBySpace, results);
+            } else {
+                createBatchWithLedger(reservations, spaces, itemsBySpace, results);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void createBatchWithLedger(List<Reservation> reservations, Space[] spaces,
+        Map<UUID, List<Integer>> itemsBySpace, BatchReservationResult[] results) {
+        List<ReentrantLock> locks = spaceLocks.lockAll(itemsBySpace.keySet());
+        try {
+            List<Integer> accepted = new ArrayList<>();
+            for (Map.Entry<UUID, List<Integer>> entry : itemsBySpace.entrySet()) {
+                List<Integer> items = entry.getValue();
+                loadLedger(reservations.get(items.get(0)).getRestaurantId(), entry.getKey(),
+                    items.stream().map(reservations::get).toList());
+
+                for (int i : items) {
+                    try {
+                        bookInLedger(reservations.get(i), spaces[i]);
+                        accepted.add(i);
+                    } catch (ReservationConflictException | InvalidReservationException e) {
+                        results[i] = rejected(i, reservations.get(i), e);
+                    }
+                }
+            }
+            insertAccepted(reservations, accepted, results, unstored -> unstored.forEach(occupancyLedger::remove));
+        } finally {
+            spaceLocks.unlockAll(locks);
+        }
+    }
+
+    private void createBatchWithSlotCounters(List<Reservation> reservations, Space[] spaces,
+        Map<UUID, List<Integer>> itemsBySpace, BatchReservationResult[] results) {
+        List<Integer> accepted = new ArrayList<>();
+        try {
+            for (List<Integer> items : itemsBySpace.values()) {
+                for (int i : items) {
+                    try {
+                        reserveSlotCounters(reservations.get(i), spaces[i]);
+                        accepted.add(i);
+                    } catch (ReservationConflictException e) {
+                        results[i] = rejected(i, reservations.get(i), e);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            accepted.forEach(i -> releaseSlotCounters(reservations.get(i)));
+            throw e;
+        }
+        insertAccepted(reservations, accepted, results,
+            unstored -> unstored.forEach(this::releaseSlotCounters));
+    }
+
+    // compensation gives the capacity of the accepted reservations that were not stored back; a failed insert still
+    // gives every item its own result, the stored ones are created
+    private void insertAccepted(List<Reservation> reservations, List<Integer> accepted,
+        BatchReservationResult[] results, Consumer<List<Reservation>> compensation) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Reservation> toInsert = withIds(accepted.stream().map(reservations::get).toList());
+        List<Reservation> saved;
+        try {
+            saved = reservationRepository.insert(toInsert);
+        } catch (RuntimeException e) {
+            logger.warn("Batch insert of {} reservations failed", toInsert.size(), e);
+            Optional<List<Reservation>> stored = compensateFailedInsert(toInsert, e, compensation);
+            Set<ObjectId> storedIds = stored.orElse(List.of()).stream().map(Reservation::getId)
+                .collect(Collectors.toSet());
+            // the ids were assigned before the insert, the client can look an unknown outcome up by id
+            String message = stored.isPresent() ? "Reservation could not be stored: " + e.getMessage()
+                : "Reservation may not have been stored, look it up by id before retrying: " + e.getMessage();
+            for (int i : accepted) {
+                results[i] = storedIds.contains(reservations.get(i).getId())
+                    ? new BatchReservationResult(i, Status.CREATED, reservations.get(i), null)
+                    : new BatchReservationResult(i, Status.FAILED, reservations.get(i), message);
+            }
+            return;
+        }
+        recordCreated(saved);
+        for (int n = 0; n < accepted.size(); n++) {
+            int i = accepted.get(n);
+            results[i] = new BatchReservationResult(i, Status.CREATED, saved.get(n), null);
+        }
+    }
+
+    // ids are assigned up front so that a failed insert can be checked for what it stored
+    private static List<Reservation> withIds(List<Reservation> reservations) {
+        reservations.stream().filter(reservation -> reservation.getId() == null)
+            .forEach(reservation -> reservation.setId(new ObjectId()));
+        return reservations;
+    }
+
+    // An ordered insert stops at its first failed document and keeps the ones before it. When the failure does not
+    // say where it stopped, e.g. the connection dropped before the reply, the ids are looked up. The stored
+    // reservations are recorded, the others compensated; if even the lookup fails nothing is given back, capacity is
+    // rather kept than handed out twice, and OccupancyLedgerCheckJob or SlotCounterCheckJob releases it later.
+    // Returns the stored reservations, empty when unknown.
+    private Optional<List<Reservation>> compensateFailedInsert(List<Reservation> inserted, RuntimeException e,
+        Consumer<List<Reservation>> compensation) {
+        Set<ObjectId> storedIds;
+        int firstFailed = firstFailedWrite(e);
+        try {
+            storedIds = firstFailed >= 0
+                ? inserted.subList(0, firstFailed).stream().map(Reservation::getId).collect(Collectors.toSet())
+                : reservationRepository.findAllById(inserted.stream().map(Reservation::getId).toList()).stream()
+                    .map(Reservation::getId).collect(Collectors.toSet());
+        } catch (RuntimeException lookupFailure) {
+            logger.warn("Insert of {} reservations failed and what it stored is unknown, their capacity stays "
+                + "taken until the ledger or slot counters are repaired", inserted.size(), lookupFailure);
+            return Optional.empty();
+        }
+        List<Reservation> stored = inserted.stream().filter(reservation -> storedIds.contains(reservation.getId()))
+            .toList();
+        if (!stored.isEmpty()) {
+            recordCreated(stored);
+        }
+        compensation.accept(inserted.stream().filter(reservation -> !storedIds.contains(reservation.getId()))
+            .toList());
+        return Optional.of(stored);
+    }
+
+    private static int firstFailedWrite(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulk && !bulk.getWriteErrors().isEmpty()) {
+                return bulk.getWriteErrors().get(0).getIndex();
+            }
+        }
+        return -1;
+    }
+
+    private static BatchReservationResult rejected(int index, Reservation reservation, RuntimeException e) {
+        Status status;
+        if (e instanceof ReservationConflictException) {
+            status = Status.CONFLICT;
+        } else if (e instanceof RestaurantNotFoundException || e instanceof SpaceNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else {
+            status = Status.INVALID;
+        }
+        return new BatchReservationResult(index, status, reservation, e.getMessage());
+    }
+
+    private boolean isDistributed() {
+        return bookingProperties.getCapacityMode() == CapacityMode.DISTRIBUTED;
+    }
+
     @Transactional
     private Reservation saveWithValidation(Reservation reservation) {
         validate(reservation);
-        return reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        occupancyLedger.add(saved);
+        recordCreated(List.of(saved));
+        return saved;
     }
 
     private void validate(Reservation reservation) {
+        Space space = validateRequest(reservation);
+
+        // Check for concurrent reservation conflicts
+        if (!isValidConcurrentReservation(reservation.getRestaurantId(), reservation.getSpaceId(),
+            space.getMinCapacity(), space.getMaxCapacity(), reservation.getStartTime(), reservation.getEndTime(),
+            reservation.getPartySize())) {
+            throw new ReservationConflictException(
+                reservation.getRestaurantId(), reservation.getSpaceId(),
+                reservation.getStartTime(), reservation.getEndTime(), space.getMinCapacity(), space.getMaxCapacity(),
+                reservation.getPartySize(), reservation.getStartTime());
+        }
+    }
+
+    // every rule except capacity, returns the space being booked
+    private Space validateRequest(Reservation reservation) {
+        return validateRequest(reservation, restaurantService::getRestaurantById);
+    }
+
+    private Space validateRequest(Reservation reservation, Function<ObjectId, Optional<Restaurant>> restaurants) {
         // null checks
         if (reservation.getRestaurantId() == null || reservation.getSpaceId() == null
             || reservation.getStartTime() == null || reservation.getEndTime() == null
@@ -120,33 +494,23 @@ public class ReservationService {
         }
 
         // Validate that the restaurant exists
-        Optional<Restaurant> restaurantOpt =
-            restaurantService.getRestaurantById(reservation.getRestaurantId());
+        Optional<Restaurant> restaurantOpt = restaurants.apply(reservation.getRestaurantId());
         if (restaurantOpt.isEmpty()) {
             throw new RestaurantNotFoundException(reservation.getRestaurantId());
         }
 
         Restaurant restaurant = restaurantOpt.get();
-        Space space = restaurant.getSpaces().stream().filter(s -> s.getId().equals(reservation.getSpaceId()))
-            .findFirst()
+        Space space = spaceIndex.find(restaurant, reservation.getSpaceId())
             .orElseThrow(() -> new SpaceNotFoundException(reservation.getRestaurantId(), reservation.getSpaceId()));
 
         // Check if the reservation is within restaurant operating hours
-        if (!isWithinOperatingHours(reservation.getStartTime(), reservation.getEndTime(), restaurant.getStartTime(),
+        if (!OperatingHours.isWithin(reservation.getStartTime(), reservation.getEndTime(), restaurant.getStartTime(),
             restaurant.getEndTime())) {
             throw new InvalidReservationException(restaurant.getStartTime(), restaurant.getEndTime(),
                 reservation.getStartTime(), reservation.getEndTime());
         }
 
-        // Check for concurrent reservation conflicts
-        if (!isValidConcurrentReservation(reservation.getRestaurantId(), reservation.getSpaceId(),
-            space.getMinCapacity(), space.getMaxCapacity(), reservation.getStartTime(), reservation.getEndTime(),
-            reservation.getPartySize())) {
-            throw new ReservationConflictException(
-                reservation.getRestaurantId(), reservation.getSpaceId(),
-                reservation.getStartTime(), reservation.getEndTime(), space.getMinCapacity(), space.getMaxCapacity(),
-                reservation.getPartySize(), reservation.getStartTime());
-        }
+        return space;
     }
 
     public List<Reservation> getReservationByRestaurantAndSpaceAndOverlap(ObjectId restaurantId, UUID spaceId,
@@ -159,58 +523,63 @@ public class ReservationService {
         return reservationRepository.findByRestaurantIdAndOverlap(restaurantId, startTime, endTime);
     }
 
-    private boolean isValidConcurrentReservation(ObjectId restaurantId, UUID spaceId, int spaceMinCapacity,
-        int spaceMaxCapacity, LocalDateTime startTime, LocalDateTime endTime, int partySize) {
-        List<Reservation> reservations = getReservationByRestaurantAndSpaceAndOverlap(restaurantId, spaceId, startTime,
-            endTime);
+    // per-slot headcount summed by the database, a null spaceId covers every space of the restaurant
+    public List<SlotOccupancy> getOccupancyBySlot(ObjectId restaurantId, UUID spaceId, LocalDateTime start,
+        LocalDateTime end, int slots, long slotMinutes) {
+        return reservationRepository.sumPartySizeBySlot(restaurantId, spaceId, start, end, slots, slotMinutes);
+    }
 
-        if (reservations.isEmpty()) {
-            // no overlapping reservations found
-            if (partySize > spaceMaxCapacity || partySize < spaceMinCapacity) {
-                throw new ReservationConflictException(restaurantId, spaceId, startTime, endTime, spaceMinCapacity,
-                    spaceMaxCapacity, partySize, startTime);
-            }
-        }
+    public List<Reservation> getReservationByRestaurantsAndOverlap(Collection<ObjectId> restaurantIds,
+        LocalDateTime startTime, LocalDateTime endTime) {
+        return reservationRepository.findByRestaurantIdInAndOverlap(restaurantIds, startTime, endTime);
+    }
 
+    private boolean isValidConcurrentReservation(ObjectId restaurantId, UUID spaceId, int spaceMinCapacity,
+        int spaceMaxCapacity, LocalDateTime startTime, LocalDateTime endTime, int partySize) {
         // currently the time slots are blocked in half-hour increments
         long minuteInterval = Duration.between(startTime, endTime).toMinutes();
         if (minuteInterval % Constant.BLOCK_INTERVAL != 0) {
             // this should never happen due to earlier validation and our assumption, but just in case
             throw new InvalidReservationException("Reservation times must be in half-hour increments.");
         }
-        for (int i = 0; i < (int) (minuteInterval / Constant.BLOCK_INTERVAL); i++) {
-            LocalDateTime slotStart = startTime.plusMinutes((long) i * Constant.BLOCK_INTERVAL);
-            LocalDateTime slotEnd = slotStart.plusMinutes(Constant.BLOCK_INTERVAL);
-            List<Reservation> slotRes = reservations.stream()
-                .filter(res -> res.getStartTime().isBefore(slotEnd) && res.getEndTime().isAfter(slotStart)).toList();
-            int proposedPartySize = slotRes.stream().mapToInt(Reservation::getPartySize).sum() + partySize;
-            if (proposedPartySize > spaceMaxCapacity || proposedPartySize < spaceMinCapacity) {
-                throw new ReservationConflictException(restaurantId, spaceId, startTime, endTime, spaceMinCapacity,
-                    spaceMaxCapacity, proposedPartySize, slotStart);
-            }
+
+        loadLedger(restaurantId, spaceId, startTime, endTime);
+
+        Optional<SlotConflict> conflict = occupancyLedger.findConflict(spaceId, startTime, endTime, partySize,
+            spaceMinCapacity, spaceMaxCapacity);
+        if (conflict.isPresent()) {
+            throw new ReservationConflictException(restaurantId, spaceId, startTime, endTime, spaceMinCapacity,
+                spaceMaxCapacity, conflict.get().proposedOccupancy(), conflict.get().slotStart());
         }
 
         return true;
     }
 
-    private boolean isWithinOperatingHours(LocalDateTime rsvtStart, LocalDateTime rsvtEnd, LocalTime restStart,
-        LocalTime restEnd) {
-        // normal same-day hours (e.g. 09:00 - 17:00)
-        if (!restStart.isAfter(restEnd)) {
-            return rsvtStart.toLocalDate().equals(rsvtEnd.toLocalDate()) && !rsvtStart.toLocalTime().isBefore(restStart)
-                && !rsvtEnd.toLocalTime().isAfter(restEnd);
-        }
-        // overnight hours (e.g. 18:00 - 02:00)
-        if (!rsvtStart.toLocalTime().isBefore(restStart)) {
-            // restaurant opens the same day as reservation starts
-            LocalDateTime restStartDt = LocalDateTime.of(rsvtStart.toLocalDate(), restStart);
-            LocalDateTime restEndDt = LocalDateTime.of(rsvtStart.toLocalDate().plusDays(1), restEnd);
-            return !rsvtStart.isBefore(restStartDt) && !rsvtEnd.isAfter(restEndDt);
-        } else {
-            // restaurant opened the day before reservation starts
-            LocalDateTime restStartDt = LocalDateTime.of(rsvtStart.toLocalDate().minusDays(1), restStart);
-            LocalDateTime restEndDt = LocalDateTime.of(rsvtStart.toLocalDate(), restEnd);
-            return !rsvtStart.isBefore(restStartDt) && !rsvtEnd.isAfter(restEndDt);
+    // checks capacity and counts the reservation right away so that reservations checked after it see it,
+    // the caller holds the space lock and removes it again if it cannot be stored
+    private void bookInLedger(Reservation reservation, Space space) {
+        isValidConcurrentReservation(reservation.getRestaurantId(), reservation.getSpaceId(), space.getMinCapacity(),
+            space.getMaxCapacity(), reservation.getStartTime(), reservation.getEndTime(), reservation.getPartySize());
+        occupancyLedger.add(reservation);
+    }
+
+    // one query covering every given reservation of the space
+    private void loadLedger(ObjectId restaurantId, UUID spaceId, List<Reservation> reservations) {
+        LocalDateTime windowStart = reservations.stream().map(Reservation::getStartTime)
+            .min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime windowEnd = reservations.stream().map(Reservation::getEndTime)
+            .max(LocalDateTime::compareTo).orElseThrow();
+        loadLedger(restaurantId, spaceId, windowStart, windowEnd);
+    }
+
+    // hydrate the ledger with whole days on first touch, afterwards it is kept current by create/delete
+    private void loadLedger(ObjectId restaurantId, UUID spaceId, LocalDateTime startTime, LocalDateTime endTime) {
+        evictPastLedgerDays();
+        if (!occupancyLedger.isLoaded(spaceId, startTime, endTime)) {
+            LocalDateTime dayStart = startTime.toLocalDate().atStartOfDay();
+            LocalDateTime dayEnd = endTime.minusNanos(1).toLocalDate().plusDays(1).atStartOfDay();
+            occupancyLedger.load(spaceId, startTime, endTime,
+                getReservationByRestaurantAndSpaceAndOverlap(restaurantId, spaceId, dayStart, dayEnd));
         }
     }
 
@@ -218,22 +587,171 @@ public class ReservationService {
     public boolean deleteReservation(ObjectId id) {
         Optional<Reservation> existingReservation = reservationRepository.findById(id);
         if (existingReservation.isPresent()) {
-            reservationRepository.deleteById(id);
+            Reservation reservation = existingReservation.get();
+            if (isDistributed()) {
+                // only the node that actually removed the document gives the capacity back
+                if (reservationRepository.removeById(id) > 0) {
+                    slotOccupancyStore.release(reservation.getSpaceId(), reservation.getStartTime(),
+                        reservation.getEndTime(), reservation.getPartySize());
+                    recordDeleted(reservation);
+                }
+                return true;
+            }
+            if (reservation.getSpaceId() == null) {
+                reservationRepository.deleteById(id);
+                return true;
+            }
+            // serialize with bookings of the same space so the ledger never misses a release
+            ReentrantLock lock = spaceLocks.lock(reservation.getSpaceId());
+            try {
+                reservationRepository.deleteById(id);
+                occupancyLedger.remove(reservation);
+                recordDeleted(reservation);
+            } finally {
+                lock.unlock();
+            }
             return true;
         }
         return false;
     }
 
-    public List<Reservation> getReservationsByRestaurant(ObjectId restaurantId) {
-        return reservationRepository.findAll().stream()
-            .filter(reservation -> reservation.getRestaurantId().equals(restaurantId))
-            .toList();
+    // The rollups, the pyramid above them (refreshed in the background, the space lock may still be held here) and
+    // cached reports follow the stored reservations. The embedded
+    // single-node MongoDB has no multi-document transactions, so a failed rollup update keeps the booking and is
+    // left to OccupancyRollupRebuildJob.
+    private void recordCreated(List<Reservation> saved) {
+        try {
+            occupancyRollupStore.add(saved);
+            occupancyPyramidRefresher.refresh(saved);
+        } catch (RuntimeException e) {
+            logger.warn("Occupancy rollups not updated for {} new reservations", saved.size(), e);
+        }
+        occupancyReportCache.invalidate(saved);
     }
 
-    public List<Reservation> getReservationsBySpace(ObjectId restaurantId, UUID spaceId) {
-        return reservationRepository.findAll().stream()
-            .filter(reservation -> reservation.getRestaurantId().equals(restaurantId) &&
-                reservation.getSpaceId().equals(spaceId))
-            .toList();
+    private void recordDeleted(Reservation deleted) {
+        try {
+            occupancyRollupStore.remove(List.of(deleted));
+            occupancyPyramidRefresher.refresh(List.of(deleted));
+        } catch (RuntimeException e) {
+            logger.warn("Occupancy rollups not updated for deleted reservation {}", deleted.getId(), e);
+        }
+        occupancyReportCache.invalidate(List.of(deleted));
+    }
+
+    // past days can no longer be booked; only one caller per day walks the ledger
+    private void evictPastLedgerDays() {
+        LocalDate today = LocalDate.now();
+        long evictedOn = ledgerDay.get();
+        if (evictedOn < today.toEpochDay() && ledgerDay.compareAndSet(evictedOn, today.toEpochDay())) {
+            occupancyLedger.evictBefore(today);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOccupancyLedger() {
+        // actor writers hydrate the days they book on first use, distributed bookings do not use the ledger
+        if (bookingProperties.getCapacityMode() != CapacityMode.LOCAL) {
+            return;
+        }
+        // Bookings are already being served: every stripe is held from reading the reservations until the ledger is
+        // swapped, so a booking can neither be missed by the read nor be counted in a day the rebuild then replaces.
+        List<ReentrantLock> locks = spaceLocks.lockAllStripes();
+        try {
+            // reservations of past days can no longer change, only bookable days are kept in memory
+            LocalDate today = LocalDate.now();
+            List<Reservation> reservations = reservationRepository.findByEndTimeAfter(today.atStartOfDay());
+            occupancyLedger.rebuild(reservations, today);
+            ledgerDay.set(today.toEpochDay());
+            logger.info("Occupancy ledger rebuilt from {} reservations", reservations.size());
+        } finally {
+            spaceLocks.unlockAll(locks);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSlotCounters() {
+        // counters are shared by every node, only seed them once for an existing data set
+        if (!isDistributed() || !slotOccupancyStore.isEmpty()) {
+            return;
+        }
+        List<Reservation> reservations = reservationRepository.findByEndTimeAfter(
+            LocalDate.now().atStartOfDay());
+        slotOccupancyStore.overwrite(reservations);
+        logger.info("Slot occupancy counters seeded from {} reservations", reservations.size());
+    }
+
+    // compare every hydrated day of the ledger with the database, optionally overwriting drifted days
+    public List<Drift> verifyOccupancyLedger(boolean repair) {
+        evictPastLedgerDays();
+        List<Drift> drifts = new ArrayList<>();
+        for (Map.Entry<UUID, List<LocalDate>> entry : occupancyLedger.loadedDays().entrySet()) {
+            UUID spaceId = entry.getKey();
+            ReentrantLock lock = spaceLocks.lock(spaceId);
+            try {
+                for (LocalDate day : entry.getValue()) {
+                    List<Reservation> reservations = reservationRepository.findBySpaceIdAndOverlap(spaceId,
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                    int[] expected = SlotOccupancyLedger.occupancyOf(reservations, day);
+                    Optional<int[]> actual = occupancyLedger.snapshot(spaceId, day);
+                    if (actual.isEmpty()) {
+                        // evicted in the meantime
+                        continue;
+                    }
+                    boolean drifted = false;
+                    for (int slot = 0; slot < expected.length; slot++) {
+                        if (expected[slot] != actual.get()[slot]) {
+                            drifts.add(new Drift(spaceId, day, slot, expected[slot], actual.get()[slot]));
+                            drifted = true;
+                        }
+                    }
+                    if (drifted && repair) {
+                        occupancyLedger.replace(spaceId, day, expected);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (!drifts.isEmpty()) {
+            logger.warn("Occupancy ledger drifted from the database in {} slots (repaired: {})", drifts.size(),
+                repair);
+        }
+        return drifts;
+    }
+
+    public ReservationPage getReservationsByRestaurant(ObjectId restaurantId, ReservationQuery query) {
+        if (restaurantService.getRestaurantById(restaurantId).isEmpty()) {
+            throw new RestaurantNotFoundException(restaurantId);
+        }
+        return findPage(restaurantId, null, query);
+    }
+
+    public ReservationPage getReservationsBySpace(ObjectId restaurantId, UUID spaceId, ReservationQuery query) {
+        Restaurant restaurant = restaurantService.getRestaurantById(restaurantId)
+            .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
+        if (spaceIndex.find(restaurant, spaceId).isEmpty()) {
+            throw new SpaceNotFoundException(restaurantId, spaceId);
+        }
+        return findPage(restaurantId, spaceId, query);
+    }
+
+    private ReservationPage findPage(ObjectId restaurantId, UUID spaceId, ReservationQuery query) {
+        int limit = query.getLimit() != null ? query.getLimit() : bookingProperties.getDefaultPageSize();
+        if (limit < 1 || limit > bookingProperties.getMaxPageSize()) {
+            throw new InvalidReservationException(
+                "Page size must be between 1 and " + bookingProperties.getMaxPageSize() + ".");
+        }
+        if (query.getFrom() != null && query.getTo() != null && !query.getFrom().isBefore(query.getTo())) {
+            throw new InvalidReservationException("Start of the date range must be before its end.");
+        }
+
+        // one extra row tells whether another page follows
+        List<Reservation> reservations = reservationRepository.findPage(restaurantId, spaceId, query, limit + 1);
+        if (reservations.size() <= limit) {
+            return new ReservationPage(reservations, null);
+        }
+        List<Reservation> page = reservations.subList(0, limit);
+        return new ReservationPage(page, ReservationCursor.of(page.get(limit - 1)));
     }
-}
\ No newline at end of file
+}
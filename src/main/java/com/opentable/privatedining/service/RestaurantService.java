@@ -1,11 +1,15 @@
 package com.opentable.privatedining.service;
 
+import com.opentable.privatedining.common.BoundedCache;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
 import com.opentable.privatedining.repository.RestaurantRepository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,20 +19,52 @@ public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
 
-    public RestaurantService(RestaurantRepository restaurantRepository) {
+    // shared instances, callers must not modify the restaurants they get from the cache
+    private final BoundedCache<ObjectId, Restaurant> restaurantCache;
+
+    private final SpaceIndex spaceIndex;
+
+    // reports list the spaces with their capacity, any change to the restaurant drops its reports
+    private final OccupancyReportCache occupancyReportCache;
+
+    // the restaurant totals of the pyramid cover the current spaces
+    private final OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    public RestaurantService(RestaurantRepository restaurantRepository,
+        BoundedCache<ObjectId, Restaurant> restaurantCache, SpaceIndex spaceIndex,
+        OccupancyReportCache occupancyReportCache, OccupancyPyramidRefresher occupancyPyramidRefresher) {
         this.restaurantRepository = restaurantRepository;
+        this.restaurantCache = restaurantCache;
+        this.spaceIndex = spaceIndex;
+        this.occupancyReportCache = occupancyReportCache;
+        this.occupancyPyramidRefresher = occupancyPyramidRefresher;
     }
 
     public List<Restaurant> getAllRestaurants() {
         return restaurantRepository.findAll();
     }
 
+    public List<Restaurant> getRestaurantsWithSpaceFor(int partySize) {
+        return restaurantRepository.findBySpacesMaxCapacityGreaterThanEqual(partySize);
+    }
+
+    // one query for all of them, unknown ids are left out
+    public List<Restaurant> getRestaurantsByIds(Collection<ObjectId> ids) {
+        return restaurantRepository.findAllById(ids);
+    }
+
+    public List<Restaurant> getRestaurantsByCuisineType(String cuisineType) {
+        return restaurantRepository.findByCuisineTypeIgnoreCase(cuisineType);
+    }
+
     public Optional<Restaurant> getRestaurantById(ObjectId id) {
-        return restaurantRepository.findById(id);
+        return restaurantCache.get(id, this::loadRestaurant);
     }
 
     public Restaurant createRestaurant(Restaurant restaurant) {
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        spaceIndex.index(saved);
+        return saved;
     }
 
     @Transactional
@@ -36,7 +72,14 @@ public class RestaurantService {
         Optional<Restaurant> existingRestaurant = restaurantRepository.findById(id);
         if (existingRestaurant.isPresent()) {
             restaurant.setId(id);
-            return Optional.of(restaurantRepository.save(restaurant));
+            Restaurant saved = restaurantRepository.save(restaurant);
+            restaurantCache.invalidate(id);
+            occupancyReportCache.invalidate(id);
+            spaceIndex.index(saved);
+            if (!spaceIds(existingRestaurant.get()).equals(spaceIds(saved))) {
+                occupancyPyramidRefresher.rebuild(saved.getId());
+            }
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -46,6 +89,9 @@ public class RestaurantService {
         Optional<Restaurant> existingRestaurant = restaurantRepository.findById(id);
         if (existingRestaurant.isPresent()) {
             restaurantRepository.deleteById(id);
+            restaurantCache.invalidate(id);
+            occupancyReportCache.invalidate(id);
+            spaceIndex.remove(id);
             return true;
         }
         return false;
@@ -57,7 +103,12 @@ public class RestaurantService {
         if (restaurantOpt.isPresent()) {
             Restaurant restaurant = restaurantOpt.get();
             restaurant.getSpaces().add(space);
-            return Optional.of(restaurantRepository.save(restaurant));
+            Restaurant saved = restaurantRepository.save(restaurant);
+            restaurantCache.invalidate(restaurantId);
+            occupancyReportCache.invalidate(restaurantId);
+            spaceIndex.index(saved);
+            occupancyPyramidRefresher.rebuild(saved.getId());
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -68,22 +119,28 @@ public class RestaurantService {
         if (restaurantOpt.isPresent()) {
             Restaurant restaurant = restaurantOpt.get();
             restaurant.getSpaces().removeIf(space -> space.getId().equals(spaceId));
-            return Optional.of(restaurantRepository.save(restaurant));
+            Restaurant saved = restaurantRepository.save(restaurant);
+            restaurantCache.invalidate(restaurantId);
+            occupancyReportCache.invalidate(restaurantId);
+            spaceIndex.index(saved);
+            occupancyPyramidRefresher.rebuild(saved.getId());
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
 
+    // the restaurant lookup is served by the cache, it keeps the index as fresh as the cached restaurant
     public Optional<Space> getSpaceById(ObjectId restaurantId, UUID spaceId) {
-        Optional<Restaurant> restaurantOpt = restaurantRepository.findById(restaurantId);
-        if (restaurantOpt.isPresent()) {
-            return restaurantOpt.get().getSpaces().stream()
-                .filter(space -> space.getId().equals(spaceId))
-                .findFirst();
-        }
-        return Optional.empty();
+        return getRestaurantById(restaurantId).flatMap(restaurant -> spaceIndex.find(restaurant, spaceId));
+    }
+
+    private static Set<UUID> spaceIds(Restaurant restaurant) {
+        return restaurant.getSpaces().stream().map(Space::getId).collect(Collectors.toSet());
     }
 
-    public boolean spaceExistsInRestaurant(ObjectId restaurantId, UUID spaceId) {
-        return getSpaceById(restaurantId, spaceId).isPresent();
+    private Optional<Restaurant> loadRestaurant(ObjectId id) {
+        Optional<Restaurant> restaurant = restaurantRepository.findById(id);
+        restaurant.ifPresent(spaceIndex::index);
+        return restaurant;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Compares the distributed slot counters of today and later with the reservations and repairs drifted slots, on the
+// node holding the job lease. Counters drift when a node dies between reserving them and storing the reservation, or
+// between deleting a reservation and releasing them. Each slot is corrected with a compare-and-set on the value it
+// was read with, so a counter a booking changed in the meantime is left to the next check.
+@Component
+public class SlotCounterCheckJob {
+
+    static final String JOB = "slot-counter-check";
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotCounterCheckJob.class);
+
+    private final RestaurantService restaurantService;
+
+    private final ReservationRepository reservationRepository;
+
+    private final SlotOccupancyStore slotOccupancyStore;
+
+    private final BookingProperties bookingProperties;
+
+    private final ScheduledExecutorService slotCounterCheckScheduler;
+
+    private final JobLeaseStore jobLeaseStore;
+
+    // counters above their reservations seen by the previous check, only those are lowered
+    private Set<Drift> suspected = new HashSet<>();
+
+    public SlotCounterCheckJob(RestaurantService restaurantService, ReservationRepository reservationRepository,
+        SlotOccupancyStore slotOccupancyStore, BookingProperties bookingProperties,
+        ScheduledExecutorService slotCounterCheckScheduler, JobLeaseStore jobLeaseStore) {
+        this.restaurantService = restaurantService;
+        this.reservationRepository = reservationRepository;
+        this.slotOccupancyStore = slotOccupancyStore;
+        this.bookingProperties = bookingProperties;
+        this.slotCounterCheckScheduler = slotCounterCheckScheduler;
+        this.jobLeaseStore = jobLeaseStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedule() {
+        Duration interval = bookingProperties.getSlotCounterCheckInterval();
+        if (bookingProperties.getCapacityMode() != CapacityMode.DISTRIBUTED || interval.isZero()
+            || interval.isNegative()) {
+            return;
+        }
+        // the first check runs after one interval, startup seeding covers an empty collection
+        slotCounterCheckScheduler.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    // Counters below their reservations are raised right away: a booking reserves its counters before it stores
+    // the reservation, so a check can never see the reservation without the counter. Counters above them are
+    // lowered only when the previous check saw the same drift: a booking between reserving and storing, or a
+    // cancellation between deleting and releasing, looks the same for a moment. Returns the drifted slots.
+    public synchronized List<Drift> check(boolean repair) {
+        if (!jobLeaseStore.tryAcquire(JOB, bookingProperties.getSlotCounterCheckInterval().multipliedBy(2))) {
+            return List.of();
+        }
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        List<Drift> drifts = new ArrayList<>();
+        Set<Drift> stillSuspected = new HashSet<>();
+        int repaired = 0;
+        for (Restaurant restaurant : restaurantService.getAllRestaurants()) {
+            for (Space space : restaurant.getSpaces()) {
+                // counters first: a booking racing the check then shows as a counter below its reservations,
+                // which the compare-and-set rejects because the counter has moved
+                Map<LocalDateTime, Integer> actual = slotOccupancyStore.find(space.getId(), from);
+                Map<LocalDateTime, Integer> expected = SlotOccupancyStore.count(
+                    reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from));
+                Set<LocalDateTime> slots = new TreeSet<>(actual.keySet());
+                slots.addAll(expected.keySet());
+                for (LocalDateTime slotStart : slots) {
+                    int expectedCount = expected.getOrDefault(slotStart, 0);
+                    int actualCount = actual.getOrDefault(slotStart, 0);
+                    if (slotStart.isBefore(from) || expectedCount == actualCount) {
+                        continue;
+                    }
+                    Drift drift = new Drift(space.getId(), slotStart.toLocalDate(),
+                        (int) (Duration.between(slotStart.toLocalDate().atStartOfDay(), slotStart).toMinutes()
+                            / Constant.BLOCK_INTERVAL), expectedCount, actualCount);
+                    drifts.add(drift);
+                    if (!repair) {
+                        continue;
+                    }
+                    if (expectedCount > actualCount || suspected.contains(drift)) {
+                        repaired += slotOccupancyStore.compareAndSet(restaurant.getId(), space.getId(), slotStart,
+                            actualCount, expectedCount) ? 1 : 0;
+                    } else {
+                        stillSuspected.add(drift);
+                    }
+                }
+            }
+        }
+        suspected = stillSuspected;
+        if (!drifts.isEmpty()) {
+            logger.warn("Slot counters drifted from the reservations in {} slots, {} repaired", drifts.size(),
+                repaired);
+        }
+        return drifts;
+    }
+
+    // an exception would cancel every later run of the scheduled task
+    private void runSafely() {
+        try {
+            check(true);
+        } catch (RuntimeException e) {
+            logger.error("Slot counter check failed", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.model.Reservation;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+// In-memory running headcount per space and slot, bucketed by day.
+// A day bucket is either absent (not hydrated yet) or holds the complete occupancy of that day.
+@Component
+public class SlotOccupancyLedger {
+
+    public static final int SLOTS_PER_DAY = (int) (Duration.ofDays(1).toMinutes() / Constant.BLOCK_INTERVAL);
+
+    private final ConcurrentHashMap<UUID, SpaceSlots> spaces = new ConcurrentHashMap<>();
+
+    public boolean isLoaded(UUID spaceId, LocalDateTime start, LocalDateTime end) {
+        SpaceSlots slots = spaces.get(spaceId);
+        return slots != null && slots.isLoaded(firstDay(start), lastDay(end));
+    }
+
+    // hydrate the days covered by [start, end) that are not loaded yet; reservations must contain every
+    // reservation of the space overlapping those whole days
+    public void load(UUID spaceId, LocalDateTime start, LocalDateTime end, Collection<Reservation> reservations) {
+        spaces.computeIfAbsent(spaceId, k -> new SpaceSlots())
+            .hydrate(firstDay(start), lastDay(end), reservations);
+    }
+
+    public void add(Reservation reservation) {
+        apply(reservation, reservation.getPartySize());
+    }
+
+    public void remove(Reservation reservation) {
+        apply(reservation, -reservation.getPartySize());
+    }
+
+    // returns the first slot whose proposed occupancy breaks the min/max capacity, the range must be loaded
+    public Optional<SlotConflict> findConflict(UUID spaceId, LocalDateTime start, LocalDateTime end, int partySize,
+        int minCapacity, int maxCapacity) {
+        SpaceSlots slots = spaces.get(spaceId);
+        if (slots == null || !slots.isLoaded(firstDay(start), lastDay(end))) {
+            throw new IllegalStateException("Occupancy ledger is not loaded for space " + spaceId);
+        }
+        return slots.findConflict(start, end, partySize, minCapacity, maxCapacity);
+    }
+
+    // drop everything and rebuild from reservations ending after the start of the given day
+    public void rebuild(Collection<Reservation> reservations, LocalDate fromDay) {
+        spaces.clear();
+        long from = fromDay.toEpochDay();
+        for (Reservation reservation : reservations) {
+            if (reservation.getSpaceId() == null || reservation.getPartySize() == null) {
+                continue;
+            }
+            spaces.computeIfAbsent(reservation.getSpaceId(), k -> new SpaceSlots())
+                .rebuildAdd(reservation, from);
+        }
+    }
+
+    // release day buckets that can no longer be booked
+    public void evictBefore(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        spaces.values().forEach(slots -> slots.evictBefore(epochDay));
+    }
+
+    public Map<UUID, List<LocalDate>> loadedDays() {
+        Map<UUID, List<LocalDate>> loaded = new HashMap<>();
+        spaces.forEach((spaceId, slots) -> {
+            List<LocalDate> days = slots.days();
+            if (!days.isEmpty()) {
+                loaded.put(spaceId, days);
+            }
+        });
+        return loaded;
+    }
+
+    // copy of the headcount of a loaded day, empty if the day is not hydrated
+    public Optional<int[]> snapshot(UUID spaceId, LocalDate day) {
+        SpaceSlots slots = spaces.get(spaceId);
+        return slots == null ? Optional.empty() : slots.snapshot(day.toEpochDay());
+    }
+
+    public void replace(UUID spaceId, LocalDate day, int[] occupancy) {
+        spaces.computeIfAbsent(spaceId, k -> new SpaceSlots()).replace(day.toEpochDay(), occupancy);
+    }
+
+    // headcount of the given reservations per slot of a single day, the same bucketing as the ledger itself
+    public static int[] occupancyOf(Collection<Reservation> reservations, LocalDate day) {
+        int[] occupancy = new int[SLOTS_PER_DAY];
+        long epochDay = day.toEpochDay();
+        for (Reservation reservation : reservations) {
+            forEachSlot(reservation, (d, slot) -> {
+                if (d == epochDay) {
+                    occupancy[slot] += reservation.getPartySize();
+                }
+            });
+        }
+        return occupancy;
+    }
+
+    private void apply(Reservation reservation, int delta) {
+        SpaceSlots slots = spaces.get(reservation.getSpaceId());
+        if (slots != null) {
+            // days which are not hydrated yet will pick the change up from the database
+            slots.apply(reservation, delta);
+        }
+    }
+
+    private static long firstDay(LocalDateTime start) {
+        return start.toLocalDate().toEpochDay();
+    }
+
+    private static long lastDay(LocalDateTime end) {
+        // end is exclusive, a reservation ending at midnight does not touch the next day
+        return end.minusNanos(1).toLocalDate().toEpochDay();
+    }
+
+    private static int slotOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / Constant.BLOCK_INTERVAL;
+    }
+
+    private static LocalDateTime floorToSlot(LocalDateTime time) {
+        return time.toLocalDate().atStartOfDay().plusMinutes((long) slotOf(time) * Constant.BLOCK_INTERVAL);
+    }
+
+    private static void forEachSlot(Reservation reservation, SlotConsumer consumer) {
+        LocalDateTime slotStart = floorToSlot(reservation.getStartTime());
+        while (slotStart.isBefore(reservation.getEndTime())) {
+            consumer.accept(slotStart.toLocalDate().toEpochDay(), slotOf(slotStart));
+            slotStart = slotStart.plusMinutes(Constant.BLOCK_INTERVAL);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotConsumer {
+
+        void accept(long epochDay, int slot);
+    }
+
+    public record SlotConflict(LocalDateTime slotStart, int proposedOccupancy) {
+
+    }
+
+    public record Drift(UUID spaceId, LocalDate day, int slot, int expected, int actual) {
+
+    }
+
+    private static final class SpaceSlots {
+
+        private final Map<Long, int[]> days = new HashMap<>();
+
+        synchronized boolean isLoaded(long firstDay, long lastDay) {
+            for (long day = firstDay; day <= lastDay; day++) {
+                if (!days.containsKey(day)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized void hydrate(long firstDay, long lastDay, Collection<Reservation> reservations) {
+            List<Long> fresh = new ArrayList<>();
+            for (long day = firstDay; day <= lastDay; day++) {
+                if (!days.containsKey(day)) {
+                    days.put(day, new int[SLOTS_PER_DAY]);
+                    fresh.add(day);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+            for (Reservation reservation : reservations) {
+                forEachSlot(reservation, (day, slot) -> {
+                    if (fresh.contains(day)) {
+                        days.get(day)[slot] += reservation.getPartySize();
+                    }
+                });
+            }
+        }
+
+        synchronized void rebuildAdd(Reservation reservation, long fromDay) {
+            forEachSlot(reservation, (day, slot) -> {
+                if (day >= fromDay) {
+                    days.computeIfAbsent(day, k -> new int[SLOTS_PER_DAY])[slot] += reservation.getPartySize();
+                }
+            });
+        }
+
+        synchronized void apply(Reservation reservation, int delta) {
+            forEachSlot(reservation, (day, slot) -> {
+                int[] occupancy = days.get(day);
+                if (occupancy != null) {
+                    occupancy[slot] += delta;
+                }
+            });
+        }
+
+        synchronized Optional<SlotConflict> findConflict(LocalDateTime start, LocalDateTime end, int partySize,
+            int minCapacity, int maxCapacity) {
+            LocalDateTime slotStart = floorToSlot(start);
+            while (slotStart.isBefore(end)) {
+                int proposed = days.get(slotStart.toLocalDate().toEpochDay())[slotOf(slotStart)] + partySize;
+                if (proposed > maxCapacity || proposed < minCapacity) {
+                    return Optional.of(new SlotConflict(slotStart, proposed));
+                }
+                slotStart = slotStart.plusMinutes(Constant.BLOCK_INTERVAL);
+            }
+            return Optional.empty();
+        }
+
+        synchronized void evictBefore(long epochDay) {
+            days.keySet().removeIf(day -> day < epochDay);
+        }
+
+        synchronized List<LocalDate> days() {
+            return days.keySet().stream().sorted().map(LocalDate::ofEpochDay).toList();
+        }
+
+        synchronized Optional<int[]> snapshot(long epochDay) {
+            int[] occupancy = days.get(epochDay);
+            return occupancy == null ? Optional.empty() : Optional.of(Arrays.copyOf(occupancy, occupancy.length));
+        }
+
+        synchronized void replace(long epochDay, int[] occupancy) {
+            days.put(epochDay, Arrays.copyOf(occupancy, SLOTS_PER_DAY));
+        }
+    }
+}
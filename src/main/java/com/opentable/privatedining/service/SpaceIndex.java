@@ -0,0 +1,78 @@
+package com.opentable.privatedining.service;
+
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+// spaceId -> (restaurantId, space) for every restaurant loaded or written through this node.
+// Restaurants are re-indexed whenever their document is (re)loaded, so the index is never older than the
+// restaurant cache.
+@Component
+public class SpaceIndex {
+
+    private final ConcurrentHashMap<UUID, SpaceLocation> locations = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<ObjectId, Set<UUID>> spacesByRestaurant = new ConcurrentHashMap<>();
+
+    // resolve a space of the given restaurant, only scans the spaces when the index does not know the restaurant
+    public Optional<Space> find(Restaurant restaurant, UUID spaceId) {
+        SpaceLocation location = locations.get(spaceId);
+        if (location != null && location.restaurantId().equals(restaurant.getId())) {
+            return Optional.of(location.space());
+        }
+        Optional<Space> space = restaurant.getSpaces().stream()
+            .filter(s -> s.getId().equals(spaceId))
+            .findFirst();
+        if (space.isPresent()) {
+            index(restaurant);
+        }
+        return space;
+    }
+
+    // replace every entry of the restaurant with its current spaces
+    public void index(Restaurant restaurant) {
+        if (restaurant.getId() == null) {
+            return;
+        }
+        spacesByRestaurant.compute(restaurant.getId(), (restaurantId, previous) -> {
+            Set<UUID> spaceIds = new HashSet<>();
+            for (Space space : restaurant.getSpaces()) {
+                locations.put(space.getId(), new SpaceLocation(restaurantId, space));
+                spaceIds.add(space.getId());
+            }
+            if (previous != null) {
+                previous.stream()
+                    .filter(spaceId -> !spaceIds.contains(spaceId))
+                    .forEach(spaceId -> removeLocation(restaurantId, spaceId));
+            }
+            return spaceIds;
+        });
+    }
+
+    public void remove(ObjectId restaurantId) {
+        spacesByRestaurant.computeIfPresent(restaurantId, (id, spaceIds) -> {
+            spaceIds.forEach(spaceId -> removeLocation(id, spaceId));
+            return null;
+        });
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    private void removeLocation(ObjectId restaurantId, UUID spaceId) {
+        // leave the entry alone if the space has been indexed for another restaurant since
+        locations.computeIfPresent(spaceId,
+            (k, location) -> location.restaurantId().equals(restaurantId) ? null : location);
+    }
+
+    public record SpaceLocation(ObjectId restaurantId, Space space) {
+
+    }
+}
@@ -0,0 +1,149 @@
+package com.opentable.privatedining;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opentable.privatedining.exception.ReservationConflictException;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.ReservationService;
+import com.opentable.privatedining.service.RestaurantService;
+import com.opentable.privatedining.service.SlotCounterCheckJob;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+// two application contexts ("nodes") sharing the embedded mongod started by the first one
+@Tag("embedded-mongo")
+class DistributedBookingTest {
+
+    private static final String DATABASE = "distributed_booking_test";
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = new SpringApplicationBuilder(PrivateDiningApplication.class)
+            .properties("server.port=0", "spring.data.mongodb.port=0",
+                "spring.data.mongodb.database=" + DATABASE,
+                "private-dining.booking.capacity-mode=distributed")
+            .run();
+        // the embedded auto-configuration publishes the port mongod was started on
+        String mongoPort = nodeA.getEnvironment().getProperty("spring.data.mongodb.port");
+        nodeB = new SpringApplicationBuilder(PrivateDiningApplication.class)
+            .properties("server.port=0", "spring.data.mongodb.port=" + mongoPort,
+                "spring.data.mongodb.database=" + DATABASE,
+                "private-dining.booking.capacity-mode=distributed",
+                "spring.autoconfigure.exclude="
+                    + "de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration")
+            .run();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.getBean(MongoTemplate.class).getDb().drop();
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void createReservation_WhenBothNodesBookSameSlot_ShouldNeverOverbook() throws Exception {
+        // Given
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Shared Space", 1, 10);
+        restaurant.getSpaces().add(space);
+        restaurant = nodeA.getBean(RestaurantService.class).createRestaurant(restaurant);
+
+        List<ReservationService> nodes = List.of(nodeA.getBean(ReservationService.class),
+            nodeB.getBean(ReservationService.class));
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+        int attempts = 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            ReservationService node = nodes.get(i % nodes.size());
+            Reservation reservation = new Reservation(restaurant.getId(), space.getId(), "guest" + i + "@example.com",
+                start, start.plusHours(2), 3, "CONFIRMED");
+            results.add(executor.submit(() -> {
+                startLatch.await();
+                try {
+                    node.createReservation(reservation);
+                    return true;
+                } catch (ReservationConflictException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // When
+        startLatch.countDown();
+        int booked = 0;
+        for (Future<Boolean> result : results) {
+            booked += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdownNow();
+
+        // Then
+        // three parties of 3 fit into a space of 10, a fourth one would overbook
+        assertThat(booked).isEqualTo(3);
+        SlotOccupancyStore store = nodeB.getBean(SlotOccupancyStore.class);
+        for (int slot = 0; slot < 4; slot++) {
+            assertThat(store.getOccupancy(space.getId(), start.plusMinutes(30L * slot))).isEqualTo(9);
+        }
+        long stored = nodeA.getBean(MongoTemplate.class)
+            .count(Query.query(Criteria.where("spaceId").is(space.getId())), Reservation.class);
+        assertThat(stored).isEqualTo(3);
+    }
+
+    @Test
+    void check_WhenCountersDrifted_ShouldBringThemBackToTheReservations() {
+        // Given
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Drifting Space", 1, 10);
+        restaurant.getSpaces().add(space);
+        restaurant = nodeA.getBean(RestaurantService.class).createRestaurant(restaurant);
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(19, 0);
+        nodeA.getBean(ReservationService.class).createReservation(new Reservation(restaurant.getId(), space.getId(),
+            "drift@example.com", start, start.plusHours(1), 4, "CONFIRMED"));
+        SlotOccupancyStore store = nodeA.getBean(SlotOccupancyStore.class);
+        // a node died after reserving a later slot, and a counter lost an increment
+        assertThat(store.tryReserve(restaurant.getId(), space.getId(), start.plusHours(2), start.plusHours(3), 5, 1,
+            10)).isEmpty();
+        assertThat(store.compareAndSet(restaurant.getId(), space.getId(), start, 4, 1)).isTrue();
+        SlotCounterCheckJob job = nodeB.getBean(SlotCounterCheckJob.class);
+
+        // When
+        job.check(true);
+        job.check(true);
+
+        // Then
+        assertThat(store.getOccupancy(space.getId(), start)).isEqualTo(4);
+        assertThat(store.getOccupancy(space.getId(), start.plusMinutes(30))).isEqualTo(4);
+        assertThat(store.getOccupancy(space.getId(), start.plusHours(2))).isZero();
+        assertThat(job.check(false)).noneMatch(drift -> drift.spaceId().equals(space.getId()));
+    }
+}
@@ -2,6 +2,7 @@ package com.opentable.privatedining;
 
 import com.opentable.privatedining.model.Reservation;
 import com.opentable.privatedining.model.Restaurant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.UUID;
@@ -9,6 +10,9 @@ import org.bson.types.ObjectId;
 
 public final class TestDataHelper {
 
+    // reservations must start in the future, keep the fixture date ahead of the clock
+    public static final LocalDate RESERVATION_DATE = LocalDate.of(LocalDate.now().getYear() + 1, 1, 30);
+
     private TestDataHelper() {
         // Private constructor to prevent instantiation
     }
@@ -19,8 +23,8 @@ public final class TestDataHelper {
         reservation.setPartySize(partySize);
         reservation.setRestaurantId(new ObjectId());
         reservation.setSpaceId(UUID.randomUUID());
-        reservation.setStartTime(LocalDateTime.of(2026, 1, 30, 19, 0));
-        reservation.setEndTime(LocalDateTime.of(2026, 1, 30, 22, 0));
+        reservation.setStartTime(RESERVATION_DATE.atTime(19, 0));
+        reservation.setEndTime(RESERVATION_DATE.atTime(22, 0));
         reservation.setStatus("CONFIRMED");
         return reservation;
     }
@@ -0,0 +1,175 @@
+package com.opentable.privatedining.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.opentable.privatedining.config.AvailabilityProperties;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.service.AvailabilityService;
+import com.opentable.privatedining.service.ReservationService;
+import com.opentable.privatedining.service.RestaurantService;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// "which restaurants can host 40 people Friday 19:00 - 22:00" over a synthetic dataset with stubbed repositories:
+// the chunked parallel search against calling the single-restaurant availability once per restaurant
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilitySearchBenchmark {
+
+    private static final int PARTY_SIZE = 40;
+
+    private static final int DURATION = 180;
+
+    @Param({"10000"})
+    private int restaurants;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    @Param({"64"})
+    private int chunkSize;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private List<Restaurant> dataset;
+
+    private ExecutorService executor;
+
+    private AvailabilityService availabilityService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate friday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
+        from = friday.atTime(19, 0);
+        to = friday.atTime(22, 0);
+
+        Random random = new Random(42);
+        dataset = new ArrayList<>(restaurants);
+        Map<ObjectId, Restaurant> byId = new HashMap<>();
+        Map<ObjectId, List<Reservation>> reservations = new HashMap<>();
+        for (int i = 0; i < restaurants; i++) {
+            Restaurant restaurant = syntheticRestaurant(random, i);
+            dataset.add(restaurant);
+            byId.put(restaurant.getId(), restaurant);
+            reservations.put(restaurant.getId(), syntheticReservations(random, restaurant, friday));
+        }
+
+        // stub only, recording 10k invocations per operation would dominate the measurement
+        RestaurantService restaurantService = mock(RestaurantService.class, withSettings().stubOnly());
+        when(restaurantService.getRestaurantsWithSpaceFor(anyInt())).thenAnswer(invocation -> {
+            int partySize = invocation.getArgument(0);
+            return dataset.stream()
+                .filter(r -> r.getSpaces().stream().anyMatch(s -> s.getMaxCapacity() >= partySize))
+                .toList();
+        });
+        when(restaurantService.getRestaurantById(any()))
+            .thenAnswer(invocation -> Optional.ofNullable(byId.get(invocation.<ObjectId>getArgument(0))));
+
+        ReservationService reservationService = mock(ReservationService.class, withSettings().stubOnly());
+        when(reservationService.getReservationByRestaurantsAndOverlap(any(), any(), any())).thenAnswer(invocation -> {
+            Collection<ObjectId> ids = invocation.getArgument(0);
+            List<Reservation> found = new ArrayList<>();
+            ids.forEach(id -> found.addAll(reservations.getOrDefault(id, List.of())));
+            return found;
+        });
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any()))
+            .thenAnswer(invocation -> reservations.getOrDefault(invocation.<ObjectId>getArgument(0), List.of()));
+
+        AvailabilityProperties properties = new AvailabilityProperties();
+        properties.setSearchThreads(threads);
+        properties.setSearchChunkSize(chunkSize);
+        properties.setSearchMaxInFlight(2 * threads);
+        executor = Executors.newFixedThreadPool(threads);
+        availabilityService = new AvailabilityService(restaurantService, reservationService, properties, executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void parallelSearch(Blackhole blackhole) {
+        List<Restaurant> candidates = availabilityService.findSearchCandidates(PARTY_SIZE, from, to, DURATION);
+        availabilityService.searchAvailability(candidates, PARTY_SIZE, from, to, DURATION, blackhole::consume);
+    }
+
+    // no pre-filter, one reservation lookup per restaurant on the calling thread
+    @Benchmark
+    public void perRestaurant(Blackhole blackhole) {
+        for (Restaurant restaurant : dataset) {
+            blackhole.consume(availabilityService.getAvailability(restaurant.getId(), PARTY_SIZE, from, to,
+                DURATION));
+        }
+    }
+
+    private static Restaurant syntheticRestaurant(Random random, int index) {
+        // a quarter of the restaurants only serve lunch and never survive the operating-hours filter
+        boolean lunchOnly = random.nextInt(4) == 0;
+        LocalTime opens = lunchOnly ? LocalTime.of(11, 0) : LocalTime.of(17, 0);
+        LocalTime closes = lunchOnly ? LocalTime.of(15, 0) : LocalTime.of(23, 30);
+        Restaurant restaurant = new Restaurant("Restaurant " + index, "Address " + index, "Cuisine", 200, opens,
+            closes);
+        restaurant.setId(new ObjectId());
+        int spaces = 1 + random.nextInt(4);
+        for (int s = 0; s < spaces; s++) {
+            int maxCapacity = 10 + random.nextInt(71);
+            restaurant.getSpaces().add(new Space("Space " + s, 1 + random.nextInt(10), maxCapacity));
+        }
+        return restaurant;
+    }
+
+    private static List<Reservation> syntheticReservations(Random random, Restaurant restaurant, LocalDate day) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (Space space : restaurant.getSpaces()) {
+            int count = random.nextInt(4);
+            for (int r = 0; r < count; r++) {
+                LocalDateTime start = day.atTime(17, 0).plusMinutes(30L * random.nextInt(10));
+                reservations.add(new Reservation(restaurant.getId(), space.getId(), "guest@example.com", start,
+                    start.plusMinutes(30L * (2 + random.nextInt(5))), 1 + random.nextInt(space.getMaxCapacity()),
+                    "CONFIRMED"));
+            }
+        }
+        return reservations;
+    }
+}
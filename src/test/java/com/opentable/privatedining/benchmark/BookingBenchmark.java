@@ -0,0 +1,170 @@
+package com.opentable.privatedining.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.OperatingHours;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
+import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.OccupancyPyramidRefresher;
+import com.opentable.privatedining.service.OccupancyReportCache;
+import com.opentable.privatedining.service.ReservationService;
+import com.opentable.privatedining.service.RestaurantService;
+import com.opentable.privatedining.service.SlotOccupancyLedger;
+import com.opentable.privatedining.service.SpaceIndex;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// a booking and its cancellation through ReservationService in LOCAL capacity mode, against repositories kept in
+// memory so that only the engine is measured: request validation with the operating hours check, the capacity check
+// on the slot ledger (hydrated from reservationsPerSpace existing bookings on first touch), the space lock and the
+// report cache invalidation. The thread count is fixed per method as with SpaceLockBenchmark (or use -t)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingBenchmark {
+
+    private static final LocalTime OPENING = LocalTime.of(11, 0);
+
+    private static final LocalTime CLOSING = LocalTime.of(23, 0);
+
+    private static final int OPEN_SLOTS = 24;
+
+    @Param({"10", "1000"})
+    private int reservationsPerSpace;
+
+    // half-hour slots per booking, at most OPEN_SLOTS
+    @Param({"2", "8", "24"})
+    private int slotsPerRequest;
+
+    @Param({"8", "128"})
+    private int spaces;
+
+    private LocalDate day;
+
+    private Restaurant restaurant;
+
+    private ReservationService reservationService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        day = LocalDate.now().plusWeeks(1);
+        restaurant = new Restaurant("Restaurant", "Address", "Cuisine", 500, OPENING, CLOSING);
+        restaurant.setId(new ObjectId());
+        Random random = new Random(42);
+        Map<UUID, List<Reservation>> existing = new HashMap<>();
+        for (int s = 0; s < spaces; s++) {
+            // room for every existing booking in one slot plus one in flight per benchmark thread
+            Space space = new Space("Space " + s, 1, reservationsPerSpace + 64);
+            restaurant.getSpaces().add(space);
+            List<Reservation> reservations = new ArrayList<>(reservationsPerSpace);
+            for (int r = 0; r < reservationsPerSpace; r++) {
+                int first = random.nextInt(OPEN_SLOTS);
+                LocalDateTime start = day.atTime(OPENING).plusMinutes(30L * first);
+                reservations.add(new Reservation(restaurant.getId(), space.getId(), "guest@example.com", start,
+                    start.plusMinutes(30L * (1 + random.nextInt(OPEN_SLOTS - first))), 1, "CONFIRMED"));
+            }
+            existing.put(space.getId(), reservations);
+        }
+
+        // stub only, invocation recording would be measured as well; bookings live in a map
+        Map<ObjectId, Reservation> stored = new ConcurrentHashMap<>();
+        ReservationRepository reservationRepository = mock(ReservationRepository.class, withSettings().stubOnly());
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenAnswer(invocation -> existing.getOrDefault(invocation.<UUID>getArgument(1), List.of()));
+        when(reservationRepository.save(any())).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(new ObjectId());
+            stored.put(reservation.getId(), reservation);
+            return reservation;
+        });
+        when(reservationRepository.findById(any()))
+            .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<ObjectId>getArgument(0))));
+        doAnswer(invocation -> stored.remove(invocation.<ObjectId>getArgument(0)))
+            .when(reservationRepository).deleteById(any());
+        RestaurantService restaurantService = mock(RestaurantService.class, withSettings().stubOnly());
+        when(restaurantService.getRestaurantById(any())).thenReturn(Optional.of(restaurant));
+
+        BookingProperties bookingProperties = new BookingProperties();
+        reservationService = new ReservationService(reservationRepository, restaurantService,
+            new SlotOccupancyLedger(), mock(SlotOccupancyStore.class, withSettings().stubOnly()),
+            mock(OccupancyRollupStore.class, withSettings().stubOnly()),
+            mock(OccupancyPyramidRefresher.class, withSettings().stubOnly()), bookingProperties,
+            new StripedLockPool("benchmark.lock", bookingProperties.getLockStripes()), null, new SpaceIndex(),
+            new OccupancyReportCache(new BoundedCache<>("benchmark.reports", 100, Duration.ZERO),
+                new SingleFlight<>("benchmark.report.inflight")));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean bookAndCancel_1() {
+        return bookAndCancel();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean bookAndCancel_8() {
+        return bookAndCancel();
+    }
+
+    @Benchmark
+    public boolean operatingHours() {
+        Reservation reservation = request();
+        return OperatingHours.isWithin(reservation.getStartTime(), reservation.getEndTime(), OPENING, CLOSING);
+    }
+
+    // cancelled again so the ledger stays at reservationsPerSpace bookings
+    private boolean bookAndCancel() {
+        Reservation saved = reservationService.createReservation(request());
+        return reservationService.deleteReservation(saved.getId());
+    }
+
+    // a random space and start within the opening hours
+    private Reservation request() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Space space = restaurant.getSpaces().get(random.nextInt(spaces));
+        LocalDateTime start = day.atTime(OPENING).plusMinutes(30L * random.nextInt(OPEN_SLOTS - slotsPerRequest + 1));
+        return new Reservation(restaurant.getId(), space.getId(), "guest@example.com", start,
+            start.plusMinutes(30L * slotsPerRequest), 1, "CONFIRMED");
+    }
+}
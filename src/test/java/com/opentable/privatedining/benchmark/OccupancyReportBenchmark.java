@@ -0,0 +1,139 @@
+package com.opentable.privatedining.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentable.privatedining.config.JacksonConfig;
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
+import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.service.ReportingService;
+import com.opentable.privatedining.service.ReservationService;
+import com.opentable.privatedining.service.RestaurantService;
+import com.opentable.privatedining.service.SpaceIndex;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// restaurant-wide occupancy report of a busy restaurant with stubbed repositories, the time per operation should
+// grow linearly with the number of reservations and with the window (slots) rather than with their product.
+// Run with -prof gc for the bytes allocated per report (gc.alloc.rate.norm), the *Response benchmarks add the
+// mapping and serialization of each wire format; heatmapReport folds the same window into the 7 x 48 heatmap
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyReportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int reservations;
+
+    @Param({"7", "28"})
+    private int days;
+
+    @Param({"8", "64"})
+    private int spaces;
+
+    private OccupancyReport request;
+
+    private HeatmapReport heatmapRequest;
+
+    private ReportingService reportingService;
+
+    private OccupancyReportMapper mapper;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate firstDay = LocalDate.now().plusWeeks(1);
+        Restaurant restaurant = new Restaurant("Restaurant", "Address", "Cuisine", 500, LocalTime.of(11, 0),
+            LocalTime.of(23, 0));
+        restaurant.setId(new ObjectId());
+        for (int s = 0; s < spaces; s++) {
+            restaurant.getSpaces().add(new Space("Space " + s, 1, 100));
+        }
+
+        Random random = new Random(42);
+        List<Reservation> dataset = new ArrayList<>(reservations);
+        for (int r = 0; r < reservations; r++) {
+            Space space = restaurant.getSpaces().get(random.nextInt(spaces));
+            LocalDateTime start = firstDay.plusDays(random.nextInt(days)).atTime(11, 0)
+                .plusMinutes(30L * random.nextInt(20));
+            dataset.add(new Reservation(restaurant.getId(), space.getId(), "guest@example.com", start,
+                start.plusMinutes(30L * (1 + random.nextInt(8))), 1 + random.nextInt(10), "CONFIRMED"));
+        }
+
+        request = new OccupancyReport();
+        request.setRestaurantId(restaurant.getId());
+        request.setStart(firstDay.atStartOfDay());
+        request.setEnd(firstDay.plusDays(days).atStartOfDay());
+        heatmapRequest = new HeatmapReport(restaurant.getId(), null, request.getStart(), request.getEnd());
+
+        // stub only, invocation recording would be measured as well
+        RestaurantService restaurantService = mock(RestaurantService.class, withSettings().stubOnly());
+        when(restaurantService.getRestaurantById(any())).thenReturn(Optional.of(restaurant));
+        ReservationService reservationService = mock(ReservationService.class, withSettings().stubOnly());
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(dataset);
+        mapper = Mappers.getMapper(OccupancyReportMapper.class);
+        objectMapper = new JacksonConfig().objectMapper();
+
+        // sequential, ReportParallelismBenchmark compares it with the parallel computation
+        ReportingProperties reportingProperties = new ReportingProperties();
+        reportingProperties.setParallelThreads(1);
+        reportingService = new ReportingService(restaurantService, reservationService, mapper, new SpaceIndex(),
+            reportingProperties, null, null, null, null);
+    }
+
+    @Benchmark
+    public Optional<OccupancyReport> restaurantReport() {
+        // an explicit backend bypasses the report cache
+        return reportingService.getOccupancyReport(request, Backend.JAVA);
+    }
+
+    @Benchmark
+    public void pointResponse() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), mapper.toDto(restaurantReport().get()));
+    }
+
+    @Benchmark
+    public void columnarResponse() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), mapper.toColumnarDto(restaurantReport().get()));
+    }
+
+    @Benchmark
+    public HeatmapReport heatmapReport() {
+        return reportingService.getHeatmapReport(heatmapRequest, Backend.JAVA);
+    }
+}
@@ -0,0 +1,133 @@
+package com.opentable.privatedining.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
+import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.service.ReportingService;
+import com.opentable.privatedining.service.ReservationService;
+import com.opentable.privatedining.service.RestaurantService;
+import com.opentable.privatedining.service.SpaceIndex;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// sequential vs parallel space series of a restaurant-wide hourly report, 20 reservations per space and day. The
+// smallest spaces * half-hour slots (days * 48) at which parallel wins is the crossover, a starting point for
+// private-dining.reporting.parallel-threshold on hardware with that many threads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportParallelismBenchmark {
+
+    @Param({"10", "50", "100", "200"})
+    private int spaces;
+
+    @Param({"7", "28", "91"})
+    private int days;
+
+    @Param({"4"})
+    private int threads;
+
+    private OccupancyReport request;
+
+    private ReportingService sequential;
+
+    private ReportingService parallel;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate firstDay = LocalDate.now().plusWeeks(1);
+        Restaurant restaurant = new Restaurant("Restaurant", "Address", "Cuisine", 5000, LocalTime.of(11, 0),
+            LocalTime.of(23, 0));
+        restaurant.setId(new ObjectId());
+        for (int s = 0; s < spaces; s++) {
+            restaurant.getSpaces().add(new Space("Space " + s, 1, 20));
+        }
+
+        Random random = new Random(42);
+        List<Reservation> dataset = new ArrayList<>();
+        for (int r = 0; r < spaces * days * 20; r++) {
+            Space space = restaurant.getSpaces().get(random.nextInt(spaces));
+            LocalDateTime start = firstDay.plusDays(random.nextInt(days)).atTime(11, 0)
+                .plusMinutes(30L * random.nextInt(20));
+            dataset.add(new Reservation(restaurant.getId(), space.getId(), "guest@example.com", start,
+                start.plusMinutes(30L * (1 + random.nextInt(8))), 1 + random.nextInt(10), "CONFIRMED"));
+        }
+
+        request = new OccupancyReport();
+        request.setRestaurantId(restaurant.getId());
+        request.setStart(firstDay.atStartOfDay());
+        request.setEnd(firstDay.plusDays(days).atStartOfDay());
+        request.setGranularity(60L);
+
+        // stub only, invocation recording would be measured as well
+        RestaurantService restaurantService = mock(RestaurantService.class, withSettings().stubOnly());
+        when(restaurantService.getRestaurantById(any())).thenReturn(Optional.of(restaurant));
+        ReservationService reservationService = mock(ReservationService.class, withSettings().stubOnly());
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(dataset);
+        OccupancyReportMapper mapper = Mappers.getMapper(OccupancyReportMapper.class);
+
+        executor = Executors.newFixedThreadPool(threads);
+        ReportingProperties sequentialProperties = new ReportingProperties();
+        sequentialProperties.setParallelThreads(1);
+        sequential = new ReportingService(restaurantService, reservationService, mapper, new SpaceIndex(),
+            sequentialProperties, null, null, null, executor);
+        ReportingProperties parallelProperties = new ReportingProperties();
+        parallelProperties.setParallelThreads(threads);
+        parallelProperties.setParallelThreshold(0);
+        parallel = new ReportingService(restaurantService, reservationService, mapper, new SpaceIndex(),
+            parallelProperties, null, null, null, executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Optional<OccupancyReport> sequentialReport() {
+        // an explicit backend bypasses the report cache
+        return sequential.getOccupancyReport(request, Backend.JAVA);
+    }
+
+    @Benchmark
+    public Optional<OccupancyReport> parallelReport() {
+        return parallel.getOccupancyReport(request, Backend.JAVA);
+    }
+}
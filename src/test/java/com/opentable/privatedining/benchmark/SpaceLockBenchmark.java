@@ -0,0 +1,120 @@
+package com.opentable.privatedining.benchmark;
+
+import com.opentable.privatedining.common.StripedLockPool;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// per-space locking as done by createReservation: the former computeIfAbsent/computeIfPresent map against the
+// fixed striped pool, at 1, 8 and 64 threads booking into a small (hot) and a large set of spaces
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpaceLockBenchmark {
+
+    // stand-in for the validation and save done while holding the lock
+    private static final int CRITICAL_SECTION_TOKENS = 100;
+
+    @Param({"16", "4096"})
+    private int spaces;
+
+    @Param({"256"})
+    private int stripes;
+
+    private UUID[] spaceIds;
+
+    private ConcurrentHashMap<UUID, ReentrantLock> lockMap;
+
+    private StripedLockPool lockPool;
+
+    @Setup
+    public void setUp() {
+        spaceIds = new UUID[spaces];
+        for (int i = 0; i < spaces; i++) {
+            spaceIds[i] = UUID.randomUUID();
+        }
+        lockMap = new ConcurrentHashMap<>();
+        lockPool = new StripedLockPool("benchmark.lock", stripes);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void mapBased_1(Blackhole blackhole) {
+        mapBased(blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void mapBased_8(Blackhole blackhole) {
+        mapBased(blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void mapBased_64(Blackhole blackhole) {
+        mapBased(blackhole);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void striped_1(Blackhole blackhole) {
+        striped(blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void striped_8(Blackhole blackhole) {
+        striped(blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void striped_64(Blackhole blackhole) {
+        striped(blackhole);
+    }
+
+    private void mapBased(Blackhole blackhole) {
+        UUID spaceId = nextSpace();
+        ReentrantLock lock = lockMap.computeIfAbsent(spaceId, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            lock.unlock();
+            lockMap.computeIfPresent(spaceId, (k, v) -> v.isLocked() || v.hasQueuedThreads() ? v : null);
+        }
+        blackhole.consume(lock);
+    }
+
+    private void striped(Blackhole blackhole) {
+        ReentrantLock lock = lockPool.lock(nextSpace());
+        try {
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            lock.unlock();
+        }
+        blackhole.consume(lock);
+    }
+
+    private UUID nextSpace() {
+        return spaceIds[ThreadLocalRandom.current().nextInt(spaceIds.length)];
+    }
+}
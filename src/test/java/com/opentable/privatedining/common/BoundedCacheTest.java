@@ -0,0 +1,128 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void get_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 2, Duration.ZERO, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.getIfPresent("a");
+
+        // When
+        cache.put("c", "C");
+
+        // Then
+        assertThat(cache.getIfPresent("a")).contains("A");
+        assertThat(cache.getIfPresent("b")).isEmpty();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void get_WhenExpired_ShouldReload() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ofSeconds(1), now::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.get("a", k -> Optional.of("A" + loads.incrementAndGet()));
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        Optional<String> fresh = cache.get("a", k -> Optional.of("A" + loads.incrementAndGet()));
+        now.addAndGet(Duration.ofMillis(600).toNanos());
+        Optional<String> reloaded = cache.get("a", k -> Optional.of("A" + loads.incrementAndGet()));
+
+        // Then
+        assertThat(fresh).contains("A1");
+        assertThat(reloaded).contains("A2");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void get_WhenInvalidatedDuringLoad_ShouldNotCacheStaleValue() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ZERO, now::get);
+
+        // When
+        Optional<String> loaded = cache.get("a", k -> {
+            // a writer changes and invalidates the entry while the old value is being read
+            cache.invalidate("a");
+            return Optional.of("stale");
+        });
+
+        // Then
+        assertThat(loaded).contains("stale");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_WhenOtherKeyInvalidatedDuringLoad_ShouldStillCacheValue() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ZERO, now::get);
+
+        // When
+        cache.get("a", k -> {
+            cache.invalidate("b");
+            return Optional.of("fresh");
+        });
+
+        // Then
+        assertThat(cache.getIfPresent("a")).contains("fresh");
+    }
+
+    @Test
+    void get_WhenLoaderThrows_ShouldStopTrackingTheLoad() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ZERO, now::get);
+        assertThrows(IllegalStateException.class, () -> cache.get("a", k -> {
+            throw new IllegalStateException("load failed");
+        }));
+
+        // When
+        cache.get("a", k -> Optional.of("value"));
+
+        // Then
+        assertThat(cache.getIfPresent("a")).contains("value");
+    }
+
+    @Test
+    void get_WhenLoaderReturnsEmpty_ShouldNotCache() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ZERO, now::get);
+
+        // When
+        cache.get("a", k -> Optional.empty());
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidateIf_ShouldRemoveMatchingEntriesOnly() {
+        // Given
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, Duration.ZERO, now::get);
+        cache.put("restaurant-1:a", "A");
+        cache.put("restaurant-1:b", "B");
+        cache.put("restaurant-2:a", "C");
+
+        // When
+        int removed = cache.invalidateIf(key -> key.startsWith("restaurant-1"));
+
+        // Then
+        assertThat(removed).isEqualTo(2);
+        assertThat(cache.getIfPresent("restaurant-2:a")).contains("C");
+        assertThat(cache.getInvalidations()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,62 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class OccupancyHeatmapTest {
+
+    // a Monday
+    private final LocalDate monday = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void add_ShouldFoldTheSameHalfHourOfEveryWeek() {
+        // Given
+        OccupancyHeatmap heatmap = new OccupancyHeatmap();
+        int[] firstWeek = new int[7 * OccupancyHeatmap.SLOTS_PER_DAY];
+        int[] secondWeek = new int[7 * OccupancyHeatmap.SLOTS_PER_DAY];
+        firstWeek[38] = 40;
+        secondWeek[38] = 20;
+        secondWeek[OccupancyHeatmap.SLOTS_PER_DAY * 4 + 40] = 12;
+
+        // When
+        heatmap.add(monday.atStartOfDay(), OccupancyLevel.of(firstWeek));
+        heatmap.add(monday.plusWeeks(1).atStartOfDay(), OccupancyLevel.of(secondWeek));
+
+        // Then
+        assertThat(heatmap.peak(DayOfWeek.MONDAY, 38)).isEqualTo(40);
+        assertThat(heatmap.average(DayOfWeek.MONDAY, 38)).isEqualTo(30d);
+        assertThat(heatmap.peak(DayOfWeek.FRIDAY, 40)).isEqualTo(12);
+        assertThat(heatmap.average(DayOfWeek.FRIDAY, 40)).isEqualTo(6d);
+        assertThat(heatmap.peak(DayOfWeek.TUESDAY, 38)).isZero();
+    }
+
+    @Test
+    void add_WhenRangeStartsLateInTheWeek_ShouldWrapAroundToMonday() {
+        // Given
+        OccupancyHeatmap heatmap = new OccupancyHeatmap();
+        LocalDateTime sundayNight = monday.plusDays(6).atTime(23, 30);
+
+        // When
+        heatmap.add(sundayNight, OccupancyLevel.of(new int[]{5, 7}));
+
+        // Then
+        assertThat(heatmap.peak(DayOfWeek.SUNDAY, OccupancyHeatmap.SLOTS_PER_DAY - 1)).isEqualTo(5);
+        assertThat(heatmap.peak(DayOfWeek.MONDAY, 0)).isEqualTo(7);
+    }
+
+    @Test
+    void average_WhenHalfHourNotInRange_ShouldBeZero() {
+        // Given
+        OccupancyHeatmap heatmap = new OccupancyHeatmap();
+
+        // When
+        heatmap.add(monday.atStartOfDay(), OccupancyLevel.of(new int[OccupancyHeatmap.SLOTS_PER_DAY]));
+
+        // Then
+        assertThat(heatmap.average(DayOfWeek.TUESDAY, 0)).isZero();
+    }
+}
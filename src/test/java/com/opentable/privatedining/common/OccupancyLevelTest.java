@@ -0,0 +1,56 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OccupancyLevelTest {
+
+    @Test
+    void coarsen_ShouldKeepPeakAndSumOfEachBucket() {
+        // Given
+        OccupancyLevel slots = OccupancyLevel.of(new int[]{4, 0, 6, 2, 0, 0});
+
+        // When
+        OccupancyLevel hours = slots.coarsen(2);
+
+        // Then
+        assertThat(hours.size()).isEqualTo(3);
+        assertThat(hours.getSlotsPerBucket()).isEqualTo(2);
+        assertThat(new int[]{hours.peak(0), hours.peak(1), hours.peak(2)}).containsExactly(4, 6, 0);
+        assertThat(new double[]{hours.average(0), hours.average(1), hours.average(2)}).containsExactly(2d, 4d, 0d);
+    }
+
+    @Test
+    void coarsen_WhenBuiltFromTheLevelBelow_ShouldMatchCoarseningTheSlotsDirectly() {
+        // Given
+        int[] occupancy = new int[48];
+        for (int i = 0; i < occupancy.length; i++) {
+            occupancy[i] = (i * 7) % 11;
+        }
+        OccupancyLevel slots = OccupancyLevel.of(occupancy);
+
+        // When
+        OccupancyLevel day = slots.coarsen(2).coarsen(24);
+        OccupancyLevel direct = slots.coarsen(48);
+
+        // Then
+        assertThat(day.peak(0)).isEqualTo(direct.peak(0)).isEqualTo(10);
+        assertThat(day.total(0)).isEqualTo(direct.total(0));
+        assertThat(day.average(0)).isEqualTo(direct.average(0));
+    }
+
+    @Test
+    void coarsen_WhenPartialBucketAtTheEnd_ShouldKeepIt() {
+        // Given
+        OccupancyLevel slots = OccupancyLevel.of(new int[]{1, 2, 3});
+
+        // When
+        OccupancyLevel coarse = slots.coarsen(2);
+
+        // Then
+        assertThat(coarse.size()).isEqualTo(2);
+        assertThat(coarse.peak(1)).isEqualTo(3);
+        assertThat(coarse.total(1)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,77 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Space;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OccupancySweepTest {
+
+    private final LocalDate day = TestDataHelper.RESERVATION_DATE;
+
+    private final Space terrace = new Space("Terrace", 1, 10);
+
+    private final Space cellar = new Space("Cellar", 1, 20);
+
+    @Test
+    void of_ShouldComputeSpacesAndRestaurantTotalInOnePass() {
+        // Given
+        List<Reservation> reservations = List.of(
+            reservation(terrace, day.atTime(19, 0), day.atTime(20, 0), 2),
+            reservation(cellar, day.atTime(19, 30), day.atTime(21, 0), 3),
+            reservation(terrace, day.atTime(20, 30), day.atTime(21, 0), 4));
+
+        // When
+        OccupancySweep sweep = OccupancySweep.of(List.of(terrace, cellar), reservations, day.atTime(19, 0), 4,
+            Constant.BLOCK_INTERVAL);
+
+        // Then
+        assertThat(sweep.space(0)).containsExactly(2, 2, 0, 4);
+        assertThat(sweep.space(1)).containsExactly(0, 3, 3, 3);
+        assertThat(sweep.total()).containsExactly(2, 5, 3, 7);
+    }
+
+    @Test
+    void of_WhenSlotsWiderThanBlock_ShouldCountEveryOverlappingReservation() {
+        // Given
+        List<Reservation> reservations = List.of(
+            reservation(terrace, day.atTime(19, 0), day.atTime(19, 30), 2),
+            reservation(terrace, day.atTime(19, 30), day.atTime(20, 30), 3));
+
+        // When
+        OccupancySweep sweep = OccupancySweep.of(List.of(terrace), reservations, day.atTime(19, 0), 2, 60);
+
+        // Then
+        assertThat(sweep.space(0)).containsExactly(5, 3);
+        assertThat(sweep.total()).containsExactly(5, 3);
+    }
+
+    @Test
+    void of_WhenReservationOfUnknownSpace_ShouldIgnoreIt() {
+        // Given
+        Space removed = new Space("Removed", 1, 10);
+        List<Reservation> reservations = List.of(reservation(removed, day.atTime(19, 0), day.atTime(20, 0), 2),
+            reservation(cellar, day.atTime(17, 0), day.atTime(23, 0), 6));
+
+        // When
+        OccupancySweep sweep = OccupancySweep.of(List.of(terrace, cellar), reservations, day.atTime(19, 0), 2,
+            Constant.BLOCK_INTERVAL);
+
+        // Then
+        assertThat(sweep.space(0)).containsExactly(0, 0);
+        assertThat(sweep.total()).containsExactly(6, 6);
+    }
+
+    private Reservation reservation(Space space, LocalDateTime start, LocalDateTime end, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("sweep@example.com", partySize);
+        reservation.setSpaceId(space.getId());
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -0,0 +1,111 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>("test");
+
+    @Test
+    void run_WhenCalledConcurrently_ShouldComputeOnceAndShareTheResult() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flights.run("report", key -> {
+                started.countDown();
+                await(release);
+                return "R" + computations.incrementAndGet();
+            })));
+            started.await();
+
+            // When
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> flights.run("report", key -> "R" + computations.incrementAndGet())));
+            }
+            while (flights.getWaiters() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("R1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(computations).hasValue(1);
+        assertThat(flights.getComputations()).isEqualTo(1);
+        assertThat(flights.getCoalesced()).isEqualTo(callers - 1);
+        assertThat(flights.getCoalescingRatio()).isEqualTo((callers - 1) / (double) callers);
+        assertThat(flights.getWaiters()).isZero();
+        assertThat(flights.getInFlight()).isZero();
+    }
+
+    @Test
+    void run_WhenComputationDone_ShouldComputeAgain() {
+        // Given
+        AtomicInteger computations = new AtomicInteger();
+
+        // When
+        flights.run("report", key -> "R" + computations.incrementAndGet());
+        String second = flights.run("report", key -> "R" + computations.incrementAndGet());
+
+        // Then
+        assertThat(second).isEqualTo("R2");
+        assertThat(flights.getCoalesced()).isZero();
+    }
+
+    @Test
+    void run_WhenComputationFails_ShouldRethrowAndForgetIt() {
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> flights.run("report", key -> {
+                throw new IllegalStateException("failed");
+            }));
+
+        // Then
+        assertThat(thrown).hasMessage("failed");
+        assertThat(flights.getInFlight()).isZero();
+        assertThat(flights.run("report", key -> "R")).isEqualTo("R");
+    }
+
+    @Test
+    void forgetIf_ShouldLetLaterCallersStartTheirOwnComputation() {
+        // When
+        String outer = flights.run("report", key -> {
+            assertThat(flights.forgetIf("report"::equals)).isEqualTo(1);
+            return flights.run("report", again -> "fresh");
+        });
+
+        // Then
+        assertThat(outer).isEqualTo("fresh");
+        assertThat(flights.getComputations()).isEqualTo(2);
+        assertThat(flights.getCoalesced()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
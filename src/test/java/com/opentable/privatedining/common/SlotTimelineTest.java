@@ -0,0 +1,65 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SlotTimelineTest {
+
+    private final LocalDate day = TestDataHelper.RESERVATION_DATE;
+
+    @Test
+    void occupancy_ShouldSumOverlappingParties() {
+        // Given
+        List<Reservation> reservations = List.of(reservation(day.atTime(19, 0), day.atTime(20, 0), 2),
+            reservation(day.atTime(19, 30), day.atTime(21, 0), 3));
+
+        // When
+        int[] occupancy = SlotTimeline.occupancy(reservations, day.atTime(19, 0), 4);
+
+        // Then
+        assertThat(occupancy).containsExactly(2, 5, 3, 3);
+    }
+
+    @Test
+    void occupancy_WhenReservationExceedsWindow_ShouldClampToWindow() {
+        // Given
+        List<Reservation> reservations = List.of(reservation(day.atTime(17, 0), day.atTime(23, 0), 4),
+            reservation(day.atTime(19, 45), day.atTime(20, 15), 1));
+
+        // When
+        int[] occupancy = SlotTimeline.occupancy(reservations, day.atTime(19, 0), 3);
+
+        // Then
+        // 19:45 - 20:15 touches both the 19:30 and the 20:00 slot
+        assertThat(occupancy).containsExactly(4, 5, 5);
+        assertThat(SlotTimeline.slotCount(day.atTime(19, 0), day.atTime(20, 30))).isEqualTo(3);
+    }
+
+    @Test
+    void accumulate_WhenArrayHasNoTrailingEntry_ShouldMatchOccupancy() {
+        // Given
+        List<Reservation> reservations = List.of(reservation(day.atTime(17, 0), day.atTime(23, 0), 4),
+            reservation(day.atTime(19, 30), day.atTime(20, 30), 3));
+        int[] delta = new int[3];
+
+        // When
+        reservations.forEach(reservation -> SlotTimeline.addTo(delta, reservation, day.atTime(19, 0), 3));
+        SlotTimeline.accumulate(delta);
+
+        // Then
+        assertThat(delta).containsExactly(SlotTimeline.occupancy(reservations, day.atTime(19, 0), 3));
+    }
+
+    private Reservation reservation(LocalDateTime start, LocalDateTime end, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("timeline@example.com", partySize);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -0,0 +1,123 @@
+package com.opentable.privatedining.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+
+class StripedLockPoolTest {
+
+    @Test
+    void constructor_ShouldRoundStripesUpToPowerOfTwo() {
+        // When & Then
+        assertThat(new StripedLockPool("test", 1).getStripeCount()).isEqualTo(1);
+        assertThat(new StripedLockPool("test", 100).getStripeCount()).isEqualTo(128);
+        assertThat(new StripedLockPool("test", 256).getStripeCount()).isEqualTo(256);
+        assertThrows(IllegalArgumentException.class, () -> new StripedLockPool("test", 0));
+    }
+
+    @Test
+    void lock_WhenSameKey_ShouldReturnSameLock() {
+        // Given
+        StripedLockPool pool = new StripedLockPool("test", 16);
+        UUID spaceId = UUID.randomUUID();
+
+        // When
+        ReentrantLock first = pool.lock(spaceId);
+        first.unlock();
+        ReentrantLock second = pool.lock(UUID.fromString(spaceId.toString()));
+        second.unlock();
+
+        // Then
+        assertSame(first, second);
+        assertThat(pool.getAcquisitions()).isEqualTo(2);
+        assertThat(pool.getContended()).isZero();
+    }
+
+    @Test
+    void lock_WhenStripeHeldByAnotherThread_ShouldCountContention() throws Exception {
+        // Given
+        StripedLockPool pool = new StripedLockPool("test", 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+        ReentrantLock held = pool.lock(UUID.randomUUID());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        // When
+        Future<?> waiter = executor.submit(() -> {
+            pool.lock(UUID.randomUUID()).unlock();
+            acquired.countDown();
+        });
+        while (pool.getQueueLength() == 0) {
+            Thread.onSpinWait();
+        }
+        held.unlock();
+        waiter.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertThat(acquired.getCount()).isZero();
+        assertThat(pool.getContended()).isEqualTo(1);
+        assertThat(pool.getContended(0)).isEqualTo(1);
+        assertThat(registry.get("test.contended").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("test.acquisitions").functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void lockAll_ShouldTakeEachStripeOnceInAscendingOrder() {
+        // Given
+        StripedLockPool pool = new StripedLockPool("test", 4);
+        List<UUID> spaceIds = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            spaceIds.add(UUID.randomUUID());
+        }
+
+        // When
+        List<ReentrantLock> locks = pool.lockAll(spaceIds);
+
+        // Then
+        assertThat(locks).hasSize(4).doesNotHaveDuplicates();
+        assertThat(locks).allMatch(lock -> lock.isHeldByCurrentThread() && lock.getHoldCount() == 1);
+        assertThat(pool.getAcquisitions()).isEqualTo(4);
+
+        // When
+        pool.unlockAll(locks);
+
+        // Then
+        assertThat(locks).noneMatch(ReentrantLock::isLocked);
+    }
+
+    @Test
+    void lockAllStripes_ShouldHoldEveryStripe() {
+        // Given
+        StripedLockPool pool = new StripedLockPool("test", 8);
+
+        // When
+        List<ReentrantLock> locks = pool.lockAllStripes();
+
+        // Then
+        assertThat(locks).hasSize(8).doesNotHaveDuplicates();
+        assertThat(locks).allMatch(lock -> lock.isHeldByCurrentThread() && lock.getHoldCount() == 1);
+        ReentrantLock keyed = pool.lock(UUID.randomUUID());
+        keyed.unlock();
+        assertThat(locks).contains(keyed);
+
+        // When
+        pool.unlockAll(locks);
+
+        // Then
+        assertThat(locks).noneMatch(ReentrantLock::isLocked);
+    }
+}
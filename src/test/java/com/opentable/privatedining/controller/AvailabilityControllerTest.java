@@ -0,0 +1,149 @@
+package com.opentable.privatedining.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.opentable.privatedining.common.NdjsonWriter;
+import com.opentable.privatedining.exception.GlobalExceptionHandler;
+import com.opentable.privatedining.exception.InvalidReservationException;
+import com.opentable.privatedining.mapper.AvailabilityMapper;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.availability.RestaurantAvailability;
+import com.opentable.privatedining.model.availability.SpaceAvailability;
+import com.opentable.privatedining.service.AvailabilityService;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest({AvailabilityController.class, GlobalExceptionHandler.class})
+class AvailabilityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AvailabilityService availabilityService;
+
+    @SpyBean
+    private AvailabilityMapper availabilityMapper;
+
+    @Test
+    void getAvailability_WhenValidRequest_ShouldReturnSpacesAndStartTimes() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime from = LocalDateTime.of(2026, 1, 30, 19, 0);
+        SpaceAvailability space = new SpaceAvailability(UUID.randomUUID(), "Room", 2, 10, List.of(from));
+        when(availabilityService.getAvailability(restaurantId, 4, from, from.plusHours(2), 60))
+            .thenReturn(new RestaurantAvailability(restaurantId, "Test Restaurant", 4, from, from.plusHours(2), 60,
+                List.of(space)));
+
+        // When & Then
+        mockMvc.perform(get("/v1/restaurants/{id}/availability", restaurantId.toHexString())
+                .param("partySize", "4")
+                .param("from", "2026-01-30T19:00:00")
+                .param("to", "2026-01-30T21:00:00")
+                .param("duration", "60"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.restaurantId").value(restaurantId.toHexString()))
+            .andExpect(jsonPath("$.spaces[0].spaceName").value("Room"))
+            .andExpect(jsonPath("$.spaces[0].startTimes[0]").value("30-01-2026 19:00"));
+    }
+
+    @Test
+    void getAvailability_WhenInvalidId_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/v1/restaurants/{id}/availability", "not-an-id")
+                .param("partySize", "4")
+                .param("from", "2026-01-30T19:00:00")
+                .param("to", "2026-01-30T21:00:00")
+                .param("duration", "60"))
+            .andExpect(status().isBadRequest());
+        verify(availabilityService, never()).getAvailability(any(), anyInt(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getAvailability_WhenServiceRejectsParams_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(availabilityService.getAvailability(any(), eq(4), any(), any(), eq(45)))
+            .thenThrow(new InvalidReservationException("Duration must be a positive multiple of 30 minutes."));
+
+        // When & Then
+        mockMvc.perform(get("/v1/restaurants/{id}/availability", new ObjectId().toHexString())
+                .param("partySize", "4")
+                .param("from", "2026-01-30T19:00:00")
+                .param("to", "2026-01-30T21:00:00")
+                .param("duration", "45"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchAvailability_ShouldStreamOneLinePerRestaurant() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 1, 30, 19, 0);
+        LocalDateTime to = from.plusHours(3);
+        List<Restaurant> candidates = List.of(new Restaurant(), new Restaurant());
+        when(availabilityService.findSearchCandidates(40, from, to, 180)).thenReturn(candidates);
+        doAnswer(invocation -> {
+            Consumer<RestaurantAvailability> sink = invocation.getArgument(5);
+            sink.accept(new RestaurantAvailability(new ObjectId(), "First", 40, from, to, 180, List.of()));
+            sink.accept(new RestaurantAvailability(new ObjectId(), "Second", 40, from, to, 180, List.of()));
+            return null;
+        }).when(availabilityService).searchAvailability(eq(candidates), eq(40), eq(from), eq(to), eq(180), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/v1/restaurants/availability")
+                .param("partySize", "40")
+                .param("from", "2026-01-30T19:00:00")
+                .param("to", "2026-01-30T22:00:00")
+                .param("duration", "180"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(NdjsonWriter.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"restaurantName\":\"First\"");
+        assertThat(lines[1]).contains("\"restaurantName\":\"Second\"");
+    }
+
+    @Test
+    void searchAvailability_WhenParamsInvalid_ShouldReturnBadRequestBeforeStreaming() throws Exception {
+        // Given
+        when(availabilityService.findSearchCandidates(eq(0), any(), any(), anyInt()))
+            .thenThrow(new InvalidReservationException("Party size must be positive."));
+
+        // When & Then
+        mockMvc.perform(get("/v1/restaurants/availability")
+                .param("partySize", "0")
+                .param("from", "2026-01-30T19:00:00")
+                .param("to", "2026-01-30T22:00:00")
+                .param("duration", "180"))
+            .andExpect(status().isBadRequest());
+        verify(availabilityService, never()).searchAvailability(any(), anyInt(), any(), any(), anyInt(), any());
+    }
+}
@@ -1,18 +1,36 @@
 package com.opentable.privatedining.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.opentable.privatedining.common.Constant;
+import com.opentable.privatedining.common.OccupancyHeatmap;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
+import com.opentable.privatedining.dto.reporting.ColumnarOccupancyReportDTO;
 import com.opentable.privatedining.dto.reporting.OccupancyDataDTO;
 import com.opentable.privatedining.dto.reporting.OccupancyReportDTO;
 import com.opentable.privatedining.exception.GlobalExceptionHandler;
+import com.opentable.privatedining.exception.RestaurantNotFoundException;
 import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
+import com.opentable.privatedining.model.reporting.HeatmapData;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
+import com.opentable.privatedining.model.reporting.OccupancyChunk;
 import com.opentable.privatedining.model.reporting.OccupancyData;
 import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.OccupancyReportStream;
+import com.opentable.privatedining.model.reporting.OccupancySeries;
+import com.opentable.privatedining.model.reporting.PortfolioReport;
 import com.opentable.privatedining.service.ReportingService;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -20,12 +38,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.bson.types.ObjectId;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest({ReportingController.class, GlobalExceptionHandler.class})
 public class ReportingControllerTest {
@@ -53,7 +73,7 @@ public class ReportingControllerTest {
         when(occupancyReportMapper.toModel(any())).thenReturn(request);
         Optional<OccupancyReport> returnedReport = Optional.of(new OccupancyReport(restaurantId, spaceId, start, end,
             new OccupancyData(), List.of()));
-        when(reportingService.getOccupancyReport(any())).thenReturn(returnedReport);
+        when(reportingService.getOccupancyReport(any(), any())).thenReturn(returnedReport);
         OccupancyReportDTO response = new OccupancyReportDTO(restaurantId.toHexString(), spaceId.toString(), start, end,
             new OccupancyDataDTO(), List.of());
         when(occupancyReportMapper.toDto(any())).thenReturn(response);
@@ -78,7 +98,7 @@ public class ReportingControllerTest {
 
         OccupancyReport request = new OccupancyReport(restaurantId, spaceId, start, end, null, null);
         when(occupancyReportMapper.toModel(any())).thenReturn(request);
-        when(reportingService.getOccupancyReport(any())).thenReturn(Optional.empty());
+        when(reportingService.getOccupancyReport(any(), any())).thenReturn(Optional.empty());
         OccupancyReportDTO response = new OccupancyReportDTO(restaurantId.toHexString(), spaceId.toString(), start, end,
             new OccupancyDataDTO(), List.of());
         when(occupancyReportMapper.toDto(any())).thenReturn(response);
@@ -100,7 +120,7 @@ public class ReportingControllerTest {
 
         OccupancyReport request = new OccupancyReport(restaurantId, spaceId, start, end, null, null);
         when(occupancyReportMapper.toModel(any())).thenReturn(request);
-        when(reportingService.getOccupancyReport(any())).thenThrow(new IllegalArgumentException("Invalid report"));
+        when(reportingService.getOccupancyReport(any(), any())).thenThrow(new IllegalArgumentException("Invalid report"));
         OccupancyReportDTO response = new OccupancyReportDTO(restaurantId.toHexString(), spaceId.toString(), start, end,
             new OccupancyDataDTO(), List.of());
         when(occupancyReportMapper.toDto(any())).thenReturn(response);
@@ -111,4 +131,279 @@ public class ReportingControllerTest {
                     .param("end", end.format(FORMATTER)).param("spaceId", spaceId.toString()))
             .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getOccupancyReport_WhenBackendGiven_ShouldPassItToService() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        LocalDateTime end = start.plusHours(2);
+
+        OccupancyReport request = new OccupancyReport(restaurantId, null, start, end, null, null);
+        when(occupancyReportMapper.toModel(any())).thenReturn(request);
+        when(reportingService.getOccupancyReport(request, Backend.AGGREGATION)).thenReturn(Optional.of(request));
+        when(occupancyReportMapper.toDto(request)).thenReturn(
+            new OccupancyReportDTO(restaurantId.toHexString(), null, start, end));
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy").param("start", start.format(FORMATTER))
+                    .param("end", end.format(FORMATTER)).param("backend", "aggregation"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.restaurantId").value(restaurantId.toHexString()));
+    }
+
+    @Test
+    void getOccupancyReport_WhenUnknownBackend_ShouldReturn400() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        when(occupancyReportMapper.toModel(any()))
+            .thenReturn(new OccupancyReport(restaurantId, null, start, start.plusHours(2), null, null));
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy").param("start", start.format(FORMATTER))
+                    .param("end", start.plusHours(2).format(FORMATTER)).param("backend", "spreadsheet"))
+            .andExpect(status().isBadRequest());
+        verify(reportingService, never()).getOccupancyReport(any(), any());
+    }
+
+    @Test
+    void getOccupancyReport_WhenGranularityGiven_ShouldRequestItInMinutes() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 26, 0, 0);
+        LocalDateTime end = start.plusWeeks(4);
+
+        OccupancyReport request = new OccupancyReport(restaurantId, null, start, end, null, null);
+        when(occupancyReportMapper.toModel(argThat(dto -> dto.getGranularity() == 10080L))).thenReturn(request);
+        when(reportingService.getOccupancyReport(request, null)).thenReturn(Optional.of(request));
+        when(occupancyReportMapper.toDto(request)).thenReturn(
+            new OccupancyReportDTO(restaurantId.toHexString(), null, start, end, 10080L, null, List.of()));
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy").param("start", start.format(FORMATTER))
+                    .param("end", end.format(FORMATTER)).param("granularity", "weekly"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granularity").value(10080));
+    }
+
+    @Test
+    void getOccupancyReport_WhenUnknownGranularity_ShouldReturn400() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy").param("start", start.format(FORMATTER))
+                    .param("end", start.plusHours(2).format(FORMATTER)).param("granularity", "fortnightly"))
+            .andExpect(status().isBadRequest());
+        verify(reportingService, never()).getOccupancyReport(any(), any());
+    }
+
+    @Test
+    void streamOccupancyReport_ShouldWriteOneRowPerSlotWithEverySeries() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        OccupancyReport request = new OccupancyReport(restaurantId, null, start, start.plusHours(1), null, null);
+        when(occupancyReportMapper.toModel(any())).thenReturn(request);
+        List<OccupancyChunk> chunks = List.of(
+            new OccupancyChunk(start, List.of(OccupancyLevel.of(new int[]{6}), OccupancyLevel.of(new int[]{6}))),
+            new OccupancyChunk(start.plusMinutes(30),
+                List.of(OccupancyLevel.of(new int[]{0}), OccupancyLevel.of(new int[]{0}))));
+        when(reportingService.streamOccupancyReport(request, null)).thenReturn(new OccupancyReportStream(request,
+            List.of(new OccupancySeries(restaurantId.toHexString(), "Restaurant", 40),
+                new OccupancySeries(UUID.randomUUID().toString(), "Terrace", 10)), chunks.iterator()));
+
+        // When
+        MvcResult result = mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy/stream")
+                    .param("start", start.format(FORMATTER)).param("end", start.plusHours(1).format(FORMATTER)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.series[1].name").value("Terrace"))
+            .andExpect(jsonPath("$.slots.length()").value(2))
+            .andExpect(jsonPath("$.slots[0].slotStart").value("30-01-2026 18:00"))
+            .andExpect(jsonPath("$.slots[0].occupancy[0]").value(6))
+            .andExpect(jsonPath("$.slots[0].occupancyRate[1]").value(0.6))
+            .andExpect(jsonPath("$.slots[0].averageOccupancy").doesNotExist());
+        verify(reportingService, never()).getOccupancyReport(any(), any());
+    }
+
+    @Test
+    void streamOccupancyReport_WhenRestaurantNotFound_ShouldReturn404BeforeStreaming() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        when(occupancyReportMapper.toModel(any()))
+            .thenReturn(new OccupancyReport(restaurantId, null, start, start.plusHours(1), null, null));
+        when(reportingService.streamOccupancyReport(any(), any()))
+            .thenThrow(new RestaurantNotFoundException(restaurantId));
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy/stream")
+                    .param("start", start.format(FORMATTER)).param("end", start.plusHours(1).format(FORMATTER)))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getOccupancyReport_WhenColumnarAccepted_ShouldReturnOneArrayPerSeries() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        LocalDateTime end = start.plusHours(2);
+        OccupancyReport request = new OccupancyReport(restaurantId, null, start, end, 60L, null, null);
+        when(occupancyReportMapper.toModel(any())).thenReturn(request);
+        when(reportingService.getOccupancyReport(any(), any())).thenReturn(Optional.of(
+            new OccupancyReport(restaurantId, null, start, end, 60L, new OccupancyData(restaurantId.toHexString(),
+                "Restaurant", 40, OccupancyLevel.of(new int[]{12, 3, 0, 0}).coarsen(2)), List.of())));
+        when(occupancyReportMapper.toColumnarDto(any(OccupancyReport.class))).thenCallRealMethod();
+        when(occupancyReportMapper.toColumnarDto(any(OccupancyData.class))).thenCallRealMethod();
+        when(occupancyReportMapper.toInstant(any())).thenCallRealMethod();
+        when(occupancyReportMapper.objectIdToString(any())).thenCallRealMethod();
+
+        // When & Then
+        mockMvc.perform(
+                get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy").param("start", start.format(FORMATTER))
+                    .param("end", end.format(FORMATTER)).param("granularity", "hourly")
+                    .accept(ColumnarOccupancyReportDTO.MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ColumnarOccupancyReportDTO.MEDIA_TYPE))
+            .andExpect(jsonPath("$.start").value(start.atZone(Constant.ZONE_ID).toInstant().toString()))
+            .andExpect(jsonPath("$.granularity").value(60))
+            .andExpect(jsonPath("$.restaurantData.capacity").value(40))
+            .andExpect(jsonPath("$.restaurantData.occupancy").value(Matchers.contains(12, 0)))
+            .andExpect(jsonPath("$.restaurantData.averageOccupancy[0]").value(7.5))
+            .andExpect(jsonPath("$.restaurantData.points").doesNotExist());
+        verify(occupancyReportMapper, never()).toDto(any());
+    }
+
+    @Test
+    void getOccupancyReport_WhenJsonAccepted_ShouldReturnPoints() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        LocalDateTime end = start.plusHours(2);
+        OccupancyReport report = new OccupancyReport(restaurantId, null, start, end, 60L, new OccupancyData(
+            restaurantId.toHexString(), "Restaurant", 40, OccupancyLevel.of(new int[]{12, 3, 0, 0}).coarsen(2)),
+            List.of());
+        when(occupancyReportMapper.toModel(any())).thenReturn(report);
+        when(reportingService.getOccupancyReport(any(), any())).thenReturn(Optional.of(report));
+        when(occupancyReportMapper.toDto(any())).thenCallRealMethod();
+        when(occupancyReportMapper.toDto(any(), any(), anyLong())).thenCallRealMethod();
+        when(occupancyReportMapper.objectIdToString(any())).thenCallRealMethod();
+
+        // When & Then
+        for (String accept : List.of(MediaType.ALL_VALUE, MediaType.APPLICATION_JSON_VALUE)) {
+            mockMvc.perform(
+                    get("/v1/reporting/" + restaurantId.toHexString() + "/occupancy")
+                        .param("start", start.format(FORMATTER)).param("end", end.format(FORMATTER))
+                        .param("granularity", "hourly").accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.restaurantData.points.length()").value(2))
+                .andExpect(jsonPath("$.restaurantData.points[1].slotStart").value("30-01-2026 19:00"))
+                .andExpect(jsonPath("$.restaurantData.points[1].slotEnd").value("30-01-2026 20:00"))
+                .andExpect(jsonPath("$.restaurantData.points[0].capacity").value(40))
+                .andExpect(jsonPath("$.restaurantData.points[0].occupancyRate").value(0.3))
+                .andExpect(jsonPath("$.restaurantData.points[0].peakOccupancy").value(12))
+                .andExpect(jsonPath("$.restaurantData.points[0].averageOccupancy").value(7.5));
+        }
+        verify(occupancyReportMapper, never()).toColumnarDto(any(OccupancyReport.class));
+    }
+
+    @Test
+    void getPortfolioReport_ShouldReturnPortfolioAndRestaurantTotals() throws Exception {
+        // Given
+        ObjectId first = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        ObjectId second = new ObjectId("64b64c4f2f4e4b3a2c8b4568");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+        when(reportingService.getPortfolioReport(any())).thenReturn(new PortfolioReport(List.of(first, second), null,
+            start, start.plusMinutes(30), 30L, new OccupancyData(null, "Portfolio", 60, OccupancyLevel.of(new int[]{15})),
+            List.of(new OccupancyData(first.toHexString(), "First", 20, OccupancyLevel.of(new int[]{5})),
+                new OccupancyData(second.toHexString(), "Second", 40, OccupancyLevel.of(new int[]{10})))));
+        when(occupancyReportMapper.toPortfolioDto(any())).thenCallRealMethod();
+        when(occupancyReportMapper.toDto(any(), any(), anyLong())).thenCallRealMethod();
+        when(occupancyReportMapper.objectIdToString(any())).thenCallRealMethod();
+
+        // When & Then
+        mockMvc.perform(get("/v1/reporting/portfolio/occupancy")
+                .param("restaurantIds", first.toHexString() + "," + second.toHexString())
+                .param("start", start.format(FORMATTER)).param("end", start.plusMinutes(30).format(FORMATTER)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.restaurantIds[1]").value(second.toHexString()))
+            .andExpect(jsonPath("$.portfolioData.points[0].occupancy").value(15))
+            .andExpect(jsonPath("$.portfolioData.points[0].occupancyRate").value(0.25))
+            .andExpect(jsonPath("$.restaurantData[1].name").value("Second"));
+        verify(reportingService).getPortfolioReport(argThat(request -> request.getRestaurantIds()
+            .equals(List.of(first, second)) && request.getCuisineType() == null));
+    }
+
+    @Test
+    void getPortfolioReport_WhenInvalidRestaurantId_ShouldReturn400() throws Exception {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 18, 0);
+
+        // When & Then
+        mockMvc.perform(get("/v1/reporting/portfolio/occupancy")
+                .param("restaurantIds", "not-an-id")
+                .param("start", start.format(FORMATTER)).param("end", start.plusMinutes(30).format(FORMATTER)))
+            .andExpect(status().isBadRequest());
+        verify(reportingService, never()).getPortfolioReport(any());
+    }
+
+    @Test
+    void getHeatmapReport_ShouldReturnOneRowPerDayOfWeek() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId("64b64c4f2f4e4b3a2c8b4567");
+        LocalDateTime monday = LocalDateTime.of(2026, 1, 5, 0, 0);
+        OccupancyHeatmap heatmap = new OccupancyHeatmap();
+        int[] week = new int[7 * OccupancyHeatmap.SLOTS_PER_DAY];
+        week[38] = 30;
+        heatmap.add(monday, OccupancyLevel.of(week));
+        heatmap.add(monday.plusWeeks(1), OccupancyLevel.of(new int[week.length]));
+        when(reportingService.getHeatmapReport(any(), any())).thenReturn(new HeatmapReport(restaurantId, null, monday,
+            monday.plusWeeks(2), new HeatmapData(restaurantId.toHexString(), "Restaurant", 60, heatmap), List.of()));
+        when(occupancyReportMapper.toHeatmapDto(any(HeatmapReport.class))).thenCallRealMethod();
+        when(occupancyReportMapper.toHeatmapDto(any(HeatmapData.class))).thenCallRealMethod();
+        when(occupancyReportMapper.objectIdToString(any())).thenCallRealMethod();
+
+        // When & Then
+        mockMvc.perform(get("/v1/reporting/{id}/occupancy/heatmap", restaurantId.toHexString())
+                .param("start", monday.format(FORMATTER)).param("end", monday.plusWeeks(2).format(FORMATTER))
+                .param("backend", "rollup"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.restaurantData.days.length()").value(7))
+            .andExpect(jsonPath("$.restaurantData.days[0].dayOfWeek").value("MONDAY"))
+            .andExpect(jsonPath("$.restaurantData.days[0].peakOccupancy.length()").value(48))
+            .andExpect(jsonPath("$.restaurantData.days[0].peakOccupancy[38]").value(30))
+            .andExpect(jsonPath("$.restaurantData.days[0].averageOccupancy[38]").value(15))
+            .andExpect(jsonPath("$.restaurantData.days[0].averageRate[38]").value(0.25))
+            .andExpect(jsonPath("$.restaurantData.days[0].peakRate[38]").value(0.5))
+            .andExpect(jsonPath("$.restaurantData.days[1].peakOccupancy[38]").value(0));
+        verify(reportingService).getHeatmapReport(argThat(request -> request.getRestaurantId().equals(restaurantId)
+            && request.getStart().equals(monday)), argThat(backend -> backend == Backend.ROLLUP));
+    }
+
+    @Test
+    void getHeatmapReport_WhenInvalidRestaurantId_ShouldReturn400() throws Exception {
+        // Given
+        LocalDateTime monday = LocalDateTime.of(2026, 1, 5, 0, 0);
+
+        // When & Then
+        mockMvc.perform(get("/v1/reporting/{id}/occupancy/heatmap", "not-an-id")
+                .param("start", monday.format(FORMATTER)).param("end", monday.plusWeeks(1).format(FORMATTER)))
+            .andExpect(status().isBadRequest());
+        verify(reportingService, never()).getHeatmapReport(any(), any());
+    }
 }
@@ -1,20 +1,36 @@
 package com.opentable.privatedining.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentable.privatedining.common.NdjsonWriter;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.dto.BatchReservationResultDTO;
 import com.opentable.privatedining.dto.ReservationDTO;
+import com.opentable.privatedining.dto.ReservationPageDTO;
 import com.opentable.privatedining.exception.GlobalExceptionHandler;
 import com.opentable.privatedining.exception.InvalidReservationException;
 import com.opentable.privatedining.mapper.ReservationMapper;
+import com.opentable.privatedining.model.BatchReservationResult;
+import com.opentable.privatedining.model.BatchReservationResult.Status;
 import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationPage;
+import com.opentable.privatedining.model.ReservationQuery;
 import com.opentable.privatedining.service.ReservationService;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -22,13 +38,17 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest({ReservationController.class, GlobalExceptionHandler.class})
 class ReservationControllerTest {
@@ -42,6 +62,9 @@ class ReservationControllerTest {
     @MockBean
     private ReservationMapper reservationMapper;
 
+    @SpyBean
+    private BookingProperties bookingProperties;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -55,13 +78,14 @@ class ReservationControllerTest {
         ReservationDTO reservationDTO1 = createTestReservationDTO("customer1@example.com", 4);
         ReservationDTO reservationDTO2 = createTestReservationDTO("customer2@example.com", 6);
 
-        when(reservationService.getAllReservations()).thenReturn(reservations);
+        when(reservationService.getReservations(any())).thenReturn(new ReservationPage(reservations, null));
         when(reservationMapper.toDTO(any(Reservation.class))).thenReturn(reservationDTO1).thenReturn(reservationDTO2);
 
         // When & Then
         mockMvc.perform(get("/v1/reservations"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().doesNotExist(ReservationController.NEXT_CURSOR_HEADER))
             .andExpect(jsonPath("$.length()").value(2))
             .andExpect(jsonPath("$[0].customerEmail").value("customer1@example.com"))
             .andExpect(jsonPath("$[0].partySize").value(4))
@@ -69,6 +93,54 @@ class ReservationControllerTest {
             .andExpect(jsonPath("$[1].partySize").value(6));
     }
 
+    @Test
+    void getAllReservations_WhenMorePages_ShouldReturnNextCursorHeader() throws Exception {
+        // Given
+        Reservation reservation = createTestReservation("customer@example.com", 4);
+        reservation.setId(new ObjectId());
+        ReservationCursor next = ReservationCursor.of(reservation);
+        when(reservationService.getReservations(any())).thenReturn(new ReservationPage(List.of(reservation), next));
+        when(reservationMapper.toDTO(any(Reservation.class)))
+            .thenReturn(createTestReservationDTO("customer@example.com", 4));
+
+        // When & Then
+        mockMvc.perform(get("/v1/reservations").param("limit", "1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string(ReservationController.NEXT_CURSOR_HEADER, next.encode()))
+            .andExpect(jsonPath("$.length()").value(1));
+
+        ArgumentCaptor<ReservationQuery> query = ArgumentCaptor.forClass(ReservationQuery.class);
+        verify(reservationService).getReservations(query.capture());
+        assertThat(query.getValue().getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void exportReservations_WhenNdjsonAccepted_ShouldStreamOneLinePerReservation() throws Exception {
+        // Given
+        Reservation reservation1 = createTestReservation("customer1@example.com", 4);
+        Reservation reservation2 = createTestReservation("customer2@example.com", 6);
+        when(reservationService.streamReservations()).thenReturn(Stream.of(reservation1, reservation2));
+        when(reservationMapper.toDTO(any(Reservation.class)))
+            .thenReturn(createTestReservationDTO("customer1@example.com", 4))
+            .thenReturn(createTestReservationDTO("customer2@example.com", 6));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/v1/reservations").accept(NdjsonWriter.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(NdjsonWriter.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], ReservationDTO.class).getCustomerEmail())
+            .isEqualTo("customer2@example.com");
+        verify(reservationService, never()).getReservations(any());
+    }
+
     @Test
     void getReservationById_WhenReservationExists_ShouldReturnReservation() throws Exception {
         // Given
@@ -168,6 +240,48 @@ class ReservationControllerTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createReservations_ShouldReturnResultPerItem() throws Exception {
+        // Given
+        List<ReservationDTO> input = List.of(createTestReservationDTO("first@example.com", 4),
+            createTestReservationDTO("second@example.com", 6));
+        Reservation first = createTestReservation("first@example.com", 4);
+        Reservation second = createTestReservation("second@example.com", 6);
+        BatchReservationResult created = new BatchReservationResult(0, Status.CREATED, first, null);
+        BatchReservationResult conflict = new BatchReservationResult(1, Status.CONFLICT, second, "Reservation conflict");
+
+        when(reservationMapper.toModel(any(ReservationDTO.class))).thenReturn(first).thenReturn(second);
+        when(reservationService.createReservations(List.of(first, second))).thenReturn(List.of(created, conflict));
+        when(reservationMapper.toDTO(created)).thenReturn(
+            new BatchReservationResultDTO(0, "CREATED", input.get(0), null));
+        when(reservationMapper.toDTO(conflict)).thenReturn(
+            new BatchReservationResultDTO(1, "CONFLICT", input.get(1), "Reservation conflict"));
+
+        // When & Then
+        mockMvc.perform(post("/v1/reservations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(input)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].status").value("CREATED"))
+            .andExpect(jsonPath("$[0].reservation.customerEmail").value("first@example.com"))
+            .andExpect(jsonPath("$[1].status").value("CONFLICT"))
+            .andExpect(jsonPath("$[1].message").value("Reservation conflict"));
+    }
+
+    @Test
+    void createReservations_WhenBatchTooLarge_ShouldReturn400() throws Exception {
+        // Given
+        when(reservationService.createReservations(any())).thenThrow(
+            new InvalidReservationException("Batch must contain between 1 and 500 reservations."));
+
+        // When & Then
+        mockMvc.perform(post("/v1/reservations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteReservation_WhenReservationExists_ShouldReturn204() throws Exception {
         // Given
@@ -197,6 +311,46 @@ class ReservationControllerTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getReservationsByRestaurant_ShouldPassFiltersAndReturnPage() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        ReservationCursor after = new ReservationCursor(LocalDateTime.of(2026, 1, 30, 19, 0), new ObjectId());
+        ReservationPage page = new ReservationPage(List.of(createTestReservation("customer@example.com", 4)), null);
+        when(reservationService.getReservationsByRestaurant(eq(restaurantId), any())).thenReturn(page);
+        when(reservationMapper.toDTO(page)).thenReturn(new ReservationPageDTO(
+            List.of(createTestReservationDTO("customer@example.com", 4)), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/v1/reservations/restaurants/{restaurantId}", restaurantId.toHexString())
+                .param("from", "2026-01-30T00:00:00")
+                .param("to", "2026-01-31T00:00:00")
+                .param("status", "CONFIRMED")
+                .param("limit", "20")
+                .param("cursor", after.encode()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reservations[0].customerEmail").value("customer@example.com"))
+            .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        ArgumentCaptor<ReservationQuery> query = ArgumentCaptor.forClass(ReservationQuery.class);
+        verify(reservationService).getReservationsByRestaurant(eq(restaurantId), query.capture());
+        assertThat(query.getValue().getFrom()).isEqualTo(LocalDateTime.of(2026, 1, 30, 0, 0));
+        assertThat(query.getValue().getTo()).isEqualTo(LocalDateTime.of(2026, 1, 31, 0, 0));
+        assertThat(query.getValue().getStatus()).isEqualTo("CONFIRMED");
+        assertThat(query.getValue().getLimit()).isEqualTo(20);
+        assertThat(query.getValue().getAfter()).isEqualTo(after);
+    }
+
+    @Test
+    void getReservationsBySpace_WhenCursorMalformed_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/v1/reservations/restaurants/{restaurantId}/spaces/{spaceId}",
+                new ObjectId().toHexString(), UUID.randomUUID())
+                .param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        verify(reservationService, never()).getReservationsBySpace(any(), any(), any());
+    }
+
     private Reservation createTestReservation(String customerEmail, int partySize) {
         Reservation reservation = new Reservation();
         reservation.setCustomerEmail(customerEmail);
@@ -0,0 +1,75 @@
+package com.opentable.privatedining.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+class MongoIndexInitializerTest {
+
+    @Test
+    void ensureIndexes_ShouldCreateIndexesOfOverlapAndLookupQueries() {
+        // Given
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        // java.time types are stored as values, not mapped as entities
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        IndexOperations reservationIndexes = mock(IndexOperations.class);
+        IndexOperations restaurantIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Reservation.class)).thenReturn(reservationIndexes);
+        when(mongoTemplate.indexOps(Restaurant.class)).thenReturn(restaurantIndexes);
+        IndexOperations rollupIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(OccupancyRollupStore.COLLECTION)).thenReturn(rollupIndexes);
+        IndexOperations pyramidIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(OccupancyPyramidStore.COLLECTION)).thenReturn(pyramidIndexes);
+        IndexOperations counterIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(SlotOccupancyStore.COLLECTION)).thenReturn(counterIndexes);
+        when(mongoTemplate.getCollectionName(any())).thenReturn("collection");
+
+        // When
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes();
+
+        // Then
+        assertThat(keysOf(reservationIndexes)).containsExactlyInAnyOrder(
+            List.of("restaurantId", "startTime", "_id"),
+            List.of("restaurantId", "spaceId", "startTime", "_id"),
+            List.of("spaceId", "startTime"),
+            List.of("startTime", "_id"),
+            List.of("endTime"));
+        assertThat(keysOf(restaurantIndexes)).containsExactly(List.of("spaces.maxCapacity"));
+        assertThat(keysOf(rollupIndexes)).containsExactlyInAnyOrder(
+            List.of("restaurantId", "_id.slotStart"),
+            List.of("_id.spaceId", "_id.slotStart"));
+        assertThat(keysOf(pyramidIndexes)).containsExactly(
+            List.of("_id.restaurantId", "_id.level", "_id.bucketStart"));
+        assertThat(keysOf(counterIndexes)).containsExactly(List.of("_id.spaceId", "_id.slotStart"));
+    }
+
+    private static List<List<String>> keysOf(IndexOperations indexOps) {
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, atLeastOnce()).ensureIndex(indexes.capture());
+        return indexes.getAllValues().stream()
+            .map(IndexDefinition::getIndexKeys)
+            .map(Document::keySet)
+            .map(List::copyOf)
+            .toList();
+    }
+}
@@ -0,0 +1,246 @@
+package com.opentable.privatedining.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationQuery;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// Runs every repository query against embedded Mongo, captures the commands the driver actually sends and
+// explains them: a query whose winning plan scans the whole collection fails here instead of in production.
+@Tag("embedded-mongo")
+@SpringBootTest(properties = {"spring.data.mongodb.port=0", "spring.data.mongodb.database=query_plan_test"})
+class QueryPlanTest {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "count", "aggregate", "distinct");
+
+    private static final LocalDateTime FROM = TestDataHelper.RESERVATION_DATE.atTime(18, 0);
+
+    private static final LocalDateTime TO = TestDataHelper.RESERVATION_DATE.atTime(23, 0);
+
+    private static Restaurant restaurant;
+
+    private static Space space;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private OccupancyRollupStore occupancyRollupStore;
+
+    @Autowired
+    private OccupancyPyramidStore occupancyPyramidStore;
+
+    @Autowired
+    private SlotOccupancyStore slotOccupancyStore;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CapturedQueries capturedQueries;
+
+    private static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+            query("ReservationRepository.findByRestaurantIdAndSpaceIdAndOverlap", (QueryPlanTest t) ->
+                t.reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(restaurant.getId(), space.getId(),
+                    FROM, TO)),
+            query("ReservationRepository.findByRestaurantIdAndOverlap", (QueryPlanTest t) ->
+                t.reservationRepository.findByRestaurantIdAndOverlap(restaurant.getId(), FROM, TO)),
+            query("ReservationRepository.findBySpaceIdAndOverlap", (QueryPlanTest t) ->
+                t.reservationRepository.findBySpaceIdAndOverlap(space.getId(), FROM, TO)),
+            query("ReservationRepository.findByRestaurantIdInAndOverlap", (QueryPlanTest t) ->
+                t.reservationRepository.findByRestaurantIdInAndOverlap(List.of(restaurant.getId()), FROM, TO)),
+            query("ReservationRepository.findByEndTimeAfter", (QueryPlanTest t) ->
+                t.reservationRepository.findByEndTimeAfter(FROM)),
+            query("ReservationRepository.findPage by restaurant", (QueryPlanTest t) ->
+                t.reservationRepository.findPage(restaurant.getId(), null,
+                    new ReservationQuery(FROM, TO, "CONFIRMED", null, null), 10)),
+            query("ReservationRepository.findPage by space after cursor", (QueryPlanTest t) ->
+                t.reservationRepository.findPage(restaurant.getId(), space.getId(),
+                    new ReservationQuery(null, null, null, null,
+                        new ReservationCursor(FROM, new ObjectId())), 10)),
+            query("ReservationRepository.findPage of all reservations", (QueryPlanTest t) ->
+                t.reservationRepository.findPage(null, null, new ReservationQuery(), 10)),
+            query("ReservationRepository.streamAll", (QueryPlanTest t) -> {
+                try (Stream<Reservation> reservations = t.reservationRepository.streamAll(10)) {
+                    reservations.forEach(r -> { });
+                }
+            }),
+            query("ReservationRepository.findBySpaceIdEndingAfter", (QueryPlanTest t) ->
+                t.reservationRepository.findBySpaceIdEndingAfter(space.getId(), FROM.minusDays(1), FROM)),
+            query("ReservationRepository.sumPartySizeBySlot", (QueryPlanTest t) ->
+                t.reservationRepository.sumPartySizeBySlot(restaurant.getId(), null, FROM, TO, 10, 30)),
+            query("OccupancyRollupStore.find by restaurant", (QueryPlanTest t) ->
+                t.occupancyRollupStore.find(restaurant.getId(), null, FROM, TO)),
+            query("OccupancyRollupStore.find by space", (QueryPlanTest t) ->
+                t.occupancyRollupStore.find(restaurant.getId(), space.getId(), FROM, TO)),
+            query("OccupancyRollupStore.find of a space from a slot on", (QueryPlanTest t) ->
+                t.occupancyRollupStore.find(space.getId(), FROM)),
+            query("OccupancyRollupStore.days", (QueryPlanTest t) ->
+                t.occupancyRollupStore.days(restaurant.getId(), FROM.toLocalDate())),
+            query("OccupancyPyramidStore.find daily by restaurant", (QueryPlanTest t) ->
+                t.occupancyPyramidStore.find(restaurant.getId(), null, ReportGranularity.DAILY,
+                    FROM.toLocalDate().atStartOfDay(), FROM.toLocalDate().plusDays(1).atStartOfDay())),
+            query("OccupancyPyramidStore.rebuild", (QueryPlanTest t) ->
+                t.occupancyPyramidStore.rebuild(restaurant, FROM.toLocalDate())),
+            query("SlotOccupancyStore.find", (QueryPlanTest t) ->
+                t.slotOccupancyStore.find(space.getId(), FROM)),
+            query("RestaurantRepository.findBySpacesMaxCapacityGreaterThanEqual", (QueryPlanTest t) ->
+                t.restaurantRepository.findBySpacesMaxCapacityGreaterThanEqual(40))
+        );
+    }
+
+    private static Arguments query(String name, Consumer<QueryPlanTest> query) {
+        return Arguments.of(name, query);
+    }
+
+    @BeforeAll
+    static void createData(@Autowired MongoTemplate mongoTemplate) {
+        restaurant = TestDataHelper.createTestRestaurant();
+        space = new Space("Hall", 1, 50);
+        restaurant.getSpaces().add(space);
+        restaurant = mongoTemplate.insert(restaurant);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Reservation reservation = TestDataHelper.createTestReservation("plan" + i + "@example.com", 2);
+            reservation.setRestaurantId(restaurant.getId());
+            reservation.setSpaceId(i % 2 == 0 ? space.getId() : UUID.randomUUID());
+            reservation.setStartTime(FROM.plusMinutes(30L * (i % 8)));
+            reservation.setEndTime(reservation.getStartTime().plusHours(1));
+            reservations.add(reservation);
+        }
+        mongoTemplate.insertAll(reservations);
+        OccupancyRollupStore occupancyRollupStore = new OccupancyRollupStore(mongoTemplate);
+        occupancyRollupStore.add(reservations);
+        new OccupancyPyramidStore(mongoTemplate, occupancyRollupStore).refresh(restaurant, Set.of(FROM.toLocalDate()));
+    }
+
+    @AfterAll
+    static void dropDatabase(@Autowired MongoTemplate mongoTemplate) {
+        mongoTemplate.getDb().drop();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQuery_ShouldNotScanWholeCollection(String name, Consumer<QueryPlanTest> query) {
+        // Given
+        capturedQueries.clear();
+
+        // When
+        query.accept(this);
+
+        // Then
+        List<BsonDocument> commands = capturedQueries.get();
+        assertThat(commands).as("commands sent by %s", name).isNotEmpty();
+        for (BsonDocument command : commands) {
+            Document explained = mongoTemplate.getDb().runCommand(
+                new Document("explain", command).append("verbosity", "queryPlanner"));
+            // find and count explain at the top, a pipeline which is not pushed down whole under its $cursor stage
+            List<Document> winningPlans = winningPlansOf(explained);
+            assertThat(winningPlans).as("explain of %s: %s", name, explained.toJson()).isNotEmpty();
+            for (Document winningPlan : winningPlans) {
+                assertThat(stagesOf(winningPlan)).as("winning plan of %s: %s", name, winningPlan.toJson())
+                    .isNotEmpty()
+                    .doesNotContain("COLLSCAN");
+            }
+        }
+    }
+
+    private static List<Document> winningPlansOf(Object explained) {
+        List<Document> plans = new ArrayList<>();
+        if (explained instanceof Document document) {
+            if (document.get("winningPlan") instanceof Document plan) {
+                plans.add(plan);
+            }
+            document.values().forEach(value -> plans.addAll(winningPlansOf(value)));
+        } else if (explained instanceof List<?> list) {
+            list.forEach(value -> plans.addAll(winningPlansOf(value)));
+        }
+        return plans;
+    }
+
+    // stages anywhere in the plan tree, classic plans nest them under inputStage(s), SBE plans under queryPlan
+    private static List<String> stagesOf(Object plan) {
+        List<String> stages = new ArrayList<>();
+        if (plan instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> stages.addAll(stagesOf(value)));
+        } else if (plan instanceof List<?> list) {
+            list.forEach(value -> stages.addAll(stagesOf(value)));
+        }
+        return stages;
+    }
+
+    @TestConfiguration
+    static class QueryCaptureConfig {
+
+        @Bean
+        CapturedQueries capturedQueries() {
+            return new CapturedQueries();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureQueries(CapturedQueries capturedQueries) {
+            return settings -> settings.addCommandListener(capturedQueries);
+        }
+    }
+
+    static class CapturedQueries implements CommandListener {
+
+        private final List<BsonDocument> commands = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (!QUERY_COMMANDS.contains(event.getCommandName())) {
+                return;
+            }
+            // the started command carries session and routing fields which explain does not accept
+            BsonDocument command = event.getCommand().clone();
+            command.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid") || key.equals("txnNumber"));
+            commands.add(command);
+        }
+
+        void clear() {
+            commands.clear();
+        }
+
+        List<BsonDocument> get() {
+            return List.copyOf(commands);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.config.AvailabilityProperties;
+import com.opentable.privatedining.exception.InvalidReservationException;
+import com.opentable.privatedining.exception.RestaurantNotFoundException;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.availability.RestaurantAvailability;
+import com.opentable.privatedining.model.availability.SpaceAvailability;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    private static final LocalDate DAY = TestDataHelper.RESERVATION_DATE;
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Spy
+    private AvailabilityProperties availabilityProperties = new AvailabilityProperties();
+
+    @Spy
+    private ExecutorService searchExecutor = Executors.newFixedThreadPool(4);
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    private Restaurant restaurant;
+
+    private Space room;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        room = new Space("Room", 4, 10);
+        restaurant.getSpaces().add(room);
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchExecutor.shutdownNow();
+    }
+
+    @Test
+    void getAvailability_WhenNoReservations_ShouldReturnEveryStartWithinWindow() {
+        // Given
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(List.of());
+
+        // When
+        RestaurantAvailability availability = availabilityService.getAvailability(restaurant.getId(), 4,
+            DAY.atTime(19, 0), DAY.atTime(21, 0), 60);
+
+        // Then
+        assertThat(availability.getSpaces()).hasSize(1);
+        assertThat(availability.getSpaces().get(0).getStartTimes())
+            .containsExactly(DAY.atTime(19, 0), DAY.atTime(19, 30), DAY.atTime(20, 0));
+        verify(reservationService, times(1)).getReservationByRestaurantAndOverlap(restaurant.getId(),
+            DAY.atTime(19, 0), DAY.atTime(21, 0));
+    }
+
+    @Test
+    void getAvailability_WhenSlotWouldExceedMaxCapacity_ShouldSkipStartsCoveringIt() {
+        // Given
+        Reservation existing = reservation(room, DAY.atTime(20, 0), DAY.atTime(20, 30), 8);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any()))
+            .thenReturn(List.of(existing));
+
+        // When
+        RestaurantAvailability availability = availabilityService.getAvailability(restaurant.getId(), 4,
+            DAY.atTime(18, 0), DAY.atTime(22, 0), 60);
+
+        // Then
+        // 20:00 - 20:30 would hold 12 people, every hour touching it is unavailable
+        assertThat(availability.getSpaces().get(0).getStartTimes()).containsExactly(DAY.atTime(18, 0),
+            DAY.atTime(18, 30), DAY.atTime(19, 0), DAY.atTime(20, 30), DAY.atTime(21, 0));
+    }
+
+    @Test
+    void getAvailability_WhenPartyOutsideSpaceCapacity_ShouldOmitSpace() {
+        // Given
+        Space small = new Space("Small", 1, 2);
+        restaurant.getSpaces().add(small);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(List.of());
+
+        // When
+        RestaurantAvailability tooSmall = availabilityService.getAvailability(restaurant.getId(), 3,
+            DAY.atTime(19, 0), DAY.atTime(20, 0), 60);
+        RestaurantAvailability fits = availabilityService.getAvailability(restaurant.getId(), 2,
+            DAY.atTime(19, 0), DAY.atTime(20, 0), 60);
+
+        // Then
+        // a party of 3 is too big for Small and below the minimum of Room
+        assertThat(tooSmall.getSpaces()).isEmpty();
+        assertThat(fits.getSpaces()).extracting(SpaceAvailability::getSpaceName).containsExactly("Small");
+    }
+
+    @Test
+    void getAvailability_WhenExistingPartyReachesMinCapacity_ShouldAllowSmallerParty() {
+        // Given
+        Reservation existing = reservation(room, DAY.atTime(19, 0), DAY.atTime(20, 0), 3);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any()))
+            .thenReturn(List.of(existing));
+
+        // When
+        RestaurantAvailability availability = availabilityService.getAvailability(restaurant.getId(), 2,
+            DAY.atTime(19, 0), DAY.atTime(21, 0), 60);
+
+        // Then
+        // 3 + 2 reaches the minimum of 4 only while the existing party is seated
+        assertThat(availability.getSpaces().get(0).getStartTimes()).containsExactly(DAY.atTime(19, 0));
+    }
+
+    @Test
+    void getAvailability_ShouldRespectOperatingHours() {
+        // Given
+        restaurant.setStartTime(LocalTime.of(18, 0));
+        restaurant.setEndTime(LocalTime.of(1, 0));
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(List.of());
+
+        // When
+        RestaurantAvailability availability = availabilityService.getAvailability(restaurant.getId(), 4,
+            DAY.atTime(17, 0), DAY.plusDays(1).atTime(2, 0), 120);
+
+        // Then
+        List<LocalDateTime> startTimes = availability.getSpaces().get(0).getStartTimes();
+        assertThat(startTimes).first().isEqualTo(DAY.atTime(18, 0));
+        // the last start still ends at closing time after midnight
+        assertThat(startTimes).last().isEqualTo(DAY.atTime(23, 0));
+        assertThat(startTimes).hasSize(11);
+    }
+
+    @Test
+    void getAvailability_WhenRestaurantNotFound_ShouldThrowException() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(RestaurantNotFoundException.class, () -> availabilityService.getAvailability(restaurantId, 4,
+            DAY.atTime(19, 0), DAY.atTime(21, 0), 60));
+        verify(reservationService, never()).getReservationByRestaurantAndOverlap(any(), any(), any());
+    }
+
+    @Test
+    void getAvailability_WhenParamsInvalid_ShouldThrowException() {
+        // Given
+        ObjectId restaurantId = restaurant.getId();
+        LocalDateTime from = DAY.atTime(19, 0);
+
+        // When & Then
+        assertThrows(InvalidReservationException.class,
+            () -> availabilityService.getAvailability(restaurantId, 0, from, from.plusHours(2), 60));
+        assertThrows(InvalidReservationException.class,
+            () -> availabilityService.getAvailability(restaurantId, 4, from, from, 60));
+        assertThrows(InvalidReservationException.class,
+            () -> availabilityService.getAvailability(restaurantId, 4, from.plusMinutes(15), from.plusHours(2), 60));
+        assertThrows(InvalidReservationException.class,
+            () -> availabilityService.getAvailability(restaurantId, 4, from, from.plusHours(2), 45));
+        assertThrows(InvalidReservationException.class,
+            () -> availabilityService.getAvailability(restaurantId, 4, from, from.plusDays(40), 60));
+        verify(restaurantService, never()).getRestaurantById(any());
+    }
+
+    @Test
+    void findSearchCandidates_ShouldDropRestaurantsClosedDuringWindow() {
+        // Given
+        Restaurant lunchOnly = TestDataHelper.createTestRestaurant();
+        lunchOnly.setId(new ObjectId());
+        lunchOnly.setStartTime(LocalTime.of(11, 0));
+        lunchOnly.setEndTime(LocalTime.of(15, 0));
+        lunchOnly.getSpaces().add(new Space("Terrace", 1, 50));
+        when(restaurantService.getRestaurantsWithSpaceFor(40)).thenReturn(List.of(restaurant, lunchOnly));
+
+        // When
+        List<Restaurant> candidates = availabilityService.findSearchCandidates(40, DAY.atTime(19, 0),
+            DAY.atTime(22, 0), 180);
+
+        // Then
+        assertThat(candidates).containsExactly(restaurant);
+        verify(reservationService, never()).getReservationByRestaurantsAndOverlap(any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_ShouldEmitOnlyRestaurantsWithAvailableSpace() {
+        // Given
+        availabilityProperties.setSearchChunkSize(2);
+        availabilityProperties.setSearchMaxInFlight(2);
+        List<Restaurant> candidates = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Restaurant candidate = TestDataHelper.createTestRestaurant();
+            candidate.setId(new ObjectId());
+            Space hall = new Space("Hall " + i, 1, 50);
+            candidate.getSpaces().add(hall);
+            candidates.add(candidate);
+            if (i % 2 == 0) {
+                // fully booked for the evening
+                Reservation booked = reservation(hall, DAY.atTime(18, 0), DAY.atTime(23, 0), 20);
+                booked.setRestaurantId(candidate.getId());
+                reservations.add(booked);
+            }
+        }
+        when(reservationService.getReservationByRestaurantsAndOverlap(any(), any(), any()))
+            .thenAnswer(invocation -> {
+                List<ObjectId> ids = invocation.getArgument(0);
+                return reservations.stream().filter(r -> ids.contains(r.getRestaurantId())).toList();
+            });
+
+        // When
+        List<RestaurantAvailability> found = new ArrayList<>();
+        availabilityService.searchAvailability(candidates, 40, DAY.atTime(19, 0), DAY.atTime(22, 0), 180,
+            found::add);
+
+        // Then
+        assertThat(found).extracting(RestaurantAvailability::getRestaurantId).containsExactlyInAnyOrder(
+            candidates.get(1).getId(), candidates.get(3).getId(), candidates.get(5).getId());
+        assertThat(found).allSatisfy(availability -> assertThat(availability.getSpaces().get(0).getStartTimes())
+            .containsExactly(DAY.atTime(19, 0)));
+        // one reservation query per chunk of two restaurants
+        verify(reservationService, times(4)).getReservationByRestaurantsAndOverlap(any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_WhenChunkFails_ShouldRethrowCause() {
+        // Given
+        when(reservationService.getReservationByRestaurantsAndOverlap(any(), any(), any()))
+            .thenThrow(new IllegalStateException("database unavailable"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> availabilityService.searchAvailability(List.of(restaurant),
+            4, DAY.atTime(19, 0), DAY.atTime(22, 0), 60, availability -> { }));
+    }
+
+    private Reservation reservation(Space space, LocalDateTime start, LocalDateTime end, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("availability@example.com", partySize);
+        reservation.setRestaurantId(restaurant.getId());
+        reservation.setSpaceId(space.getId());
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -0,0 +1,100 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.service.BookingMailboxes.BookingRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class BookingMailboxesTest {
+
+    private final Space space = new Space("Test Space", 1, 100);
+
+    @Test
+    void submit_ShouldCompleteEveryRequestWithOneWriterPerSpace() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        BookingMailboxes mailboxes = new BookingMailboxes(executor, 8);
+        List<UUID> spaceIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        ConcurrentHashMap<UUID, AtomicBoolean> writing = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        Consumer<List<BookingRequest>> writer = group -> {
+            AtomicBoolean active = writing.computeIfAbsent(group.get(0).reservation().getSpaceId(),
+                k -> new AtomicBoolean());
+            if (!active.compareAndSet(false, true)) {
+                overlapped.set(true);
+            }
+            assertThat(group).hasSizeLessThanOrEqualTo(8);
+            group.forEach(request -> request.result().complete(request.reservation()));
+            active.set(false);
+        };
+
+        // When
+        List<CompletableFuture<Reservation>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(mailboxes.submit(reservation(spaceIds.get(i % 2)), space, writer));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        mailboxes.destroy();
+
+        // Then
+        assertFalse(overlapped.get(), "Two writers served the same space at once");
+        assertThat(mailboxes.getRequests()).isEqualTo(200);
+        assertThat(mailboxes.getQueued()).isZero();
+        assertThat(mailboxes.getGroups()).isBetween(25L, 200L);
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_WhenWriterFails_ShouldFailTheWholeGroup() {
+        // Given
+        BookingMailboxes mailboxes = new BookingMailboxes(Runnable::run, 8);
+
+        // When
+        CompletableFuture<Reservation> result = mailboxes.submit(reservation(UUID.randomUUID()), space, group -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        // Then
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        assertThat(mailboxes.getGroups()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_WhenExecutorShutDown_ShouldFailRequest() {
+        // Given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        BookingMailboxes mailboxes = new BookingMailboxes(executor, 8);
+        mailboxes.destroy();
+
+        // When
+        CompletableFuture<Reservation> result = mailboxes.submit(reservation(UUID.randomUUID()), space,
+            group -> group.forEach(request -> request.result().complete(request.reservation())));
+
+        // Then
+        assertThrows(CompletionException.class, result::join);
+        assertThat(mailboxes.getQueued()).isZero();
+    }
+
+    private Reservation reservation(UUID spaceId) {
+        Reservation reservation = TestDataHelper.createTestReservation("mailbox@example.com", 2);
+        reservation.setSpaceId(spaceId);
+        return reservation;
+    }
+}
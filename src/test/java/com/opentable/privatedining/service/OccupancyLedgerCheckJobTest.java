@@ -0,0 +1,96 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyLedgerCheckJobTest {
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @Mock
+    private ScheduledExecutorService ledgerCheckScheduler;
+
+    @Mock
+    private JobLeaseStore jobLeaseStore;
+
+    @InjectMocks
+    private OccupancyLedgerCheckJob occupancyLedgerCheckJob;
+
+    @Test
+    void check_WhenLeaseAcquired_ShouldRepairTheLedger() {
+        // Given
+        Drift drift = new Drift(UUID.randomUUID(), LocalDate.now().plusDays(1), 38, 0, 4);
+        when(jobLeaseStore.tryAcquire(OccupancyLedgerCheckJob.JOB, Duration.ofMinutes(30))).thenReturn(true);
+        when(reservationService.verifyOccupancyLedger(true)).thenReturn(List.of(drift));
+
+        // When
+        List<Drift> drifts = occupancyLedgerCheckJob.check();
+
+        // Then
+        assertThat(drifts).containsExactly(drift);
+    }
+
+    @Test
+    void check_WhenAnotherNodeHoldsTheLease_ShouldNotVerify() {
+        // Given
+        when(jobLeaseStore.tryAcquire(any(), any())).thenReturn(false);
+
+        // When
+        List<Drift> drifts = occupancyLedgerCheckJob.check();
+
+        // Then
+        assertThat(drifts).isEmpty();
+        verify(reservationService, never()).verifyOccupancyLedger(anyBoolean());
+    }
+
+    @Test
+    void schedule_WhenLocal_ShouldCheckEveryInterval() {
+        // When
+        occupancyLedgerCheckJob.schedule();
+
+        // Then
+        long interval = Duration.ofMinutes(15).toMillis();
+        verify(ledgerCheckScheduler).scheduleWithFixedDelay(any(), eq(interval), eq(interval),
+            eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void schedule_WhenDistributed_ShouldNotSchedule() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+
+        // When
+        occupancyLedgerCheckJob.schedule();
+
+        // Then
+        verify(ledgerCheckScheduler, never()).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+}
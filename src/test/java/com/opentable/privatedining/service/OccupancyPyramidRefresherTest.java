@@ -0,0 +1,170 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.repository.OccupancyPyramidStore;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyPyramidRefresherTest {
+
+    @Mock
+    private OccupancyPyramidStore occupancyPyramidStore;
+
+    @Mock
+    private OccupancyReportCache occupancyReportCache;
+
+    @Mock
+    private ExecutorService pyramidRefreshExecutor;
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private ObjectProvider<RestaurantService> restaurantServiceProvider;
+
+    @InjectMocks
+    private OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(pyramidRefreshExecutor).execute(any());
+        restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        lenient().when(restaurantServiceProvider.getObject()).thenReturn(restaurantService);
+        lenient().when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+    }
+
+    @Test
+    void refresh_WhenQueuedTwiceBeforeRunning_ShouldRefreshTheDaysOnce() {
+        // Given
+        LocalDateTime monday = LocalDateTime.of(2030, 3, 4, 22, 0);
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(monday, monday.plusHours(3))));
+        occupancyPyramidRefresher.refresh(List.of(reservation(monday.plusDays(3), monday.plusDays(3)
+            .plusHours(1))));
+        queued.forEach(Runnable::run);
+
+        // Then
+        assertThat(queued).hasSize(1);
+        verify(occupancyPyramidStore).refresh(restaurant,
+            Set.of(monday.toLocalDate(), monday.toLocalDate().plusDays(1), monday.toLocalDate().plusDays(3)));
+        verify(occupancyReportCache).invalidate(restaurant.getId());
+        assertThat(occupancyPyramidRefresher.getPending()).isZero();
+    }
+
+    @Test
+    void refresh_WhenQueuedWhileRunning_ShouldQueueAnotherRefresh() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+        occupancyPyramidRefresher.refresh(List.of(reservation(start, start.plusHours(2))));
+        queued.remove(0).run();
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(start, start.plusHours(2))));
+
+        // Then
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void rebuild_ShouldRecomputeEveryDayInsteadOfTheQueuedOnes() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(start, start.plusHours(2))));
+        occupancyPyramidRefresher.rebuild(restaurant.getId());
+        queued.forEach(Runnable::run);
+
+        // Then
+        verify(occupancyPyramidStore).rebuild(restaurant, LocalDate.EPOCH);
+        verify(occupancyPyramidStore, never()).refresh(any(), any());
+    }
+
+    @Test
+    void rebuild_WhenFromADay_ShouldRebuildFromTheEarliestAndRefreshQueuedDaysBeforeIt() {
+        // Given
+        LocalDateTime cancelled = LocalDateTime.of(2030, 2, 1, 18, 0);
+        LocalDate weekAgo = LocalDate.of(2030, 3, 1);
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(cancelled, cancelled.plusHours(2))));
+        occupancyPyramidRefresher.rebuild(restaurant.getId(), weekAgo);
+        occupancyPyramidRefresher.rebuild(restaurant.getId(), weekAgo.plusDays(1));
+        queued.forEach(Runnable::run);
+
+        // Then
+        assertThat(queued).hasSize(1);
+        verify(occupancyPyramidStore).rebuild(restaurant, weekAgo);
+        verify(occupancyPyramidStore).refresh(restaurant, Set.of(cancelled.toLocalDate()));
+        verify(occupancyReportCache).invalidate(restaurant.getId());
+    }
+
+    @Test
+    void refresh_WhenRestaurantDeleted_ShouldSkipIt() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.empty());
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(start, start.plusHours(2))));
+        queued.forEach(Runnable::run);
+
+        // Then
+        verify(occupancyPyramidStore, never()).refresh(any(), any());
+    }
+
+    @Test
+    void refresh_WhenStoreFails_ShouldStillDropCachedReports() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+        doThrow(new IllegalStateException("mongo down")).when(occupancyPyramidStore).refresh(any(), any());
+
+        // When
+        occupancyPyramidRefresher.refresh(List.of(reservation(start, start.plusHours(2))));
+        queued.forEach(Runnable::run);
+
+        // Then
+        verify(occupancyReportCache).invalidate(restaurant.getId());
+    }
+
+    private Reservation reservation(LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = TestDataHelper.createTestReservation("pyramid@example.com", 2);
+        reservation.setRestaurantId(restaurant.getId());
+        reservation.setSpaceId(UUID.randomUUID());
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
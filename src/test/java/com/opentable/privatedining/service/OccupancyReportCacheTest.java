@@ -0,0 +1,149 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+class OccupancyReportCacheTest {
+
+    private final LocalDate day = TestDataHelper.RESERVATION_DATE;
+
+    private final ObjectId restaurantId = new ObjectId();
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    private final BoundedCache<OccupancyReportCache.Key, OccupancyReport> reportCache = new BoundedCache<>(
+        "test.reports", 100, Duration.ZERO);
+
+    private final SingleFlight<OccupancyReportCache.Key, Optional<OccupancyReport>> reportFlights =
+        new SingleFlight<>("test.report.inflight");
+
+    private final OccupancyReportCache occupancyReportCache = new OccupancyReportCache(reportCache, reportFlights);
+
+    @Test
+    void invalidate_ShouldDropOnlyReportsOverlappingTheReservation() {
+        // Given
+        OccupancyReport evening = cache(request(null, day.atTime(18, 0), day.atTime(22, 0)));
+        OccupancyReport lunch = cache(request(null, day.atTime(11, 0), day.atTime(14, 0)));
+        OccupancyReport otherSpace = cache(request(UUID.randomUUID(), day.atTime(18, 0), day.atTime(22, 0)));
+        OccupancyReport touching = cache(request(spaceId, day.atTime(21, 0), day.atTime(23, 0)));
+
+        // When
+        int dropped = occupancyReportCache.invalidate(List.of(reservation(day.atTime(19, 0), day.atTime(21, 0))));
+
+        // Then
+        assertThat(dropped).isEqualTo(1);
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(evening))).isEmpty();
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(lunch))).isPresent();
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(otherSpace))).isPresent();
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(touching))).isPresent();
+        assertThat(reportCache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_WhenOtherRestaurant_ShouldKeepReports() {
+        // Given
+        OccupancyReport evening = cache(request(null, day.atTime(18, 0), day.atTime(22, 0)));
+        Reservation reservation = reservation(day.atTime(19, 0), day.atTime(21, 0));
+        reservation.setRestaurantId(new ObjectId());
+
+        // When
+        int dropped = occupancyReportCache.invalidate(List.of(reservation));
+
+        // Then
+        assertThat(dropped).isZero();
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(evening))).isPresent();
+    }
+
+    @Test
+    void invalidate_WhenRestaurantChanged_ShouldDropAllOfItsReports() {
+        // Given
+        cache(request(null, day.atTime(18, 0), day.atTime(22, 0)));
+        cache(request(spaceId, day.atTime(11, 0), day.atTime(14, 0)));
+
+        // When
+        int dropped = occupancyReportCache.invalidate(restaurantId);
+
+        // Then
+        assertThat(dropped).isEqualTo(2);
+        assertThat(reportCache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_WhenUnrelatedBookingDuringComputation_ShouldStillCacheTheReport() {
+        // Given
+        OccupancyReport evening = request(null, day.atTime(18, 0), day.atTime(22, 0));
+
+        // When
+        occupancyReportCache.get(evening, key -> {
+            // a lunch booking lands while the evening report is read
+            occupancyReportCache.invalidate(List.of(reservation(day.atTime(12, 0), day.atTime(13, 0))));
+            return Optional.of(evening);
+        });
+
+        // Then
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(evening))).containsSame(evening);
+    }
+
+    @Test
+    void invalidate_WhenReportBeingComputed_ShouldNotLetLaterRequestsJoinIt() {
+        // Given
+        OccupancyReport stale = request(null, day.atTime(18, 0), day.atTime(22, 0));
+        OccupancyReport fresh = request(null, day.atTime(18, 0), day.atTime(22, 0));
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        Optional<OccupancyReport> first = occupancyReportCache.get(stale, key -> {
+            loads.incrementAndGet();
+            // a booking lands while the report is computed, a request arriving now must not get this result
+            occupancyReportCache.invalidate(List.of(reservation(day.atTime(19, 0), day.atTime(21, 0))));
+            Optional<OccupancyReport> next = occupancyReportCache.get(fresh, again -> {
+                loads.incrementAndGet();
+                return Optional.of(fresh);
+            });
+            assertThat(next).containsSame(fresh);
+            return Optional.of(stale);
+        });
+
+        // Then
+        assertThat(first).containsSame(stale);
+        assertThat(loads).hasValue(2);
+        assertThat(reportFlights.getCoalesced()).isZero();
+        assertThat(reportCache.getIfPresent(OccupancyReportCache.Key.of(stale))).containsSame(fresh);
+    }
+
+    private OccupancyReport cache(OccupancyReport request) {
+        return occupancyReportCache.get(request, key -> Optional.of(request)).get();
+    }
+
+    private OccupancyReport request(UUID spaceId, LocalDateTime start, LocalDateTime end) {
+        OccupancyReport request = new OccupancyReport();
+        request.setRestaurantId(restaurantId);
+        request.setSpaceId(spaceId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
+    private Reservation reservation(LocalDateTime start, LocalDateTime end) {
+        Reservation reservation = TestDataHelper.createTestReservation("cache@example.com", 4);
+        reservation.setRestaurantId(restaurantId);
+        reservation.setSpaceId(spaceId);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}
@@ -0,0 +1,168 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
+import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyRollupRebuildJobTest {
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private OccupancyRollupStore occupancyRollupStore;
+
+    @Mock
+    private OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    @Spy
+    private ReportingProperties reportingProperties = new ReportingProperties();
+
+    @Mock
+    private ScheduledExecutorService rollupRebuildScheduler;
+
+    @Mock
+    private JobLeaseStore jobLeaseStore;
+
+    @Spy
+    private StripedLockPool spaceLocks = new StripedLockPool("test.lock", 16);
+
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @InjectMocks
+    private OccupancyRollupRebuildJob occupancyRollupRebuildJob;
+
+    @Test
+    void rebuild_ShouldRepairEverySpaceFromTheLookbackWindowOn() {
+        // Given
+        Restaurant first = TestDataHelper.createTestRestaurant();
+        first.setId(new ObjectId());
+        Space terrace = new Space("Terrace", 1, 10);
+        Space cellar = new Space("Cellar", 1, 20);
+        first.setSpaces(List.of(terrace, cellar));
+        Restaurant second = TestDataHelper.createTestRestaurant();
+        second.setId(new ObjectId());
+        List<Reservation> reservations = List.of(TestDataHelper.createTestReservation("rollup@example.com", 4));
+        LocalDate fromDay = LocalDate.now().minusDays(reportingProperties.getRollupRebuildLookbackDays());
+        LocalDateTime from = fromDay.atStartOfDay();
+
+        when(jobLeaseStore.tryAcquire(any(), any())).thenReturn(true);
+        when(restaurantService.getAllRestaurants()).thenReturn(List.of(first, second));
+        when(reservationRepository.findBySpaceIdEndingAfter(terrace.getId(), from.minusDays(1), from))
+            .thenReturn(reservations);
+        when(reservationRepository.findBySpaceIdEndingAfter(cellar.getId(), from.minusDays(1), from))
+            .thenReturn(List.of());
+        when(occupancyRollupStore.repair(first.getId(), terrace.getId(), from, reservations)).thenReturn(3);
+        when(occupancyRollupStore.repair(first.getId(), cellar.getId(), from, List.of())).thenReturn(1);
+
+        // When
+        int drifted = occupancyRollupRebuildJob.rebuild();
+
+        // Then
+        assertThat(drifted).isEqualTo(4);
+        verify(jobLeaseStore).tryAcquire(OccupancyRollupRebuildJob.JOB, Duration.ofHours(2));
+        verify(reservationRepository, never()).findByRestaurantId(any());
+        verify(occupancyPyramidRefresher).rebuild(first.getId(), fromDay);
+        verify(occupancyPyramidRefresher).rebuild(second.getId(), fromDay);
+        assertThat(spaceLocks.getAcquisitions()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_WhenDistributed_ShouldCorrectOnlyDriftSeenTwiceWithoutLocking() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        Space space = new Space("Terrace", 1, 10);
+        restaurant.setSpaces(List.of(space));
+        Reservation reservation = TestDataHelper.createTestReservation("rollup@example.com", 4);
+        reservation.setSpaceId(space.getId());
+        LocalDateTime slotStart = reservation.getStartTime();
+        LocalDateTime from = LocalDate.now().minusDays(reportingProperties.getRollupRebuildLookbackDays())
+            .atStartOfDay();
+
+        when(jobLeaseStore.tryAcquire(any(), any())).thenReturn(true);
+        when(restaurantService.getAllRestaurants()).thenReturn(List.of(restaurant));
+        // the rollup of the first slot missed the booking, the others are current
+        Map<LocalDateTime, Integer> rollups = new HashMap<>(SlotOccupancyStore.count(List.of(reservation)));
+        rollups.put(slotStart, 0);
+        when(occupancyRollupStore.find(space.getId(), from)).thenReturn(rollups);
+        when(reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from))
+            .thenReturn(List.of(reservation));
+
+        // When
+        int first = occupancyRollupRebuildJob.rebuild();
+        // Then
+        assertThat(first).isEqualTo(1);
+        verify(occupancyRollupStore, never()).compareAndSet(any(), any(), any(), anyInt(), anyInt());
+
+        // When
+        occupancyRollupRebuildJob.rebuild();
+        // Then
+        verify(occupancyRollupStore).compareAndSet(restaurant.getId(), space.getId(), slotStart, 0, 4);
+        verify(occupancyRollupStore, never()).repair(any(), any(), any(), any());
+        assertThat(spaceLocks.getAcquisitions()).isZero();
+    }
+
+    @Test
+    void rebuild_WhenAnotherNodeHoldsTheLease_ShouldNotTouchTheRollups() {
+        // Given
+        when(jobLeaseStore.tryAcquire(any(), any())).thenReturn(false);
+
+        // When
+        int drifted = occupancyRollupRebuildJob.rebuild();
+
+        // Then
+        assertThat(drifted).isZero();
+        verify(restaurantService, never()).getAllRestaurants();
+        verify(occupancyRollupStore, never()).repair(any(), any(), any(), any());
+    }
+
+    @Test
+    void schedule_WhenIntervalZero_ShouldNotSchedule() {
+        // Given
+        reportingProperties.setRollupRebuildInterval(Duration.ZERO);
+
+        // When
+        occupancyRollupRebuildJob.schedule();
+
+        // Then
+        verify(rollupRebuildScheduler, never()).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// The aggregation backend must produce exactly the report of the in-JVM sweep on the same seeded reservations
+@Tag("embedded-mongo")
+@SpringBootTest(properties = {"spring.data.mongodb.port=0", "spring.data.mongodb.database=reporting_parity_test"})
+class ReportingBackendParityTest {
+
+    private static final LocalDate DAY = TestDataHelper.RESERVATION_DATE;
+
+    private static Restaurant restaurant;
+
+    @Autowired
+    private ReportingService reportingService;
+
+    private static Stream<Arguments> windows() {
+        return Stream.of(
+            Arguments.of("whole restaurant, one day", null, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()),
+            Arguments.of("whole restaurant, reservations cut by the window", null, DAY.atTime(19, 30),
+                DAY.atTime(21, 0)),
+            Arguments.of("whole restaurant, three days", null, DAY.minusDays(1).atTime(12, 0),
+                DAY.plusDays(2).atTime(12, 0)),
+            Arguments.of("single space, one day", 0, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()),
+            Arguments.of("empty window", null, DAY.plusDays(10).atTime(12, 0), DAY.plusDays(10).atTime(14, 0)));
+    }
+
+    @BeforeAll
+    static void createData(@Autowired MongoTemplate mongoTemplate) {
+        restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.getSpaces().add(new Space("Hall", 1, 80));
+        restaurant.getSpaces().add(new Space("Terrace", 1, 40));
+        restaurant.getSpaces().add(new Space("Cellar", 1, 20));
+        restaurant = mongoTemplate.insert(restaurant);
+
+        Random random = new Random(7);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Space space = restaurant.getSpaces().get(random.nextInt(restaurant.getSpaces().size()));
+            LocalDateTime start = DAY.minusDays(1).atTime(11, 0).plusMinutes(30L * random.nextInt(48 * 3));
+            Reservation reservation = TestDataHelper.createTestReservation("parity" + i + "@example.com",
+                1 + random.nextInt(8));
+            reservation.setRestaurantId(restaurant.getId());
+            reservation.setSpaceId(space.getId());
+            reservation.setStartTime(start);
+            reservation.setEndTime(start.plusMinutes(30L * (1 + random.nextInt(8))));
+            reservations.add(reservation);
+        }
+        // a reservation of a space which no longer exists is ignored by both
+        Reservation orphan = TestDataHelper.createTestReservation("orphan@example.com", 5);
+        orphan.setRestaurantId(restaurant.getId());
+        orphan.setSpaceId(UUID.randomUUID());
+        orphan.setStartTime(DAY.atTime(19, 0));
+        orphan.setEndTime(DAY.atTime(20, 0));
+        reservations.add(orphan);
+        mongoTemplate.insertAll(reservations);
+    }
+
+    @AfterAll
+    static void dropDatabase(@Autowired MongoTemplate mongoTemplate) {
+        mongoTemplate.getDb().drop();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("windows")
+    void getOccupancyReport_AggregationBackend_ShouldMatchJavaBackend(String name, Integer space,
+        LocalDateTime start, LocalDateTime end) {
+        // Given
+        UUID spaceId = space == null ? null : restaurant.getSpaces().get(space).getId();
+
+        // When
+        Optional<OccupancyReport> java = reportingService.getOccupancyReport(request(spaceId, start, end),
+            Backend.JAVA);
+        Optional<OccupancyReport> aggregation = reportingService.getOccupancyReport(request(spaceId, start, end),
+            Backend.AGGREGATION);
+
+        // Then
+        assertThat(java).isPresent();
+        assertThat(aggregation).isPresent();
+        assertThat(aggregation.get()).usingRecursiveComparison().isEqualTo(java.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ReportGranularity.class, names = {"HOURLY", "DAILY"})
+    void getOccupancyReport_CoarseGranularity_AggregationBackend_ShouldMatchJavaBackend(ReportGranularity level) {
+        // Given
+        OccupancyReport request = request(null, DAY.minusDays(1).atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+        request.setGranularity((long) level.getMinutes());
+
+        // When
+        Optional<OccupancyReport> java = reportingService.getOccupancyReport(request, Backend.JAVA);
+        Optional<OccupancyReport> aggregation = reportingService.getOccupancyReport(request, Backend.AGGREGATION);
+
+        // Then
+        assertThat(java).isPresent();
+        assertThat(aggregation).isPresent();
+        assertThat(aggregation.get()).usingRecursiveComparison().isEqualTo(java.get());
+    }
+
+    private static OccupancyReport request(UUID spaceId, LocalDateTime start, LocalDateTime end) {
+        OccupancyReport request = new OccupancyReport();
+        request.setRestaurantId(restaurant.getId());
+        request.setSpaceId(spaceId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+}
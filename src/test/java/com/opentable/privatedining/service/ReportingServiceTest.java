@@ -3,11 +3,19 @@ package com.opentable.privatedining.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.OccupancyHeatmap;
+import com.opentable.privatedining.common.OccupancyLevel;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.config.ReportingProperties;
+import com.opentable.privatedining.config.ReportingProperties.Backend;
 import com.opentable.privatedining.exception.InvalidReportingException;
 import com.opentable.privatedining.exception.RestaurantNotFoundException;
 import com.opentable.privatedining.exception.SpaceNotFoundException;
@@ -15,13 +23,28 @@ import com.opentable.privatedining.mapper.reporting.OccupancyReportMapper;
 import com.opentable.privatedining.model.Reservation;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.model.reporting.BucketOccupancy;
+import com.opentable.privatedining.model.reporting.HeatmapReport;
+import com.opentable.privatedining.model.reporting.OccupancyChunk;
 import com.opentable.privatedining.model.reporting.OccupancyData;
-import com.opentable.privatedining.model.reporting.OccupancyPoint;
 import com.opentable.privatedining.model.reporting.OccupancyReport;
+import com.opentable.privatedining.model.reporting.OccupancyReportStream;
+import com.opentable.privatedining.model.reporting.OccupancySeries;
+import com.opentable.privatedining.model.reporting.PortfolioReport;
+import com.opentable.privatedining.model.reporting.ReportGranularity;
+import com.opentable.privatedining.model.reporting.SlotOccupancy;
+import com.opentable.privatedining.repository.OccupancyPyramidStore;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
@@ -31,6 +54,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +69,25 @@ public class ReportingServiceTest {
     @Mock
     private ReservationService reservationService;
 
+    @Spy
+    private SpaceIndex spaceIndex = new SpaceIndex();
+
+    @Spy
+    private ReportingProperties reportingProperties = new ReportingProperties();
+
+    @Mock
+    private OccupancyRollupStore occupancyRollupStore;
+
+    @Mock
+    private OccupancyPyramidStore occupancyPyramidStore;
+
+    @Spy
+    private OccupancyReportCache occupancyReportCache = new OccupancyReportCache(
+        new BoundedCache<>("test.reports", 100, Duration.ZERO), new SingleFlight<>("test.report.inflight"));
+
+    @Mock
+    private ExecutorService reportSeriesExecutor;
+
     @InjectMocks
     private ReportingService reportingService;
 
@@ -184,24 +227,16 @@ public class ReportingServiceTest {
         Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request);
         verify(reservationService).getReservationByRestaurantAndOverlap(restaurantId, request.getStart(),
             request.getEnd());
-        verify(restaurantService, times(2)).getRestaurantById(restaurantId);
+        verify(restaurantService, times(1)).getRestaurantById(restaurantId);
 
         OccupancyReport expected = new OccupancyReport(restaurantId, null, request.getStart(),
-            request.getEnd(), new OccupancyData(restaurantId.toHexString(), restaurant.getName(),
-            List.of(
-                new OccupancyPoint(request.getStart(), request.getStart().plusMinutes(30), 400, 70, 0.175d),
-                new OccupancyPoint(request.getStart().plusMinutes(30), request.getStart().plusMinutes(60), 400,
-                    0, 0d))
-        ),
+            request.getEnd(), new OccupancyData(restaurantId.toHexString(), restaurant.getName(), 400,
+            OccupancyLevel.of(new int[]{70, 0})),
             List.of(
-                new OccupancyData(testSpace1.getId().toString(), testSpace1.getName(),
-                    List.of(new OccupancyPoint(request.getStart(), request.getStart().plusMinutes(30), 100, 70, 0.7d),
-                        new OccupancyPoint(request.getStart().plusMinutes(30), request.getStart().plusMinutes(60), 100,
-                            0, 0d))),
-                new OccupancyData(testSpace2.getId().toString(), testSpace2.getName(),
-                    List.of(new OccupancyPoint(request.getStart(), request.getStart().plusMinutes(30), 300, 0, 0d),
-                        new OccupancyPoint(request.getStart().plusMinutes(30), request.getStart().plusMinutes(60), 300,
-                            0, 0d))))
+                new OccupancyData(testSpace1.getId().toString(), testSpace1.getName(), 100,
+                    OccupancyLevel.of(new int[]{70, 0})),
+                new OccupancyData(testSpace2.getId().toString(), testSpace2.getName(), 300,
+                    OccupancyLevel.of(new int[]{0, 0})))
         );
 
         assertThat(actual).isPresent();
@@ -231,27 +266,426 @@ public class ReportingServiceTest {
         when(occupancyReportMapper.copy(request)).thenReturn(request);
         when(reservationService.getReservationByRestaurantAndSpaceAndOverlap(any(), any(), any(), any())).thenReturn(
             List.of(reservation1, reservation2));
-        when(restaurantService.getSpaceById(any(), any())).thenReturn(Optional.of(testSpace1));
 
         // When & Then
         Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request);
         verify(reservationService).getReservationByRestaurantAndSpaceAndOverlap(restaurantId, testSpace1.getId(),
             request.getStart(), request.getEnd());
-        verify(restaurantService).getSpaceById(restaurantId, testSpace1.getId());
+        verify(restaurantService, never()).getSpaceById(any(), any());
 
         OccupancyReport expected = new OccupancyReport(restaurantId, testSpace1.getId(), request.getStart(),
             request.getEnd(), null,
-            List.of(new OccupancyData(testSpace1.getId().toString(), testSpace1.getName(),
-                List.of(new OccupancyPoint(request.getStart(), request.getStart().plusMinutes(30), 100, 70, 0.7d),
-                    new OccupancyPoint(request.getStart().plusMinutes(30), request.getStart().plusMinutes(60), 100, 0,
-                        0d)))));
+            List.of(new OccupancyData(testSpace1.getId().toString(), testSpace1.getName(), 100,
+                OccupancyLevel.of(new int[]{70, 0}))));
 
         assertThat(actual).isPresent();
         assertThat(actual.get()).usingRecursiveComparison().isEqualTo(expected);
     }
 
+    @Test
+    void getOccupancyReport_WhenAboveParallelThreshold_ShouldMatchSequentialReport() throws Exception {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        List<Space> spaces = List.of(new Space("Space 1", 1, 10), new Space("Space 2", 1, 20),
+            new Space("Space 3", 1, 30));
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(18, 0);
+        OccupancyReport request = new OccupancyReport(restaurantId, null, start, start.plusHours(3),
+            (long) ReportGranularity.HOURLY.getMinutes(), null, null);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(restaurantId);
+        restaurant.setSpaces(spaces);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < spaces.size(); i++) {
+            Reservation reservation = TestDataHelper.createTestReservation("parallel@example.com", 4 + i);
+            reservation.setSpaceId(spaces.get(i).getId());
+            reservation.setStartTime(start.plusMinutes(30L * (i + 1)));
+            reservation.setEndTime(start.plusMinutes(30L * (i + 4)));
+            reservations.add(reservation);
+        }
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        // a report per call, both reports are compared
+        when(occupancyReportMapper.copy(request)).thenAnswer(invocation -> new OccupancyReport(restaurantId, null,
+            start, request.getEnd(), request.getGranularity(), null, null));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(reservations);
+        when(reportSeriesExecutor.invokeAll(any()))
+            .thenAnswer(invocation -> ForkJoinPool.commonPool().invokeAll(invocation.getArgument(0)));
+        Optional<OccupancyReport> sequential = reportingService.getOccupancyReport(request, Backend.JAVA);
+        reportingProperties.setParallelThreads(2);
+        reportingProperties.setParallelThreshold(0);
+
+        // When
+        Optional<OccupancyReport> parallel = reportingService.getOccupancyReport(request, Backend.JAVA);
+
+        // Then
+        verify(reportSeriesExecutor).invokeAll(argThat(tasks -> tasks.size() == 2));
+        assertThat(parallel).isPresent();
+        assertThat(parallel.get()).usingRecursiveComparison().isEqualTo(sequential.get());
+        assertThat(parallel.get().getRestaurantData().getOccupancy().peaks()).containsExactly(4, 15, 11);
+    }
+
+    @Test
+    void getOccupancyReport_WhenAggregationBackend_ShouldBuildReportFromSlotSums() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace1 = new Space("Test Space 1", 10, 100);
+        Space testSpace2 = new Space("Test Space 2", 30, 300);
+        OccupancyReport request = createTestRequest(restaurantId);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace1, testSpace2));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(request)).thenReturn(request);
+        when(reservationService.getOccupancyBySlot(restaurantId, null, request.getStart(), request.getEnd(), 2, 30))
+            .thenReturn(List.of(new SlotOccupancy(testSpace1.getId(), 0, 70), new SlotOccupancy(testSpace2.getId(), 1,
+                30)));
+
+        // When
+        Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request, Backend.AGGREGATION);
+
+        // Then
+        verify(reservationService, never()).getReservationByRestaurantAndOverlap(any(), any(), any());
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getRestaurantData().getOccupancy().peaks()).containsExactly(70, 30);
+        assertThat(actual.get().getSpaceData().get(1).getOccupancy().peaks()).containsExactly(0, 30);
+    }
+
+    @Test
+    void getOccupancyReport_WhenRollupBackend_ShouldNotReadReservations() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        OccupancyReport request = createTestRequest(restaurantId);
+        request.setSpaceId(testSpace.getId());
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(request)).thenReturn(request);
+        when(occupancyRollupStore.find(restaurantId, testSpace.getId(), request.getStart(), request.getEnd()))
+            .thenReturn(List.of(new SlotOccupancy(testSpace.getId(), 1, 40)));
+
+        // When
+        Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request, Backend.ROLLUP);
+
+        // Then
+        verify(reservationService, never()).getReservationByRestaurantAndSpaceAndOverlap(any(), any(), any(), any());
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getSpaceData().get(0).getCapacity()).isEqualTo(100);
+        assertThat(actual.get().getSpaceData().get(0).getOccupancy().peaks()).containsExactly(0, 40);
+    }
+
+    @Test
+    void getHeatmapReport_ShouldFoldEachChunkIntoTheWeek() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space terrace = new Space("Terrace", 1, 40);
+        Space cellar = new Space("Cellar", 1, 20);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(restaurantId);
+        restaurant.setSpaces(List.of(terrace, cellar));
+        LocalDateTime monday = LocalDate.of(2026, 1, 5).atStartOfDay();
+        reportingProperties.setHeatmapChunk(Duration.ofDays(7));
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        // Monday 19:00 is slot 38 of each week
+        when(occupancyRollupStore.find(restaurantId, null, monday, monday.plusWeeks(1)))
+            .thenReturn(List.of(new SlotOccupancy(terrace.getId(), 38, 30), new SlotOccupancy(cellar.getId(), 38, 10)));
+        when(occupancyRollupStore.find(restaurantId, null, monday.plusWeeks(1), monday.plusWeeks(2)))
+            .thenReturn(List.of(new SlotOccupancy(terrace.getId(), 38, 10)));
+
+        // When
+        HeatmapReport actual = reportingService.getHeatmapReport(new HeatmapReport(restaurantId, null, monday,
+            monday.plusWeeks(2)), Backend.ROLLUP);
+
+        // Then
+        verify(occupancyRollupStore, times(2)).find(any(), any(), any(), any());
+        OccupancyHeatmap total = actual.getRestaurantData().getHeatmap();
+        assertThat(actual.getRestaurantData().getCapacity()).isEqualTo(60);
+        assertThat(total.peak(DayOfWeek.MONDAY, 38)).isEqualTo(40);
+        assertThat(total.average(DayOfWeek.MONDAY, 38)).isEqualTo(25d);
+        assertThat(actual.getSpaceData().get(0).getHeatmap().average(DayOfWeek.MONDAY, 38)).isEqualTo(20d);
+        assertThat(actual.getSpaceData().get(1).getHeatmap().peak(DayOfWeek.MONDAY, 38)).isEqualTo(10);
+    }
+
+    @Test
+    void getHeatmapReport_WhenNotWholeDays_ShouldThrowException() {
+        // Given
+        LocalDateTime start = LocalDate.of(2026, 1, 5).atTime(12, 0);
+
+        // When & Then
+        assertThrows(InvalidReportingException.class, () -> reportingService.getHeatmapReport(
+            new HeatmapReport(new ObjectId(), null, start, start.plusDays(7)), null));
+        verify(restaurantService, never()).getRestaurantById(any());
+    }
+
+    @Test
+    void getOccupancyReport_WhenRequestedAgain_ShouldServeReportFromCache() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        OccupancyReport request = createTestRequest(restaurantId);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(any())).thenAnswer(invocation -> new OccupancyReport());
+
+        // When
+        Optional<OccupancyReport> first = reportingService.getOccupancyReport(createTestRequest(restaurantId));
+        Optional<OccupancyReport> second = reportingService.getOccupancyReport(request);
+
+        // Then
+        verify(reservationService, times(1)).getReservationByRestaurantAndOverlap(any(), any(), any());
+        // existence is still checked on every request
+        verify(restaurantService, times(2)).getRestaurantById(restaurantId);
+        assertThat(second.get()).isSameAs(first.get());
+    }
+
+    @Test
+    void getOccupancyReport_WhenBackendRequested_ShouldBypassCache() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(any())).thenAnswer(invocation -> new OccupancyReport());
+
+        // When
+        reportingService.getOccupancyReport(createTestRequest(restaurantId));
+        reportingService.getOccupancyReport(createTestRequest(restaurantId), Backend.JAVA);
+
+        // Then
+        verify(reservationService, times(2)).getReservationByRestaurantAndOverlap(any(), any(), any());
+    }
+
+    @Test
+    void getOccupancyReport_WhenHourly_ShouldReportPeakAndAverageOfEachHour() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+        OccupancyReport request = createTestRequest(restaurantId);
+        request.setStart(start);
+        request.setEnd(start.plusHours(2));
+        request.setGranularity((long) ReportGranularity.HOURLY.getMinutes());
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace));
+        Reservation early = TestDataHelper.createTestReservation("early@example.com", 40);
+        early.setSpaceId(testSpace.getId());
+        early.setStartTime(start);
+        early.setEndTime(start.plusMinutes(30));
+        Reservation late = TestDataHelper.createTestReservation("late@example.com", 10);
+        late.setSpaceId(testSpace.getId());
+        late.setStartTime(start.plusMinutes(30));
+        late.setEndTime(start.plusMinutes(90));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(request)).thenReturn(request);
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(
+            List.of(early, late));
+
+        // When
+        Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request);
+
+        // Then
+        assertThat(actual).isPresent();
+        OccupancyLevel hours = actual.get().getRestaurantData().getOccupancy();
+        assertThat(hours.getSlotsPerBucket()).isEqualTo(2);
+        assertThat(hours.peaks()).containsExactly(40, 10);
+        assertThat(hours.average(0)).isEqualTo(25d);
+        assertThat(hours.average(1)).isEqualTo(5d);
+    }
+
+    @Test
+    void getOccupancyReport_WhenDailyFromRollups_ShouldReadPyramidBuckets() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atStartOfDay();
+        OccupancyReport request = createTestRequest(restaurantId);
+        request.setStart(start);
+        request.setEnd(start.plusDays(2));
+        request.setGranularity((long) ReportGranularity.DAILY.getMinutes());
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setSpaces(List.of(testSpace));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(occupancyReportMapper.copy(request)).thenReturn(request);
+        when(occupancyPyramidStore.find(restaurantId, null, ReportGranularity.DAILY, start, start.plusDays(2)))
+            .thenReturn(List.of(new BucketOccupancy(testSpace.getId(), 1, 60, 480),
+                new BucketOccupancy(null, 1, 60, 480), new BucketOccupancy(UUID.randomUUID(), 0, 20, 40)));
+
+        // When
+        Optional<OccupancyReport> actual = reportingService.getOccupancyReport(request, Backend.ROLLUP);
+
+        // Then
+        verify(occupancyRollupStore, never()).find(any(), any(), any(), any());
+        assertThat(actual).isPresent();
+        OccupancyLevel days = actual.get().getSpaceData().get(0).getOccupancy();
+        assertThat(days.peaks()).containsExactly(0, 60);
+        assertThat(days.average(1)).isEqualTo(10d);
+        assertThat(actual.get().getRestaurantData().getOccupancy().peaks()).containsExactly(0, 60);
+    }
+
+    @Test
+    void getOccupancyReport_WhenWeeklyNotStartingOnMonday_ShouldThrowException() {
+        // Given
+        LocalDateTime monday = LocalDateTime.of(2026, 1, 26, 0, 0);
+        OccupancyReport request = createTestRequest(new ObjectId());
+        request.setStart(monday.plusDays(1));
+        request.setEnd(monday.plusWeeks(2));
+        request.setGranularity((long) ReportGranularity.WEEKLY.getMinutes());
+
+        // When & Then
+        assertThrows(InvalidReportingException.class, () -> reportingService.getOccupancyReport(request));
+    }
+
+    @Test
+    void streamOccupancyReport_ShouldComputeOneChunkAtATimeInTimeOrder() {
+        // Given
+        reportingProperties.setStreamChunk(Duration.ofHours(1));
+        ObjectId restaurantId = new ObjectId();
+        Space testSpace = new Space("Test Space", 10, 100);
+        OccupancyReport request = createTestRequest(restaurantId);
+        request.setStart(request.getStart().minusMinutes(30));
+        request.setEnd(request.getStart().plusMinutes(90));
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(restaurantId);
+        restaurant.setSpaces(List.of(testSpace));
+        Reservation reservation = TestDataHelper.createTestReservation("stream@example.com", 20);
+        reservation.setSpaceId(testSpace.getId());
+        reservation.setStartTime(request.getStart().plusMinutes(60));
+        reservation.setEndTime(request.getStart().plusMinutes(90));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationService.getReservationByRestaurantAndOverlap(any(), any(), any())).thenReturn(
+            List.of(reservation));
+
+        // When
+        OccupancyReportStream stream = reportingService.streamOccupancyReport(request, null);
+
+        // Then
+        // nothing is computed before the chunks are read
+        verify(reservationService, never()).getReservationByRestaurantAndOverlap(any(), any(), any());
+        assertThat(stream.series()).extracting(OccupancySeries::capacity).containsExactly(100, 100);
+        OccupancyChunk first = stream.chunks().next();
+        OccupancyChunk second = stream.chunks().next();
+        assertThat(stream.chunks().hasNext()).isFalse();
+        assertThat(first.start()).isEqualTo(request.getStart());
+        assertThat(first.series().get(0).size()).isEqualTo(2);
+        assertThat(second.start()).isEqualTo(request.getStart().plusHours(1));
+        assertThat(second.series().get(1).peak(0)).isEqualTo(20);
+        verify(reservationService).getReservationByRestaurantAndOverlap(restaurantId, request.getStart(),
+            request.getStart().plusHours(1));
+        verify(reservationService).getReservationByRestaurantAndOverlap(restaurantId,
+            request.getStart().plusHours(1), request.getEnd());
+    }
+
+    @Test
+    void getPortfolioReport_ShouldReadReservationsOnceAndTotalEachRestaurant() throws Exception {
+        // Given
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+        Restaurant first = portfolioRestaurant(new Space("Terrace", 1, 10));
+        Restaurant second = portfolioRestaurant(new Space("Cellar", 1, 20), new Space("Loft", 1, 30));
+        when(restaurantService.getRestaurantsByIds(any())).thenReturn(List.of(second, first));
+        when(reservationService.getReservationByRestaurantsAndOverlap(any(), any(), any())).thenReturn(List.of(
+            portfolioReservation(first, 0, start, start.plusMinutes(30), 4),
+            portfolioReservation(second, 0, start, start.plusHours(1), 6),
+            portfolioReservation(second, 1, start.plusMinutes(30), start.plusHours(1), 8)));
+
+        // When
+        PortfolioReport actual = reportingService.getPortfolioReport(new PortfolioReport(
+            List.of(first.getId(), second.getId(), first.getId()), null, start, start.plusHours(1), 30L));
+
+        // Then
+        verify(reservationService).getReservationByRestaurantsAndOverlap(List.of(first.getId(), second.getId()),
+            start, start.plusHours(1));
+        verify(restaurantService, never()).getRestaurantById(any());
+        verify(reportSeriesExecutor, never()).invokeAll(any());
+        assertThat(actual.getRestaurantIds()).containsExactly(first.getId(), second.getId());
+        assertThat(actual.getRestaurantData()).extracting(OccupancyData::getCapacity).containsExactly(10, 50);
+        assertThat(actual.getRestaurantData().get(0).getOccupancy().peaks()).containsExactly(4, 0);
+        assertThat(actual.getRestaurantData().get(1).getOccupancy().peaks()).containsExactly(6, 14);
+        assertThat(actual.getPortfolioData().getCapacity()).isEqualTo(60);
+        assertThat(actual.getPortfolioData().getOccupancy().peaks()).containsExactly(10, 14);
+    }
+
+    @Test
+    void getPortfolioReport_WhenAboveParallelThreshold_ShouldSplitRestaurantsAcrossTasks() throws Exception {
+        // Given
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(18, 0);
+        List<Restaurant> restaurants = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Restaurant restaurant = portfolioRestaurant(new Space("Space", 1, 10));
+            restaurants.add(restaurant);
+            reservations.add(portfolioReservation(restaurant, 0, start.plusHours(i), start.plusHours(i + 1), i + 1));
+        }
+        when(restaurantService.getRestaurantsByCuisineType("Italian")).thenReturn(restaurants);
+        when(reservationService.getReservationByRestaurantsAndOverlap(any(), any(), any())).thenReturn(reservations);
+        when(reportSeriesExecutor.invokeAll(any()))
+            .thenAnswer(invocation -> ForkJoinPool.commonPool().invokeAll(invocation.getArgument(0)));
+        reportingProperties.setParallelThreads(2);
+        reportingProperties.setParallelThreshold(0);
+
+        // When
+        PortfolioReport actual = reportingService.getPortfolioReport(new PortfolioReport(null, "Italian", start,
+            start.plusHours(3), (long) ReportGranularity.HOURLY.getMinutes()));
+
+        // Then
+        verify(reportSeriesExecutor).invokeAll(argThat(tasks -> tasks.size() == 2));
+        assertThat(actual.getRestaurantIds()).containsExactlyElementsOf(
+            restaurants.stream().map(Restaurant::getId).toList());
+        assertThat(actual.getRestaurantData().get(2).getOccupancy().peaks()).containsExactly(0, 0, 3);
+        assertThat(actual.getPortfolioData().getOccupancy().peaks()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void getPortfolioReport_WhenRestaurantUnknown_ShouldThrowRestaurantNotFoundException() {
+        // Given
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+        Restaurant known = portfolioRestaurant(new Space("Terrace", 1, 10));
+        when(restaurantService.getRestaurantsByIds(any())).thenReturn(List.of(known));
+
+        // When & Then
+        assertThrows(RestaurantNotFoundException.class, () -> reportingService.getPortfolioReport(
+            new PortfolioReport(List.of(known.getId(), new ObjectId()), null, start, start.plusHours(1), 30L)));
+        verify(reservationService, never()).getReservationByRestaurantsAndOverlap(any(), any(), any());
+    }
+
+    @Test
+    void getPortfolioReport_WhenBothIdsAndCuisineType_ShouldThrowException() {
+        // Given
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+
+        // When & Then
+        assertThrows(InvalidReportingException.class, () -> reportingService.getPortfolioReport(
+            new PortfolioReport(List.of(new ObjectId()), "Italian", start, start.plusHours(1), 30L)));
+        assertThrows(InvalidReportingException.class, () -> reportingService.getPortfolioReport(
+            new PortfolioReport(null, " ", start, start.plusHours(1), 30L)));
+    }
+
+    private Restaurant portfolioRestaurant(Space... spaces) {
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        restaurant.setSpaces(List.of(spaces));
+        return restaurant;
+    }
+
+    private Reservation portfolioReservation(Restaurant restaurant, int space, LocalDateTime start,
+        LocalDateTime end, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("portfolio@example.com", partySize);
+        reservation.setRestaurantId(restaurant.getId());
+        reservation.setSpaceId(restaurant.getSpaces().get(space).getId());
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+
     private OccupancyReport createTestRequest(ObjectId restaurantId) {
-        LocalDateTime start = LocalDateTime.of(2026, 1, 30, 21, 30);
+        LocalDateTime start = TestDataHelper.RESERVATION_DATE.atTime(21, 30);
 
         OccupancyReport request = new OccupancyReport();
         request.setRestaurantId(restaurantId);
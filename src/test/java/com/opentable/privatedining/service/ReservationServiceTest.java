@@ -7,38 +7,68 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.common.BoundedCache;
+import com.opentable.privatedining.common.SingleFlight;
+import com.opentable.privatedining.common.StripedLockPool;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
 import com.opentable.privatedining.exception.InvalidReservationException;
 import com.opentable.privatedining.exception.ReservationConflictException;
 import com.opentable.privatedining.exception.RestaurantNotFoundException;
 import com.opentable.privatedining.exception.SpaceNotFoundException;
+import com.opentable.privatedining.model.BatchReservationResult;
+import com.opentable.privatedining.model.BatchReservationResult.Status;
 import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.ReservationCursor;
+import com.opentable.privatedining.model.ReservationPage;
+import com.opentable.privatedining.model.ReservationQuery;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.OccupancyRollupStore;
 import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
 
 @ExtendWith(MockitoExtension.class)
 class ReservationServiceTest {
@@ -49,25 +79,71 @@ class ReservationServiceTest {
     @Mock
     private RestaurantService restaurantService;
 
+    @Spy
+    private SlotOccupancyLedger occupancyLedger = new SlotOccupancyLedger();
+
+    @Mock
+    private SlotOccupancyStore slotOccupancyStore;
+
+    @Mock
+    private OccupancyRollupStore occupancyRollupStore;
+
+    @Mock
+    private OccupancyPyramidRefresher occupancyPyramidRefresher;
+
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @Spy
+    private StripedLockPool spaceLocks = new StripedLockPool("test.space.lock", 16);
+
+    // runs the space writer on the calling thread
+    @Spy
+    private BookingMailboxes bookingMailboxes = new BookingMailboxes(Runnable::run, 64);
+
+    @Spy
+    private SpaceIndex spaceIndex = new SpaceIndex();
+
+    @Spy
+    private OccupancyReportCache occupancyReportCache = new OccupancyReportCache(
+        new BoundedCache<>("test.reports", 100, Duration.ZERO), new SingleFlight<>("test.report.inflight"));
+
     @InjectMocks
     private ReservationService reservationService;
 
     @Test
-    void getAllReservations_ShouldReturnAllReservations() {
+    void getReservations_ShouldPageOverAllReservations() {
         // Given
         Reservation reservation1 = TestDataHelper.createTestReservation("customer1@example.com", 4);
         Reservation reservation2 = TestDataHelper.createTestReservation("customer2@example.com", 6);
-        List<Reservation> reservations = Arrays.asList(reservation1, reservation2);
+        ReservationQuery query = new ReservationQuery();
+        when(reservationRepository.findPage(null, null, query, bookingProperties.getDefaultPageSize() + 1))
+            .thenReturn(List.of(reservation1, reservation2));
 
-        when(reservationRepository.findAll()).thenReturn(reservations);
+        // When
+        ReservationPage result = reservationService.getReservations(query);
+
+        // Then
+        assertThat(result.getReservations()).containsExactly(reservation1, reservation2);
+        assertThat(result.getNext()).isNull();
+        verify(reservationRepository, never()).findAll();
+    }
+
+    @Test
+    void streamReservations_ShouldReadFromCursorInExportBatches() {
+        // Given
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        when(reservationRepository.streamAll(bookingProperties.getExportBatchSize()))
+            .thenReturn(Stream.of(reservation));
 
         // When
-        List<Reservation> result = reservationService.getAllReservations();
+        List<Reservation> result;
+        try (Stream<Reservation> reservations = reservationService.streamReservations()) {
+            result = reservations.toList();
+        }
 
         // Then
-        assertEquals(2, result.size());
-        assertThat(result).containsExactlyInAnyOrder(reservation1, reservation2);
-        verify(reservationRepository).findAll();
+        assertThat(result).containsExactly(reservation);
     }
 
     @Test
@@ -201,6 +277,32 @@ class ReservationServiceTest {
         assertThat(result).isEqualTo(savedReservation);
         verify(restaurantService).getRestaurantById(restaurantId);
         verify(reservationRepository).save(reservation);
+        verify(occupancyRollupStore).add(List.of(savedReservation));
+        verify(occupancyPyramidRefresher).refresh(List.of(savedReservation));
+        verify(occupancyReportCache).invalidate(List.of(savedReservation));
+    }
+
+    @Test
+    void createReservation_WhenRollupUpdateFails_ShouldStillReturnSavedReservation() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        reservation.setRestaurantId(restaurantId);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 2, 8);
+        space.setId(reservation.getSpaceId());
+        restaurant.setSpaces(List.of(space));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.save(reservation)).thenReturn(reservation);
+        doThrow(new IllegalStateException("rollups unavailable")).when(occupancyRollupStore).add(any());
+
+        // When
+        Reservation result = reservationService.createReservation(reservation);
+
+        // Then
+        // the booking stands, the rebuild job repairs the rollups
+        assertThat(result).isEqualTo(reservation);
     }
 
     @Test
@@ -247,7 +349,7 @@ class ReservationServiceTest {
         ObjectId restaurantId = new ObjectId();
         UUID spaceId = UUID.randomUUID();
         Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
-        reservation.setStartTime(LocalDateTime.of(2026, 1, 30, 9, 0)); // Before opening time
+        reservation.setStartTime(TestDataHelper.RESERVATION_DATE.atTime(9, 0)); // Before opening time
         reservation.setRestaurantId(restaurantId);
         reservation.setSpaceId(spaceId);
 
@@ -270,7 +372,7 @@ class ReservationServiceTest {
         ObjectId restaurantId = new ObjectId();
         UUID spaceId = UUID.randomUUID();
         Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
-        reservation.setEndTime(LocalDateTime.of(2026, 1, 31, 3, 0)); // After closing time
+        reservation.setEndTime(TestDataHelper.RESERVATION_DATE.plusDays(1).atTime(3, 0)); // After closing time
         reservation.setRestaurantId(restaurantId);
         reservation.setSpaceId(spaceId);
 
@@ -531,6 +633,526 @@ class ReservationServiceTest {
         verify(reservationRepository, times(2)).save(any());
     }
 
+    @Test
+    void createReservation_WhenSpaceAlreadyHydrated_ShouldCheckCapacityWithoutQuery() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+
+        Reservation first = TestDataHelper.createTestReservation("first@example.com", 5);
+        first.setRestaurantId(restaurantId);
+        first.setSpaceId(spaceId);
+        Reservation second = TestDataHelper.createTestReservation("second@example.com", 5);
+        second.setRestaurantId(restaurantId);
+        second.setSpaceId(spaceId);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.save(first)).thenReturn(first);
+
+        // When
+        reservationService.createReservation(first);
+
+        // Then
+        assertThrows(ReservationConflictException.class, () -> reservationService.createReservation(second));
+        verify(reservationRepository, times(1)).findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any());
+        verify(reservationRepository, never()).save(second);
+    }
+
+    @Test
+    void deleteReservation_WhenSpaceHydrated_ShouldReleaseCapacity() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+
+        Reservation existing = TestDataHelper.createTestReservation("existing@example.com", 6);
+        existing.setId(new ObjectId());
+        existing.setRestaurantId(restaurantId);
+        existing.setSpaceId(spaceId);
+        occupancyLedger.load(spaceId, existing.getStartTime(), existing.getEndTime(), List.of(existing));
+
+        Reservation newReservation = TestDataHelper.createTestReservation("new@example.com", 6);
+        newReservation.setRestaurantId(restaurantId);
+        newReservation.setSpaceId(spaceId);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findById(existing.getId())).thenReturn(Optional.of(existing));
+        when(reservationRepository.save(newReservation)).thenReturn(newReservation);
+
+        // When
+        reservationService.deleteReservation(existing.getId());
+        Reservation result = reservationService.createReservation(newReservation);
+
+        // Then
+        assertThat(result).isEqualTo(newReservation);
+        verify(reservationRepository, never()).findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any());
+    }
+
+    @Test
+    void verifyOccupancyLedger_WhenLedgerDrifted_ShouldReportAndRepair() {
+        // Given
+        UUID spaceId = UUID.randomUUID();
+        Reservation stored = TestDataHelper.createTestReservation("stored@example.com", 4);
+        stored.setSpaceId(spaceId);
+        LocalDateTime start = stored.getStartTime();
+        occupancyLedger.load(spaceId, start, stored.getEndTime(), List.of());
+
+        when(reservationRepository.findBySpaceIdAndOverlap(any(), any(), any())).thenReturn(List.of(stored));
+
+        // When
+        List<SlotOccupancyLedger.Drift> drifts = reservationService.verifyOccupancyLedger(true);
+
+        // Then
+        assertEquals(6, drifts.size());
+        assertThat(drifts).allMatch(drift -> drift.expected() == 4 && drift.actual() == 0);
+        assertTrue(reservationService.verifyOccupancyLedger(false).isEmpty());
+    }
+
+    @Test
+    void rebuildOccupancyLedger_ShouldHoldEveryStripeWhileReadingAndSwapping() {
+        // Given
+        Reservation stored = TestDataHelper.createTestReservation("stored@example.com", 4);
+        stored.setSpaceId(UUID.randomUUID());
+        when(reservationRepository.findByEndTimeAfter(any())).thenReturn(List.of(stored));
+
+        // When
+        reservationService.rebuildOccupancyLedger();
+
+        // Then
+        InOrder inOrder = inOrder(spaceLocks, reservationRepository, occupancyLedger);
+        inOrder.verify(spaceLocks).lockAllStripes();
+        inOrder.verify(reservationRepository).findByEndTimeAfter(any());
+        inOrder.verify(occupancyLedger).rebuild(List.of(stored), LocalDate.now());
+        inOrder.verify(spaceLocks).unlockAll(anyList());
+        assertThat(occupancyLedger.loadedDays()).containsKey(stored.getSpaceId());
+    }
+
+    @Test
+    void rebuildOccupancyLedger_WhenNotLocal_ShouldNotRebuild() {
+        for (CapacityMode mode : List.of(CapacityMode.ACTOR, CapacityMode.DISTRIBUTED)) {
+            // Given
+            bookingProperties.setCapacityMode(mode);
+
+            // When
+            reservationService.rebuildOccupancyLedger();
+        }
+
+        // Then
+        verify(reservationRepository, never()).findByEndTimeAfter(any());
+        verify(occupancyLedger, never()).rebuild(any(), any());
+    }
+
+    @Test
+    void createReservation_WhenDayRolledOver_ShouldReleasePastLedgerDays() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation reservation = batchItem(restaurantId, spaceId, 19, 4);
+        // hydrated by a booking of yesterday, before midnight
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        occupancyLedger.replace(spaceId, yesterday, new int[SlotOccupancyLedger.SLOTS_PER_DAY]);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.save(reservation)).thenReturn(reservation);
+
+        // When
+        reservationService.createReservation(reservation);
+
+        // Then
+        assertThat(occupancyLedger.snapshot(spaceId, yesterday)).isEmpty();
+        assertThat(occupancyLedger.loadedDays().get(spaceId)).containsExactly(reservation.getStartTime().toLocalDate());
+    }
+
+    @Test
+    void createReservation_WhenDistributedAndSlotsAvailable_ShouldReserveCountersAndSave() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        reservation.setRestaurantId(restaurantId);
+        reservation.setSpaceId(spaceId);
+
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 2, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(slotOccupancyStore.tryReserve(restaurantId, spaceId, reservation.getStartTime(),
+            reservation.getEndTime(), 4, 2, 8)).thenReturn(Optional.empty());
+        when(reservationRepository.save(reservation)).thenReturn(reservation);
+
+        // When
+        Reservation result = reservationService.createReservation(reservation);
+
+        // Then
+        assertThat(result).isEqualTo(reservation);
+        verify(reservationRepository, never()).findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any());
+        verify(slotOccupancyStore, never()).release(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createReservation_WhenDistributedAndSlotFull_ShouldThrowConflict() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        reservation.setRestaurantId(restaurantId);
+        reservation.setSpaceId(spaceId);
+        LocalDateTime fullSlot = reservation.getStartTime().plusMinutes(60);
+
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 2, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(slotOccupancyStore.tryReserve(any(), any(), any(), any(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(Optional.of(fullSlot));
+        when(slotOccupancyStore.getOccupancy(spaceId, fullSlot)).thenReturn(6);
+
+        // When & Then
+        ReservationConflictException e = assertThrows(ReservationConflictException.class,
+            () -> reservationService.createReservation(reservation));
+        assertThat(e.getMessage()).contains("Invalid capacity 10 starts from " + fullSlot);
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void createReservation_WhenDistributedAndSaveFails_ShouldReleaseCounters() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        reservation.setRestaurantId(restaurantId);
+        reservation.setSpaceId(spaceId);
+
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Test Space", 2, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(slotOccupancyStore.tryReserve(any(), any(), any(), any(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(Optional.empty());
+        when(reservationRepository.save(reservation)).thenThrow(new IllegalStateException("write failed"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> reservationService.createReservation(reservation));
+        verify(slotOccupancyStore).release(spaceId, reservation.getStartTime(), reservation.getEndTime(), 4);
+    }
+
+    @Test
+    void deleteReservation_WhenDistributed_ShouldReleaseCountersOnce() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId reservationId = new ObjectId();
+        Reservation reservation = TestDataHelper.createTestReservation("customer@example.com", 4);
+        reservation.setId(reservationId);
+
+        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.removeById(reservationId)).thenReturn(1L).thenReturn(0L);
+
+        // When
+        reservationService.deleteReservation(reservationId);
+        reservationService.deleteReservation(reservationId);
+
+        // Then
+        verify(slotOccupancyStore, times(1)).release(reservation.getSpaceId(), reservation.getStartTime(),
+            reservation.getEndTime(), 4);
+        verify(occupancyRollupStore, times(1)).remove(List.of(reservation));
+        verify(occupancyPyramidRefresher, times(1)).refresh(List.of(reservation));
+        verify(occupancyReportCache, times(1)).invalidate(List.of(reservation));
+    }
+
+    @Test
+    void createReservations_ShouldQueryEachSpaceOnceAndInsertAcceptedInBulk() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID patioId = UUID.randomUUID();
+        UUID cellarId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space patio = new Space("Patio", 1, 8);
+        patio.setId(patioId);
+        Space cellar = new Space("Cellar", 1, 8);
+        cellar.setId(cellarId);
+        restaurant.setSpaces(List.of(patio, cellar));
+
+        Reservation patioEarly = batchItem(restaurantId, patioId, 19, 5);
+        Reservation cellarItem = batchItem(restaurantId, cellarId, 19, 8);
+        Reservation patioClash = batchItem(restaurantId, patioId, 19, 4);
+        Reservation patioLate = batchItem(restaurantId, patioId, 21, 3);
+        Reservation unknownSpace = batchItem(restaurantId, UUID.randomUUID(), 19, 2);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<BatchReservationResult> results = reservationService.createReservations(
+            List.of(patioEarly, cellarItem, patioClash, patioLate, unknownSpace));
+
+        // Then
+        assertThat(results).extracting(BatchReservationResult::getStatus).containsExactly(Status.CREATED,
+            Status.CREATED, Status.CONFLICT, Status.CREATED, Status.NOT_FOUND);
+        assertThat(results).extracting(BatchReservationResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        verify(restaurantService, times(1)).getRestaurantById(restaurantId);
+        verify(reservationRepository, times(2)).findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any());
+        verify(reservationRepository, times(1)).insert(List.of(patioEarly, patioLate, cellarItem));
+        verify(reservationRepository, never()).save(any(Reservation.class));
+        assertThat(spaceLocks.getAcquisitions()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void createReservations_WhenInsertFails_ShouldReleaseLedgerCapacity() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation reservation = batchItem(restaurantId, spaceId, 19, 8);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.insert(anyList())).thenThrow(new IllegalStateException("write failed"));
+
+        // When
+        List<BatchReservationResult> results = reservationService.createReservations(List.of(reservation));
+
+        // Then
+        assertThat(results).extracting(BatchReservationResult::getStatus).containsExactly(Status.FAILED);
+        assertThat(results.get(0).getMessage()).contains("write failed");
+        assertThat(occupancyLedger.findConflict(spaceId, reservation.getStartTime(), reservation.getEndTime(), 8, 1,
+            8)).isEmpty();
+    }
+
+    @Test
+    void createReservations_WhenInsertStopsPartway_ShouldReleaseOnlyUnstoredItems() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation stored = batchItem(restaurantId, spaceId, 19, 8);
+        Reservation rejected = batchItem(restaurantId, spaceId, 21, 8);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        DuplicateKeyException duplicateKey = duplicateKeyAt(1);
+        when(reservationRepository.insert(anyList())).thenThrow(duplicateKey);
+
+        // When
+        List<BatchReservationResult> results = reservationService.createReservations(List.of(stored, rejected));
+
+        // Then
+        assertThat(results).extracting(BatchReservationResult::getStatus)
+            .containsExactly(Status.CREATED, Status.FAILED);
+        assertThat(results.get(0).getReservation().getId()).isEqualTo(stored.getId()).isNotNull();
+        assertThat(occupancyLedger.findConflict(spaceId, stored.getStartTime(), stored.getEndTime(), 8, 1, 8))
+            .isPresent();
+        assertThat(occupancyLedger.findConflict(spaceId, rejected.getStartTime(), rejected.getEndTime(), 8, 1, 8))
+            .isEmpty();
+        verify(occupancyRollupStore).add(List.of(stored));
+        verify(reservationRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void createReservations_WhenDistributedInsertOutcomeUnknown_ShouldKeepCounters() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation reservation = batchItem(restaurantId, spaceId, 19, 6);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(slotOccupancyStore.tryReserve(any(), any(), any(), any(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(Optional.empty());
+        when(reservationRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(reservationRepository.findAllById(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When
+        List<BatchReservationResult> results = reservationService.createReservations(List.of(reservation));
+
+        // Then
+        assertThat(results).extracting(BatchReservationResult::getStatus).containsExactly(Status.FAILED);
+        assertThat(results.get(0).getMessage()).contains("may not have been stored");
+        verify(slotOccupancyStore, never()).release(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createReservations_WhenDistributed_ShouldReserveCountersAndInsertInBulk() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.DISTRIBUTED);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation accepted = batchItem(restaurantId, spaceId, 19, 6);
+        Reservation full = batchItem(restaurantId, spaceId, 19, 6);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(slotOccupancyStore.tryReserve(any(), any(), any(), any(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(Optional.empty()).thenReturn(Optional.of(accepted.getStartTime()));
+        when(slotOccupancyStore.getOccupancy(spaceId, accepted.getStartTime())).thenReturn(6);
+        when(reservationRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<BatchReservationResult> results = reservationService.createReservations(List.of(accepted, full));
+
+        // Then
+        assertThat(results).extracting(BatchReservationResult::getStatus)
+            .containsExactly(Status.CREATED, Status.CONFLICT);
+        verify(reservationRepository).insert(List.of(accepted));
+        verify(slotOccupancyStore, never()).release(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createReservations_WhenBatchEmpty_ShouldThrowInvalidReservation() {
+        // When & Then
+        assertThrows(InvalidReservationException.class, () -> reservationService.createReservations(List.of()));
+    }
+
+    @Test
+    void createReservation_WhenActorMode_ShouldCommitThroughSpaceWriter() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.ACTOR);
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation first = batchItem(restaurantId, spaceId, 19, 5);
+        Reservation second = batchItem(restaurantId, spaceId, 19, 5);
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Reservation result = reservationService.createReservation(first);
+
+        // Then
+        assertThat(result).isEqualTo(first);
+        verify(reservationRepository).insert(List.of(first));
+        verify(reservationRepository, never()).save(any(Reservation.class));
+        assertThrows(ReservationConflictException.class, () -> reservationService.createReservation(second));
+        assertThat(bookingMailboxes.getGroups()).isEqualTo(2);
+    }
+
+    @Test
+    void submitReservation_WhenQueuedTogether_ShouldValidateInOrderAndInsertOnce() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation first = batchItem(restaurantId, spaceId, 19, 5);
+        Reservation clash = batchItem(restaurantId, spaceId, 19, 5);
+        Reservation later = batchItem(restaurantId, spaceId, 20, 5);
+
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(reservationRepository.insert(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        // queue three bookings before the writer runs
+        List<Runnable> writerTasks = new ArrayList<>();
+        BookingMailboxes deferred = new BookingMailboxes(writerTasks::add, 64);
+        reservationService = new ReservationService(reservationRepository, restaurantService, occupancyLedger,
+            slotOccupancyStore, occupancyRollupStore, occupancyPyramidRefresher, bookingProperties, spaceLocks, deferred,
+            spaceIndex, occupancyReportCache);
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        CompletableFuture<Reservation> firstResult = reservationService.submitReservation(first);
+        CompletableFuture<Reservation> clashResult = reservationService.submitReservation(clash);
+        CompletableFuture<Reservation> laterResult = reservationService.submitReservation(later);
+
+        // When
+        writerTasks.forEach(Runnable::run);
+
+        // Then
+        assertThat(writerTasks).hasSize(1);
+        assertThat(firstResult.join()).isEqualTo(first);
+        assertThat(laterResult.join()).isEqualTo(later);
+        CompletionException e = assertThrows(CompletionException.class, clashResult::join);
+        assertThat(e.getCause()).isInstanceOf(ReservationConflictException.class);
+        verify(reservationRepository, times(1)).findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any());
+        verify(reservationRepository, times(1)).insert(List.of(first, later));
+    }
+
+    @Test
+    void submitReservation_WhenGroupInsertStopsPartway_ShouldSettleEachRequestAndReleaseOnlyUnstored() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        UUID spaceId = UUID.randomUUID();
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        Space space = new Space("Patio", 1, 8);
+        space.setId(spaceId);
+        restaurant.setSpaces(List.of(space));
+        Reservation stored = batchItem(restaurantId, spaceId, 19, 8);
+        Reservation rejected = batchItem(restaurantId, spaceId, 20, 8);
+
+        when(reservationRepository.findByRestaurantIdAndSpaceIdAndOverlap(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        DuplicateKeyException duplicateKey = duplicateKeyAt(1);
+        when(reservationRepository.insert(anyList())).thenThrow(duplicateKey);
+        List<Runnable> writerTasks = new ArrayList<>();
+        BookingMailboxes deferred = new BookingMailboxes(writerTasks::add, 64);
+        reservationService = new ReservationService(reservationRepository, restaurantService, occupancyLedger,
+            slotOccupancyStore, occupancyRollupStore, occupancyPyramidRefresher, bookingProperties, spaceLocks, deferred,
+            spaceIndex, occupancyReportCache);
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        CompletableFuture<Reservation> storedResult = reservationService.submitReservation(stored);
+        CompletableFuture<Reservation> rejectedResult = reservationService.submitReservation(rejected);
+
+        // When
+        writerTasks.forEach(Runnable::run);
+
+        // Then
+        assertThat(storedResult.join()).isEqualTo(stored);
+        CompletionException e = assertThrows(CompletionException.class, rejectedResult::join);
+        assertThat(e.getCause()).isInstanceOf(DuplicateKeyException.class);
+        assertThat(occupancyLedger.findConflict(spaceId, stored.getStartTime(), stored.getEndTime(), 8, 1, 8))
+            .isPresent();
+        assertThat(occupancyLedger.findConflict(spaceId, rejected.getStartTime(), rejected.getEndTime(), 8, 1, 8))
+            .isEmpty();
+        verify(occupancyRollupStore).add(List.of(stored));
+    }
+
     @Test
     void deleteReservation_WhenReservationExists_ShouldReturnTrue() {
         // Given
@@ -565,62 +1187,125 @@ class ReservationServiceTest {
     }
 
     @Test
-    void getReservationsByRestaurant_ShouldReturnFilteredReservations() {
+    void getReservationsByRestaurant_WhenMoreThanOnePage_ShouldReturnCursorOfLastItem() {
         // Given
-        ObjectId restaurantId = new ObjectId();
-        ObjectId otherRestaurantId = new ObjectId();
-
-        Reservation reservation1 = TestDataHelper.createTestReservation("customer1@example.com", 4);
-        reservation1.setRestaurantId(restaurantId);
-
-        Reservation reservation2 = TestDataHelper.createTestReservation("customer2@example.com", 6);
-        reservation2.setRestaurantId(otherRestaurantId);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        List<Reservation> stored = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Reservation reservation = batchItem(restaurant.getId(), UUID.randomUUID(), 18 + i, 4);
+            reservation.setId(new ObjectId());
+            stored.add(reservation);
+        }
+        ReservationQuery query = new ReservationQuery(null, null, "CONFIRMED", 2, null);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findPage(restaurant.getId(), null, query, 3)).thenReturn(stored);
 
-        Reservation reservation3 = TestDataHelper.createTestReservation("customer3@example.com", 2);
-        reservation3.setRestaurantId(restaurantId);
+        // When
+        ReservationPage page = reservationService.getReservationsByRestaurant(restaurant.getId(), query);
 
-        List<Reservation> allReservations = Arrays.asList(reservation1, reservation2, reservation3);
+        // Then
+        assertThat(page.getReservations()).containsExactly(stored.get(0), stored.get(1));
+        assertThat(page.getNext()).isEqualTo(ReservationCursor.of(stored.get(1)));
+        assertThat(ReservationCursor.decode(page.getNext().encode())).isEqualTo(page.getNext());
+        verify(reservationRepository, never()).findAll();
+    }
 
-        when(reservationRepository.findAll()).thenReturn(allReservations);
+    @Test
+    void getReservationsByRestaurant_WhenLastPage_ShouldReturnNoCursor() {
+        // Given
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        Reservation reservation = batchItem(restaurant.getId(), UUID.randomUUID(), 19, 4);
+        ReservationQuery query = new ReservationQuery();
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findPage(restaurant.getId(), null, query,
+            bookingProperties.getDefaultPageSize() + 1)).thenReturn(List.of(reservation));
 
         // When
-        List<Reservation> result = reservationService.getReservationsByRestaurant(restaurantId);
+        ReservationPage page = reservationService.getReservationsByRestaurant(restaurant.getId(), query);
 
         // Then
-        assertEquals(2, result.size());
-        assertThat(result).containsExactlyInAnyOrder(reservation1, reservation3);
-        verify(reservationRepository).findAll();
+        assertThat(page.getReservations()).containsExactly(reservation);
+        assertThat(page.getNext()).isNull();
     }
 
     @Test
-    void getReservationsBySpace_ShouldReturnFilteredReservations() {
+    void getReservationsByRestaurant_WhenQueryInvalid_ShouldThrowException() {
         // Given
-        ObjectId restaurantId = new ObjectId();
-        UUID spaceId = UUID.randomUUID();
-        UUID otherSpaceId = UUID.randomUUID();
-
-        Reservation reservation1 = TestDataHelper.createTestReservation("customer1@example.com", 4);
-        reservation1.setRestaurantId(restaurantId);
-        reservation1.setSpaceId(spaceId);
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        LocalDateTime from = TestDataHelper.RESERVATION_DATE.atTime(19, 0);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
 
-        Reservation reservation2 = TestDataHelper.createTestReservation("customer2@example.com", 6);
-        reservation2.setRestaurantId(restaurantId);
-        reservation2.setSpaceId(otherSpaceId);
+        // When & Then
+        assertThrows(InvalidReservationException.class, () -> reservationService.getReservationsByRestaurant(
+            restaurant.getId(), new ReservationQuery(null, null, null, bookingProperties.getMaxPageSize() + 1, null)));
+        assertThrows(InvalidReservationException.class, () -> reservationService.getReservationsByRestaurant(
+            restaurant.getId(), new ReservationQuery(from, from, null, null, null)));
+        verify(reservationRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
 
-        Reservation reservation3 = TestDataHelper.createTestReservation("customer3@example.com", 2);
-        reservation3.setRestaurantId(restaurantId);
-        reservation3.setSpaceId(spaceId);
+    @Test
+    void getReservationsByRestaurant_WhenRestaurantNotFound_ShouldThrowException() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.empty());
 
-        List<Reservation> allReservations = Arrays.asList(reservation1, reservation2, reservation3);
+        // When & Then
+        assertThrows(RestaurantNotFoundException.class,
+            () -> reservationService.getReservationsByRestaurant(restaurantId, new ReservationQuery()));
+    }
 
-        when(reservationRepository.findAll()).thenReturn(allReservations);
+    @Test
+    void getReservationsBySpace_ShouldQueryOnlyThatSpace() {
+        // Given
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        Space space = new Space("Room", 1, 10);
+        restaurant.getSpaces().add(space);
+        Reservation reservation = batchItem(restaurant.getId(), space.getId(), 19, 4);
+        LocalDateTime from = TestDataHelper.RESERVATION_DATE.atStartOfDay();
+        ReservationQuery query = new ReservationQuery(from, from.plusDays(1), null, 10, null);
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(reservationRepository.findPage(restaurant.getId(), space.getId(), query, 11))
+            .thenReturn(List.of(reservation));
 
         // When
-        List<Reservation> result = reservationService.getReservationsBySpace(restaurantId, spaceId);
+        ReservationPage page = reservationService.getReservationsBySpace(restaurant.getId(), space.getId(), query);
 
         // Then
-        assertEquals(2, result.size());
-        assertThat(result).containsExactlyInAnyOrder(reservation1, reservation3);
-        verify(reservationRepository).findAll();
+        assertThat(page.getReservations()).containsExactly(reservation);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    void getReservationsBySpace_WhenSpaceNotFound_ShouldThrowException() {
+        // Given
+        Restaurant restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        when(restaurantService.getRestaurantById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+
+        // When & Then
+        assertThrows(SpaceNotFoundException.class, () -> reservationService.getReservationsBySpace(
+            restaurant.getId(), UUID.randomUUID(), new ReservationQuery()));
+        verify(reservationRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    // what the repository throws when an ordered insert fails on the document at index, create it before stubbing
+    private static DuplicateKeyException duplicateKeyAt(int index) {
+        MongoBulkWriteException bulkWriteException = mock(MongoBulkWriteException.class);
+        when(bulkWriteException.getWriteErrors())
+            .thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), index)));
+        return new DuplicateKeyException("duplicate key", bulkWriteException);
+    }
+
+    private Reservation batchItem(ObjectId restaurantId, UUID spaceId, int startHour, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("batch@example.com", partySize);
+        reservation.setRestaurantId(restaurantId);
+        reservation.setSpaceId(spaceId);
+        reservation.setStartTime(TestDataHelper.RESERVATION_DATE.atTime(startHour, 0));
+        reservation.setEndTime(TestDataHelper.RESERVATION_DATE.atTime(startHour + 1, 0));
+        return reservation;
     }
-}
\ No newline at end of file
+}
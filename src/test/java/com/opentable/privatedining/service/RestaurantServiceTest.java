@@ -7,12 +7,15 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.opentable.privatedining.common.BoundedCache;
 import com.opentable.privatedining.model.Restaurant;
 import com.opentable.privatedining.model.Space;
 import com.opentable.privatedining.repository.RestaurantRepository;
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +35,88 @@ class RestaurantServiceTest {
     @Mock
     private RestaurantRepository restaurantRepository;
 
+    @Spy
+    private BoundedCache<ObjectId, Restaurant> restaurantCache = new BoundedCache<>("test.restaurants", 100,
+        Duration.ZERO);
+
+    @Spy
+    private SpaceIndex spaceIndex = new SpaceIndex();
+
+    @Mock
+    private OccupancyReportCache occupancyReportCache;
+
+    @Mock
+    private OccupancyPyramidRefresher occupancyPyramidRefresher;
+
     @InjectMocks
     private RestaurantService restaurantService;
 
+    @Test
+    void removeSpaceFromRestaurant_ShouldDropSpaceFromIndex() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Restaurant restaurant = new Restaurant("Test Restaurant", "Address", "Italian", 50, LocalTime.of(10, 0),
+            LocalTime.of(22, 0));
+        restaurant.setId(restaurantId);
+        Space kept = new Space("Patio", 2, 10);
+        Space removed = new Space("Cellar", 2, 10);
+        restaurant.getSpaces().add(kept);
+        restaurant.getSpaces().add(removed);
+        spaceIndex.index(restaurant);
+        when(restaurantRepository.findById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(restaurantRepository.save(restaurant)).thenReturn(restaurant);
+
+        // When
+        restaurantService.removeSpaceFromRestaurant(restaurantId, removed.getId());
+
+        // Then
+        assertThat(spaceIndex.size()).isEqualTo(1);
+        assertThat(spaceIndex.find(restaurant, kept.getId())).containsSame(kept);
+    }
+
+    @Test
+    void getRestaurantById_WhenCalledTwice_ShouldFetchOnce() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Restaurant restaurant = new Restaurant("Test Restaurant", "Address", "Italian", 50, LocalTime.of(10, 0),
+            LocalTime.of(22, 0));
+        when(restaurantRepository.findById(restaurantId)).thenReturn(Optional.of(restaurant));
+
+        // When
+        restaurantService.getRestaurantById(restaurantId);
+        Optional<Restaurant> result = restaurantService.getRestaurantById(restaurantId);
+
+        // Then
+        assertThat(result).containsSame(restaurant);
+        verify(restaurantRepository, times(1)).findById(restaurantId);
+        assertEquals(0.5, restaurantCache.getHitRate());
+    }
+
+    @Test
+    void addSpaceToRestaurant_WhenRestaurantCached_ShouldInvalidateCache() {
+        // Given
+        ObjectId restaurantId = new ObjectId();
+        Restaurant cached = new Restaurant("Test Restaurant", "Address", "Italian", 50, LocalTime.of(10, 0),
+            LocalTime.of(22, 0));
+        Restaurant stored = new Restaurant("Test Restaurant", "Address", "Italian", 50, LocalTime.of(10, 0),
+            LocalTime.of(22, 0));
+        Space space = new Space("Patio", 2, 10);
+        when(restaurantRepository.findById(restaurantId)).thenReturn(Optional.of(cached))
+            .thenReturn(Optional.of(stored)).thenReturn(Optional.of(stored));
+        when(restaurantRepository.save(stored)).thenReturn(stored);
+        restaurantService.getRestaurantById(restaurantId);
+
+        // When
+        restaurantService.addSpaceToRestaurant(restaurantId, space);
+        Optional<Space> result = restaurantService.getSpaceById(restaurantId, space.getId());
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(restaurantCache).invalidate(restaurantId);
+        verify(occupancyReportCache).invalidate(restaurantId);
+        assertEquals(0, restaurantCache.getHits());
+    }
+
     @Test
     void getAllRestaurants_ShouldReturnAllRestaurants() {
         // Given
@@ -131,6 +214,8 @@ class RestaurantServiceTest {
         assertThat(result.get()).isEqualTo(updatedRestaurant);
         verify(restaurantRepository).findById(restaurantId);
         verify(restaurantRepository).save(updatedRestaurant);
+        // same spaces, the pyramid totals still hold
+        verify(occupancyPyramidRefresher, never()).rebuild(any());
     }
 
     @Test
@@ -211,6 +296,7 @@ class RestaurantServiceTest {
         assertThat(result.get()).isEqualTo(updatedRestaurant);
         verify(restaurantRepository).findById(restaurantId);
         verify(restaurantRepository).save(restaurant);
+        verify(occupancyPyramidRefresher).rebuild(restaurantId);
     }
 
     @Test
@@ -259,6 +345,7 @@ class RestaurantServiceTest {
         assertEquals(0, restaurant.getSpaces().size());
         verify(restaurantRepository).findById(restaurantId);
         verify(restaurantRepository).save(restaurant);
+        verify(occupancyPyramidRefresher).rebuild(restaurantId);
     }
 
     @Test
@@ -338,48 +425,4 @@ class RestaurantServiceTest {
         assertFalse(result.isPresent());
         verify(restaurantRepository).findById(restaurantId);
     }
-
-    @Test
-    void spaceExistsInRestaurant_WhenSpaceExists_ShouldReturnTrue() {
-        // Given
-        ObjectId restaurantId = new ObjectId();
-        UUID spaceId = UUID.randomUUID();
-
-        Space space = new Space("Private Room", 2, 10);
-        space.setId(spaceId);
-
-        Restaurant restaurant = new Restaurant("Test Restaurant", "Test Address", "Test Cuisine", 50,
-            LocalTime.of(11, 0), LocalTime.of(23, 0));
-        restaurant.setId(restaurantId);
-        restaurant.getSpaces().add(space);
-
-        when(restaurantRepository.findById(restaurantId)).thenReturn(Optional.of(restaurant));
-
-        // When
-        boolean result = restaurantService.spaceExistsInRestaurant(restaurantId, spaceId);
-
-        // Then
-        assertTrue(result);
-        verify(restaurantRepository).findById(restaurantId);
-    }
-
-    @Test
-    void spaceExistsInRestaurant_WhenSpaceNotFound_ShouldReturnFalse() {
-        // Given
-        ObjectId restaurantId = new ObjectId();
-        UUID spaceId = UUID.randomUUID();
-
-        Restaurant restaurant = new Restaurant("Test Restaurant", "Test Address", "Test Cuisine", 50,
-            LocalTime.of(11, 0), LocalTime.of(23, 0));
-        restaurant.setId(restaurantId);
-
-        when(restaurantRepository.findById(restaurantId)).thenReturn(Optional.of(restaurant));
-
-        // When
-        boolean result = restaurantService.spaceExistsInRestaurant(restaurantId, spaceId);
-
-        // Then
-        assertFalse(result);
-        verify(restaurantRepository).findById(restaurantId);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.config.BookingProperties;
+import com.opentable.privatedining.config.BookingProperties.CapacityMode;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.model.Restaurant;
+import com.opentable.privatedining.model.Space;
+import com.opentable.privatedining.repository.JobLeaseStore;
+import com.opentable.privatedining.repository.ReservationRepository;
+import com.opentable.privatedining.repository.SlotOccupancyStore;
+import com.opentable.privatedining.service.SlotOccupancyLedger.Drift;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SlotCounterCheckJobTest {
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SlotOccupancyStore slotOccupancyStore;
+
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @Mock
+    private ScheduledExecutorService slotCounterCheckScheduler;
+
+    @Mock
+    private JobLeaseStore jobLeaseStore;
+
+    @InjectMocks
+    private SlotCounterCheckJob slotCounterCheckJob;
+
+    private Restaurant restaurant;
+
+    private Space space;
+
+    private LocalDateTime slotStart;
+
+    private LocalDateTime from;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = TestDataHelper.createTestRestaurant();
+        restaurant.setId(new ObjectId());
+        space = new Space("Patio", 1, 10);
+        restaurant.setSpaces(List.of(space));
+        from = LocalDate.now().atStartOfDay();
+        slotStart = from.plusDays(1).withHour(19);
+    }
+
+    @Test
+    void check_WhenCounterBelowReservations_ShouldRaiseItRightAway() {
+        // Given
+        givenLeaseAndRestaurant();
+        when(slotOccupancyStore.find(space.getId(), from)).thenReturn(Map.of(slotStart, 2));
+        when(reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from))
+            .thenReturn(List.of(reservation(slotStart, 6)));
+        when(slotOccupancyStore.compareAndSet(any(), any(), any(), anyInt(), anyInt())).thenReturn(true);
+
+        // When
+        List<Drift> drifts = slotCounterCheckJob.check(true);
+
+        // Then
+        assertThat(drifts).containsExactlyInAnyOrder(
+            new Drift(space.getId(), slotStart.toLocalDate(), 38, 6, 2),
+            new Drift(space.getId(), slotStart.toLocalDate(), 39, 6, 0));
+        verify(slotOccupancyStore).compareAndSet(restaurant.getId(), space.getId(), slotStart, 2, 6);
+        verify(slotOccupancyStore).compareAndSet(restaurant.getId(), space.getId(), slotStart.plusMinutes(30), 0, 6);
+    }
+
+    @Test
+    void check_WhenCounterAboveReservations_ShouldLowerItOnlyOnceSeenTwice() {
+        // Given
+        givenLeaseAndRestaurant();
+        when(slotOccupancyStore.find(space.getId(), from)).thenReturn(Map.of(slotStart, 4));
+        when(reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from))
+            .thenReturn(List.of());
+
+        // When
+        List<Drift> first = slotCounterCheckJob.check(true);
+        // Then
+        assertThat(first).containsExactly(new Drift(space.getId(), slotStart.toLocalDate(), 38, 0, 4));
+        verify(slotOccupancyStore, never()).compareAndSet(any(), any(), any(), anyInt(), anyInt());
+
+        // When
+        slotCounterCheckJob.check(true);
+        // Then
+        verify(slotOccupancyStore, times(1)).compareAndSet(restaurant.getId(), space.getId(), slotStart, 4, 0);
+    }
+
+    @Test
+    void check_WhenNotRepairing_ShouldOnlyReport() {
+        // Given
+        givenLeaseAndRestaurant();
+        when(slotOccupancyStore.find(space.getId(), from)).thenReturn(Map.of(slotStart, 1));
+        when(reservationRepository.findBySpaceIdEndingAfter(space.getId(), from.minusDays(1), from))
+            .thenReturn(List.of());
+
+        // When
+        List<Drift> drifts = slotCounterCheckJob.check(false);
+
+        // Then
+        assertThat(drifts).hasSize(1);
+        verify(slotOccupancyStore, never()).compareAndSet(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void check_WhenAnotherNodeHoldsTheLease_ShouldNotReadCounters() {
+        // Given
+        when(jobLeaseStore.tryAcquire(any(), any())).thenReturn(false);
+
+        // When
+        List<Drift> drifts = slotCounterCheckJob.check(true);
+
+        // Then
+        assertThat(drifts).isEmpty();
+        verify(slotOccupancyStore, never()).find(any(), any());
+    }
+
+    @Test
+    void schedule_WhenNotDistributed_ShouldNotSchedule() {
+        // Given
+        bookingProperties.setCapacityMode(CapacityMode.LOCAL);
+
+        // When
+        slotCounterCheckJob.schedule();
+
+        // Then
+        verify(slotCounterCheckScheduler, never()).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    private void givenLeaseAndRestaurant() {
+        when(jobLeaseStore.tryAcquire(SlotCounterCheckJob.JOB, Duration.ofMinutes(30))).thenReturn(true);
+        when(restaurantService.getAllRestaurants()).thenReturn(List.of(restaurant));
+    }
+
+    private Reservation reservation(LocalDateTime start, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("counter@example.com", partySize);
+        reservation.setRestaurantId(restaurant.getId());
+        reservation.setSpaceId(space.getId());
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusHours(1));
+        return reservation;
+    }
+}
@@ -0,0 +1,122 @@
+package com.opentable.privatedining.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.opentable.privatedining.TestDataHelper;
+import com.opentable.privatedining.model.Reservation;
+import com.opentable.privatedining.service.SlotOccupancyLedger.SlotConflict;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SlotOccupancyLedgerTest {
+
+    private final SlotOccupancyLedger ledger = new SlotOccupancyLedger();
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    private final LocalDate day = TestDataHelper.RESERVATION_DATE;
+
+    @Test
+    void isLoaded_WhenDayNotHydrated_ShouldReturnFalse() {
+        // When & Then
+        assertFalse(ledger.isLoaded(spaceId, day.atTime(19, 0), day.atTime(22, 0)));
+        assertThrows(IllegalStateException.class,
+            () -> ledger.findConflict(spaceId, day.atTime(19, 0), day.atTime(22, 0), 2, 1, 8));
+    }
+
+    @Test
+    void load_ShouldCountPartySizePerSlot() {
+        // Given
+        Reservation early = reservation(day.atTime(18, 0), day.atTime(20, 0), 3);
+        Reservation late = reservation(day.atTime(19, 30), day.atTime(21, 0), 2);
+
+        // When
+        ledger.load(spaceId, day.atTime(19, 0), day.atTime(22, 0), List.of(early, late));
+
+        // Then
+        int[] occupancy = ledger.snapshot(spaceId, day).orElseThrow();
+        assertThat(occupancy[36]).isEqualTo(3); // 18:00
+        assertThat(occupancy[39]).isEqualTo(5); // 19:30
+        assertThat(occupancy[40]).isEqualTo(2); // 20:00
+        assertThat(occupancy[42]).isEqualTo(0); // 21:00
+        assertTrue(ledger.isLoaded(spaceId, day.atTime(0, 0), day.plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    void load_WhenReservationCrossesMidnight_ShouldHydrateBothDays() {
+        // Given
+        Reservation overnight = reservation(day.atTime(23, 0), day.plusDays(1).atTime(1, 0), 4);
+
+        // When
+        ledger.load(spaceId, overnight.getStartTime(), overnight.getEndTime(), List.of(overnight));
+
+        // Then
+        assertThat(ledger.snapshot(spaceId, day).orElseThrow()[47]).isEqualTo(4);
+        assertThat(ledger.snapshot(spaceId, day.plusDays(1)).orElseThrow()[1]).isEqualTo(4);
+        assertThat(ledger.snapshot(spaceId, day.plusDays(1)).orElseThrow()[2]).isEqualTo(0);
+    }
+
+    @Test
+    void findConflict_ShouldReturnFirstSlotBreakingCapacity() {
+        // Given
+        ledger.load(spaceId, day.atTime(19, 0), day.atTime(22, 0),
+            List.of(reservation(day.atTime(20, 0), day.atTime(21, 0), 6)));
+
+        // When
+        Optional<SlotConflict> conflict = ledger.findConflict(spaceId, day.atTime(19, 0), day.atTime(22, 0), 4, 1,
+            8);
+
+        // Then
+        assertTrue(conflict.isPresent());
+        assertThat(conflict.get().slotStart()).isEqualTo(day.atTime(20, 0));
+        assertThat(conflict.get().proposedOccupancy()).isEqualTo(10);
+    }
+
+    @Test
+    void addAndRemove_ShouldKeepRunningHeadcount() {
+        // Given
+        ledger.load(spaceId, day.atTime(19, 0), day.atTime(22, 0), List.of());
+        Reservation reservation = reservation(day.atTime(19, 0), day.atTime(20, 0), 5);
+
+        // When
+        ledger.add(reservation);
+
+        // Then
+        assertTrue(ledger.findConflict(spaceId, day.atTime(19, 0), day.atTime(20, 0), 4, 1, 8).isPresent());
+
+        // When
+        ledger.remove(reservation);
+
+        // Then
+        assertTrue(ledger.findConflict(spaceId, day.atTime(19, 0), day.atTime(20, 0), 4, 1, 8).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldIgnoreSlotsBeforeFromDay() {
+        // Given
+        Reservation overnight = reservation(day.minusDays(1).atTime(23, 0), day.atTime(1, 0), 4);
+
+        // When
+        ledger.rebuild(List.of(overnight), day);
+
+        // Then
+        assertThat(ledger.snapshot(spaceId, day.minusDays(1))).isEmpty();
+        assertThat(ledger.snapshot(spaceId, day).orElseThrow()[0]).isEqualTo(4);
+        assertThat(ledger.loadedDays().get(spaceId)).containsExactly(day);
+    }
+
+    private Reservation reservation(LocalDateTime start, LocalDateTime end, int partySize) {
+        Reservation reservation = TestDataHelper.createTestReservation("ledger@example.com", partySize);
+        reservation.setSpaceId(spaceId);
+        reservation.setStartTime(start);
+        reservation.setEndTime(end);
+        return reservation;
+    }
+}